@@ -0,0 +1,31 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line, all of them by default,
+ * with the GC profiler attached so that allocation rates and collection
+ * counts are reported alongside the timings. Accepts the usual JMH options,
+ * for example:
+ * <pre>
+ * java -jar target/benchmarks.jar LookupBenchmark -p maxEditDistance=2
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main( final String[] args )
+      throws CommandLineOptionException, RunnerException {
+    new Runner( new OptionsBuilder()
+                    .parent( new CommandLineOptions( args ) )
+                    .addProfiler( GCProfiler.class )
+                    .build() ).run();
+  }
+}
@@ -0,0 +1,57 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpellBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures building the dictionary of the complete lexicon, given as lines
+ * or as the bytes of a lexicon file.
+ */
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@State( Scope.Benchmark )
+public class BuildBenchmark {
+
+  @Param( {"1", "2", "3"} )
+  public int maxEditDistance;
+
+  @Param( {"1"} )
+  public int parallelism;
+
+  private List<String> lines;
+  private byte[] bytes;
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    lines = new Lexicon().lines();
+    bytes = String.join( "\n", lines ).getBytes( UTF_8 );
+  }
+
+  @Benchmark
+  public SymSpell build() {
+    return new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( maxEditDistance )
+        .setParallelism( parallelism )
+        .setLexiconWords( lines )
+        .build();
+  }
+
+  @Benchmark
+  public SymSpell buildFromBytes() {
+    return new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( maxEditDistance )
+        .setParallelism( parallelism )
+        .setLexiconWords( new ByteArrayInputStream( bytes ) )
+        .build();
+  }
+}
@@ -0,0 +1,86 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.api.BitParallelOSA;
+import io.gitlab.rxp90.jsymspell.api.DamerauLevenshteinOSA;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the edit distance between common words and misspellings of
+ * them, on its own, through both the allocating string form and the form
+ * that reuses caller-supplied cost rows, and with the bit-parallel form
+ * that reuses the match masks of a word prepared beforehand.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class DistanceBenchmark {
+
+  /**
+   * Number of distinct word pairs cycled through, a power of two.
+   */
+  private static final int PAIRS = 1024;
+
+  @Param( {"1", "2", "3"} )
+  public int maxDistance;
+
+  private final DamerauLevenshteinOSA distance = new DamerauLevenshteinOSA();
+  private String[] words;
+  private String[] misspellings;
+
+  /**
+   * The position, cost rows and prepared words of each benchmark thread.
+   */
+  @State( Scope.Thread )
+  public static class Cursor {
+    int next;
+    final int[] costs = new int[ 64 ];
+    final int[] prevCosts = new int[ 64 ];
+    final BitParallelOSA.Pattern[] patterns = new BitParallelOSA.Pattern[ PAIRS ];
+
+    @Setup( Level.Trial )
+    public void setUp( final DistanceBenchmark benchmark ) {
+      for( int i = 0; i < PAIRS; i++ ) {
+        final String word = benchmark.words[ i ];
+        patterns[ i ] = new BitParallelOSA.Pattern();
+        patterns[ i ].set( word.toCharArray(), word.length() );
+      }
+    }
+  }
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    final Lexicon lexicon = new Lexicon();
+    words = lexicon.correct( PAIRS );
+    misspellings = lexicon.misspelled( PAIRS, maxDistance );
+  }
+
+  @Benchmark
+  public int distance( final Cursor cursor ) {
+    final int i = cursor.next++ & (PAIRS - 1);
+    return distance.distance( words[ i ], misspellings[ i ], maxDistance );
+  }
+
+  @Benchmark
+  public int distanceWithReusedRows( final Cursor cursor ) {
+    final int i = cursor.next++ & (PAIRS - 1);
+    final String word = words[ i ];
+    final String misspelling = misspellings[ i ];
+    return distance.distance(
+        word.toCharArray(), word.length(),
+        misspelling.toCharArray(), misspelling.length(),
+        maxDistance, cursor.costs, cursor.prevCosts );
+  }
+
+  @Benchmark
+  public int bitParallelWithPreparedPattern( final Cursor cursor ) {
+    final int i = cursor.next++ & (PAIRS - 1);
+    final String misspelling = misspellings[ i ];
+    return cursor.patterns[ i ].distance(
+        misspelling.toCharArray(), misspelling.length(), maxDistance );
+  }
+}
@@ -0,0 +1,95 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.api.DefaultStringHasher;
+import io.gitlab.rxp90.jsymspell.api.StringHasher;
+import io.gitlab.rxp90.jsymspell.api.WyStringHasher;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+
+/**
+ * Reports how many distinct deletes of the benchmark lexicon share a hash,
+ * and so a bucket of the deletes index, for each hasher and edit distance.
+ * Run without arguments:
+ * <pre>
+ * java -cp target/benchmarks.jar \
+ *   io.gitlab.rxp90.jsymspell.benchmarks.HashCollisions
+ * </pre>
+ */
+public final class HashCollisions {
+
+  private static final int PREFIX_LENGTH = 7;
+
+  private HashCollisions() {
+  }
+
+  public static void main( final String[] args ) {
+    final Lexicon lexicon = new Lexicon();
+    final StringHasher[] hashers = {
+        new DefaultStringHasher(), new WyStringHasher()
+    };
+
+    for( int maxEditDistance = 1; maxEditDistance <= 3; maxEditDistance++ ) {
+      final Set<String> deletes = deletes( lexicon, maxEditDistance );
+
+      for( final StringHasher hasher : hashers ) {
+        final Map<Long, Integer> buckets = new HashMap<>( deletes.size() * 2 );
+
+        for( final String delete : deletes ) {
+          buckets.merge( hasher.hash( delete ), 1, Integer::sum );
+        }
+
+        long shared = 0;
+
+        for( final int size : buckets.values() ) {
+          if( size > 1 ) {
+            shared += size;
+          }
+        }
+
+        System.out.printf(
+            "%-20s distance %d: %,d deletes, %,d hashes, " +
+                "%,d deletes share a hash (%.4f%%)%n",
+            hasher.getClass().getSimpleName(), maxEditDistance,
+            deletes.size(), buckets.size(), shared,
+            100.0 * shared / deletes.size() );
+      }
+    }
+  }
+
+  /**
+   * Returns the distinct deletes of every word's prefix, as the dictionary
+   * indexes them.
+   */
+  private static Set<String> deletes(
+      final Lexicon lexicon, final int maxEditDistance ) {
+    final Set<String> deletes = new HashSet<>();
+
+    for( final String line : lexicon.lines() ) {
+      final String word = line.split( LEXICON_DELIMITER )[ 0 ];
+      Set<String> level = Set.of( word.length() > PREFIX_LENGTH
+                                      ? word.substring( 0, PREFIX_LENGTH )
+                                      : word );
+      deletes.addAll( level );
+
+      for( int distance = 0; distance < maxEditDistance; distance++ ) {
+        final Set<String> next = new HashSet<>();
+
+        for( final String delete : level ) {
+          for( int i = 0; i < delete.length(); i++ ) {
+            next.add( delete.substring( 0, i ) + delete.substring( i + 1 ) );
+          }
+        }
+
+        deletes.addAll( next );
+        level = next;
+      }
+    }
+
+    return deletes;
+  }
+}
@@ -0,0 +1,58 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.benchmarks.LookupBenchmark.Input;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the exact-match check that lets callers skip correcting words
+ * already in the lexicon, which is most of them in running text.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@State( Scope.Benchmark )
+public class KnownWordBenchmark {
+
+  /**
+   * Number of distinct inputs cycled through, a power of two.
+   */
+  private static final int INPUTS = 1 << 16;
+
+  @Param( {"CORRECT", "OUT_OF_VOCABULARY"} )
+  public Input input;
+
+  private SymSpell symSpell;
+  private String[] inputs;
+
+  /**
+   * The position of each benchmark thread in the inputs.
+   */
+  @State( Scope.Thread )
+  public static class Cursor {
+    int next;
+  }
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    final Lexicon lexicon = new Lexicon();
+    symSpell = lexicon.build( 1 );
+    inputs = input == Input.CORRECT
+        ? lexicon.correct( INPUTS )
+        : lexicon.outOfVocabulary( INPUTS );
+  }
+
+  @Benchmark
+  public boolean isKnown( final Cursor cursor ) {
+    return symSpell.isKnown( inputs[ cursor.next++ & (INPUTS - 1) ] );
+  }
+
+  @Benchmark
+  public long frequency( final Cursor cursor ) {
+    return symSpell.frequency( inputs[ cursor.next++ & (INPUTS - 1) ] );
+  }
+}
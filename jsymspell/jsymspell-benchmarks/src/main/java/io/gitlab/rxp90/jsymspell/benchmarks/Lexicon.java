@@ -0,0 +1,215 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpellBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loads the benchmark lexicon and derives inputs from it. Inputs are drawn
+ * from the most frequent words with a fixed seed, so every run measures the
+ * same work.
+ */
+final class Lexicon {
+  private static final String WORDS = "/words.txt";
+
+  /**
+   * Number of most frequent words that inputs are drawn from.
+   */
+  private static final int COMMON_WORDS = 10000;
+
+  private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+  private final List<String> lines;
+  private final List<String> words;
+  private final Set<String> dictionary;
+  private final Random random = new Random( 42 );
+
+  Lexicon() {
+    this.lines = readLines();
+    this.words = new ArrayList<>( lines.size() );
+
+    for( final String line : lines ) {
+      words.add( line.split( LEXICON_DELIMITER )[ 0 ] );
+    }
+
+    this.dictionary = new HashSet<>( words );
+  }
+
+  /**
+   * Returns the lexicon lines, each a word and its count.
+   */
+  List<String> lines() {
+    return lines;
+  }
+
+  SymSpell build( final int maxEditDistance ) {
+    return new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( maxEditDistance )
+        .setLexiconWords( lines )
+        .build();
+  }
+
+  /**
+   * Returns common words that are spelled correctly.
+   */
+  String[] correct( final int count ) {
+    final String[] inputs = new String[ count ];
+
+    for( int i = 0; i < count; i++ ) {
+      inputs[ i ] = commonWord();
+    }
+
+    return inputs;
+  }
+
+  /**
+   * Returns common words with between one and {@code maxEdits} random
+   * deletions, insertions, substitutions or transpositions, none of which
+   * spells another word.
+   */
+  String[] misspelled( final int count, final int maxEdits ) {
+    final String[] inputs = new String[ count ];
+
+    for( int i = 0; i < count; i++ ) {
+      String input;
+
+      do {
+        input = misspell( commonWord(), 1 + random.nextInt( maxEdits ) );
+      } while( dictionary.contains( input ) );
+
+      inputs[ i ] = input;
+    }
+
+    return inputs;
+  }
+
+  /**
+   * Returns random strings of letters that are not in the lexicon. They are
+   * long enough to rarely lie within a small edit distance of any word.
+   */
+  String[] outOfVocabulary( final int count ) {
+    final String[] inputs = new String[ count ];
+
+    for( int i = 0; i < count; i++ ) {
+      String input;
+
+      do {
+        final StringBuilder sb = new StringBuilder();
+
+        for( int length = 8 + random.nextInt( 8 ); length > 0; length-- ) {
+          sb.append( randomLetter() );
+        }
+
+        input = sb.toString();
+      } while( dictionary.contains( input ) );
+
+      inputs[ i ] = input;
+    }
+
+    return inputs;
+  }
+
+  /**
+   * Returns sentences of common words in which some words are misspelled,
+   * some are joined to the next and some are split in two.
+   */
+  String[] sentences( final int count, final int length ) {
+    final String[] sentences = new String[ count ];
+
+    for( int i = 0; i < count; i++ ) {
+      final StringBuilder sb = new StringBuilder();
+
+      for( int j = 0; j < length; j++ ) {
+        String word = commonWord();
+
+        if( random.nextInt( 4 ) == 0 ) {
+          word = misspell( word, 1 );
+        }
+
+        if( j > 0 ) {
+          if( random.nextInt( 8 ) != 0 ) {
+            sb.append( ' ' );
+          }
+        }
+
+        if( word.length() > 3 && random.nextInt( 8 ) == 0 ) {
+          final int split = 1 + random.nextInt( word.length() - 1 );
+          word = word.substring( 0, split ) + ' ' + word.substring( split );
+        }
+
+        sb.append( word );
+      }
+
+      sentences[ i ] = sb.toString();
+    }
+
+    return sentences;
+  }
+
+  private String commonWord() {
+    return words.get( random.nextInt( Math.min( COMMON_WORDS, words.size() ) ) );
+  }
+
+  private String misspell( final String word, final int edits ) {
+    final StringBuilder sb = new StringBuilder( word );
+
+    for( int i = 0; i < edits; i++ ) {
+      final int p = random.nextInt( sb.length() );
+
+      switch( sb.length() > 1 ? random.nextInt( 4 ) : 1 ) {
+        case 0:
+          sb.deleteCharAt( p );
+          break;
+        case 1:
+          sb.insert( p, randomLetter() );
+          break;
+        case 2:
+          sb.setCharAt( p, randomLetter() );
+          break;
+        default:
+          final int q = p + 1 < sb.length() ? p + 1 : p - 1;
+          final char c = sb.charAt( p );
+          sb.setCharAt( p, sb.charAt( q ) );
+          sb.setCharAt( q, c );
+      }
+    }
+
+    return sb.toString();
+  }
+
+  private char randomLetter() {
+    return LETTERS.charAt( random.nextInt( LETTERS.length() ) );
+  }
+
+  private static List<String> readLines() {
+    try( final InputStream in = Objects.requireNonNull(
+        Lexicon.class.getResourceAsStream( WORDS ), WORDS );
+         final BufferedReader reader = new BufferedReader(
+             new InputStreamReader( in, UTF_8 ) ) ) {
+      final List<String> lines = new ArrayList<>();
+      String line;
+
+      while( (line = reader.readLine()) != null ) {
+        lines.add( line );
+      }
+
+      return lines;
+    } catch( final IOException e ) {
+      throw new UncheckedIOException( e );
+    }
+  }
+}
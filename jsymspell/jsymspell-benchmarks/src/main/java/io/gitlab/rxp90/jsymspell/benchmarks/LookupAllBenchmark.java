@@ -0,0 +1,59 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a batch of misspelled words looked up with
+ * {@link SymSpell#lookupAll(List, Verbosity, java.util.concurrent.ExecutorService)}
+ * on pools of increasing size, to show how the batch scales with threads.
+ * The single-threaded batch runs on the calling thread.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@State( Scope.Benchmark )
+public class LookupAllBenchmark {
+
+  private static final int INPUTS = 4096;
+
+  @Param( {"2"} )
+  public int maxEditDistance;
+
+  @Param( {"1", "2", "4", "8"} )
+  public int threads;
+
+  private SymSpell symSpell;
+  private List<String> inputs;
+  private ForkJoinPool pool;
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    final Lexicon lexicon = new Lexicon();
+    symSpell = lexicon.build( maxEditDistance );
+    inputs = Arrays.asList( lexicon.misspelled( INPUTS, maxEditDistance ) );
+    pool = threads == 1 ? null : new ForkJoinPool( threads );
+  }
+
+  @TearDown( Level.Trial )
+  public void tearDown() {
+    if( pool != null ) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public List<List<SuggestItem>> lookupAll() throws NotInitializedException {
+    return symSpell.lookupAll( inputs, Verbosity.CLOSEST, pool );
+  }
+}
@@ -0,0 +1,81 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single-word lookups for every verbosity and edit distance, with
+ * inputs that are in the lexicon, misspelled by up to the edit distance, or
+ * random strings that are not words.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@State( Scope.Benchmark )
+public class LookupBenchmark {
+
+  /**
+   * The kind of word looked up.
+   */
+  public enum Input {
+    CORRECT,
+    MISSPELLED,
+    OUT_OF_VOCABULARY
+  }
+
+  /**
+   * Number of distinct inputs cycled through, a power of two.
+   */
+  private static final int INPUTS = 1024;
+
+  @Param( {"1", "2", "3"} )
+  public int maxEditDistance;
+
+  @Param
+  public Verbosity verbosity;
+
+  @Param
+  public Input input;
+
+  private SymSpell symSpell;
+  private String[] inputs;
+
+  /**
+   * The position of each benchmark thread in the inputs.
+   */
+  @State( Scope.Thread )
+  public static class Cursor {
+    int next;
+  }
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    final Lexicon lexicon = new Lexicon();
+    symSpell = lexicon.build( maxEditDistance );
+
+    switch( input ) {
+      case CORRECT:
+        inputs = lexicon.correct( INPUTS );
+        break;
+      case MISSPELLED:
+        inputs = lexicon.misspelled( INPUTS, maxEditDistance );
+        break;
+      default:
+        inputs = lexicon.outOfVocabulary( INPUTS );
+    }
+  }
+
+  @Benchmark
+  public List<SuggestItem> lookup( final Cursor cursor )
+      throws NotInitializedException {
+    return symSpell.lookup( inputs[ cursor.next++ & (INPUTS - 1) ], verbosity );
+  }
+}
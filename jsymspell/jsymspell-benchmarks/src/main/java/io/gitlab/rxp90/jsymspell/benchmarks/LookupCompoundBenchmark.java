@@ -0,0 +1,82 @@
+package io.gitlab.rxp90.jsymspell.benchmarks;
+
+import io.gitlab.rxp90.jsymspell.CorrectionSink;
+import io.gitlab.rxp90.jsymspell.StreamCorrector;
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures correcting sentences whose words may be misspelled, run
+ * together or split apart, with split points evaluated on the calling
+ * thread or in parallel, and streaming all of the sentences as one text.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@State( Scope.Benchmark )
+public class LookupCompoundBenchmark {
+
+  /**
+   * Number of distinct sentences cycled through, a power of two.
+   */
+  private static final int SENTENCES = 256;
+
+  @Param( {"1", "2"} )
+  public int maxEditDistance;
+
+  @Param( {"6"} )
+  public int wordsPerSentence;
+
+  private SymSpell symSpell;
+  private String[] sentences;
+  private String text;
+
+  /**
+   * The position of each benchmark thread in the sentences.
+   */
+  @State( Scope.Thread )
+  public static class Cursor {
+    int next;
+  }
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    final Lexicon lexicon = new Lexicon();
+    symSpell = lexicon.build( maxEditDistance );
+    sentences = lexicon.sentences( SENTENCES, wordsPerSentence );
+    text = String.join( "\n", sentences );
+  }
+
+  @Benchmark
+  public List<SuggestItem> lookupCompound( final Cursor cursor )
+      throws NotInitializedException {
+    return symSpell.lookupCompound(
+        sentences[ cursor.next++ & (SENTENCES - 1) ], maxEditDistance );
+  }
+
+  @Benchmark
+  public List<SuggestItem> lookupCompoundParallelSplits( final Cursor cursor )
+      throws NotInitializedException {
+    return symSpell.lookupCompound(
+        sentences[ cursor.next++ & (SENTENCES - 1) ], maxEditDistance,
+        ForkJoinPool.commonPool() );
+  }
+
+  @Benchmark
+  public void correctStream() throws IOException {
+    new StreamCorrector( symSpell, maxEditDistance ).correct(
+        new StringReader( text ),
+        CorrectionSink.writingTo( Writer.nullWriter() ) );
+  }
+}
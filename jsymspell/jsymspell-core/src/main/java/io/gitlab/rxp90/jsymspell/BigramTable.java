@@ -0,0 +1,253 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts of word pairs, keyed by the ids of both words packed into a long.
+ * The words of all pairs are interned once in their own {@link WordTable},
+ * independent of the dictionary's, so that pairs of words missing from the
+ * dictionary are kept and compacting the dictionary renumbers nothing here.
+ * An open-addressed table of packed keys has a parallel array of counts.
+ * <p>
+ * Probing a pair finds both words and then their key, without building the
+ * pair as a string. A table read from an {@link IndexFile} is backed by the
+ * mapped file and cannot be modified; a built table is not modified once
+ * it is part of a {@link DictionarySnapshot}.
+ * </p>
+ */
+final class BigramTable {
+
+  /**
+   * Returned by {@link #count(CharSequence, CharSequence)} for a pair that
+   * is not in the table.
+   */
+  static final long ABSENT = Long.MIN_VALUE;
+
+  /**
+   * Marks an empty slot, which no pair of non-negative ids packs into.
+   */
+  private static final long EMPTY = -1L;
+
+  private final WordTable words;
+  private LongBuffer keys;
+  private LongBuffer counts;
+  private int size;
+
+  BigramTable( final int initialCapacity ) {
+    final int capacity = DeletesIndex.tableSizeFor( initialCapacity );
+
+    this.words = new WordTable( initialCapacity );
+    this.keys = emptyKeys( capacity );
+    this.counts = LongBuffer.wrap( new long[ capacity ] );
+  }
+
+  private BigramTable(
+      final WordTable words,
+      final LongBuffer keys,
+      final LongBuffer counts,
+      final int size ) {
+    this.words = words;
+    this.keys = keys;
+    this.counts = counts;
+    this.size = size;
+  }
+
+  /**
+   * Maps a table previously written by {@link #writeTo(IndexFile.Writer)}.
+   */
+  static BigramTable readFrom( final IndexFile.Reader reader )
+      throws IOException {
+    final WordTable words = WordTable.readFrom( reader );
+    final int size = reader.readLength();
+    final int capacity = reader.readCapacity();
+
+    if( size >= capacity ) {
+      throw new IndexFormatException(
+          "Index file has " + size + " bigrams in " + capacity + " slots" );
+    }
+
+    return new BigramTable( words,
+                            reader.mapLongs( capacity ),
+                            reader.mapLongs( capacity ),
+                            size );
+  }
+
+  void writeTo( final IndexFile.Writer writer ) throws IOException {
+    words.writeTo( writer );
+    writer.writeInt( size );
+    writer.writeInt( keys.capacity() );
+    writer.writeLongs( keys, keys.capacity() );
+    writer.writeLongs( counts, counts.capacity() );
+  }
+
+  /**
+   * Returns the number of pairs in the table.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds the count of a lexicon bigram, two words separated by the first
+   * space, to any count it already has. Bigrams without a space can never
+   * be probed and are ignored.
+   */
+  void add( final CharSequence bigram, final long count ) {
+    for( int i = 0, length = bigram.length(); i < length; i++ ) {
+      if( bigram.charAt( i ) == ' ' ) {
+        add( bigram.subSequence( 0, i ),
+             bigram.subSequence( i + 1, length ),
+             count );
+        return;
+      }
+    }
+  }
+
+  /**
+   * Adds the count of a pair of words to any count it already has,
+   * saturating at {@link Long#MAX_VALUE}.
+   */
+  void add( final CharSequence word1, final CharSequence word2,
+            final long count ) {
+    final long key = key( intern( word1 ), intern( word2 ) );
+    final int slot = slot( key );
+
+    if( keys.get( slot ) == key ) {
+      final long previous = counts.get( slot );
+      counts.put( slot, Long.MAX_VALUE - previous > count
+          ? previous + count
+          : Long.MAX_VALUE );
+      return;
+    }
+
+    keys.put( slot, key );
+    counts.put( slot, count );
+
+    if( ++size * 2 > keys.capacity() ) {
+      rehash( keys.capacity() * 2 );
+    }
+  }
+
+  /**
+   * Returns the count of a pair of words.
+   *
+   * @return The count, or {@link #ABSENT} when the pair is not in the table.
+   */
+  long count( final CharSequence word1, final CharSequence word2 ) {
+    if( size == 0 ) {
+      return ABSENT;
+    }
+
+    final int id1 = words.find( word1 );
+
+    if( id1 < 0 ) {
+      return ABSENT;
+    }
+
+    final int id2 = words.find( word2 );
+
+    if( id2 < 0 ) {
+      return ABSENT;
+    }
+
+    final long key = key( id1, id2 );
+    final int slot = slot( key );
+
+    return keys.get( slot ) == key ? counts.get( slot ) : ABSENT;
+  }
+
+  /**
+   * Returns the smallest count, or {@link Long#MAX_VALUE} when the table is
+   * empty. Every slot is visited, so callers keep the result.
+   */
+  long countMin() {
+    long min = Long.MAX_VALUE;
+
+    for( int slot = 0; slot < keys.capacity(); slot++ ) {
+      if( keys.get( slot ) != EMPTY ) {
+        min = Math.min( min, counts.get( slot ) );
+      }
+    }
+
+    return min;
+  }
+
+  /**
+   * Copies the table into a map of bigrams, the words separated by a space,
+   * to counts.
+   */
+  Map<String, Long> toMap() {
+    final Map<String, Long> map = new HashMap<>( size * 2 );
+
+    for( int slot = 0; slot < keys.capacity(); slot++ ) {
+      final long key = keys.get( slot );
+
+      if( key != EMPTY ) {
+        map.put( words.word( (int) (key >>> 32) ) + ' ' +
+                     words.word( (int) key ),
+                 counts.get( slot ) );
+      }
+    }
+
+    return map;
+  }
+
+  private int intern( final CharSequence word ) {
+    final int wordId = words.find( word );
+    return wordId >= 0 ? wordId : words.add( word, 0 );
+  }
+
+  /**
+   * Returns the slot holding the key, or the empty slot where it belongs.
+   */
+  private int slot( final long key ) {
+    final int mask = keys.capacity() - 1;
+    int slot = spread( key ) & mask;
+    long found;
+
+    while( (found = keys.get( slot )) != key && found != EMPTY ) {
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+  }
+
+  private void rehash( final int capacity ) {
+    final LongBuffer oldKeys = keys;
+    final LongBuffer oldCounts = counts;
+
+    keys = emptyKeys( capacity );
+    counts = LongBuffer.wrap( new long[ capacity ] );
+
+    for( int i = 0; i < oldKeys.capacity(); i++ ) {
+      final long key = oldKeys.get( i );
+
+      if( key != EMPTY ) {
+        final int slot = slot( key );
+        keys.put( slot, key );
+        counts.put( slot, oldCounts.get( i ) );
+      }
+    }
+  }
+
+  private static LongBuffer emptyKeys( final int capacity ) {
+    final long[] keys = new long[ capacity ];
+    Arrays.fill( keys, EMPTY );
+    return LongBuffer.wrap( keys );
+  }
+
+  private static long key( final int wordId1, final int wordId2 ) {
+    return (long) wordId1 << 32 | wordId2;
+  }
+
+  private static int spread( final long key ) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,69 @@
+package io.gitlab.rxp90.jsymspell;
+
+/**
+ * A snapshot of the statistics of a lookup result cache.
+ */
+public final class CacheStats {
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long size;
+
+  CacheStats(
+      final long hitCount,
+      final long missCount,
+      final long evictionCount,
+      final long size ) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.size = size;
+  }
+
+  /**
+   * Returns the number of lookups answered from the cache.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups that had to be computed.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of results removed to respect the size bound.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of results currently cached.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the fraction of lookups answered from the cache, or {@code 0}
+   * when there have been none.
+   */
+  public double getHitRate() {
+    final long requests = hitCount + missCount;
+    return requests == 0 ? 0 : (double) hitCount / requests;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats{"
+        + "hitCount=" + hitCount
+        + ", missCount=" + missCount
+        + ", evictionCount=" + evictionCount
+        + ", size=" + size
+        + '}';
+  }
+}
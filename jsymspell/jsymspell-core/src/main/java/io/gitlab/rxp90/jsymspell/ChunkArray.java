@@ -1,40 +1,54 @@
 package io.gitlab.rxp90.jsymspell;
 
-import io.gitlab.rxp90.jsymspell.SuggestionStage.Node;
-import java.util.Arrays;
-
+/**
+ * Append-only store of staged suggestion nodes, kept in fixed-size chunks so
+ * that growing never copies the nodes already added. Each node is a pair of
+ * primitive values: the id of a lexicon word and the index of the next node
+ * in the same delete bucket (or -1 at the end of a bucket).
+ */
 public class ChunkArray {
 
   private static final int CHUNK_SIZE = 4096;
   private static final int DIV_SHIFT = 12;
 
-  private SuggestionStage.Node[][] values;
+  private int[][] wordIds;
+  private int[][] nexts;
   private int count;
 
   ChunkArray(int initialCapacity) {
-    int chunks = (initialCapacity + CHUNK_SIZE - 1) / CHUNK_SIZE;
-    values = new Node[chunks][];
-    Arrays.fill(values, new Node[CHUNK_SIZE]);
+    int chunks = Math.max(1, (initialCapacity + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    wordIds = new int[chunks][];
+    nexts = new int[chunks][];
+    for (int i = 0; i < chunks; i++) {
+      wordIds[i] = new int[CHUNK_SIZE];
+      nexts[i] = new int[CHUNK_SIZE];
+    }
   }
 
-  public int add(Node value) {
+  public int add(int wordId, int next) {
     if (count == getCapacity()) {
-      var newValues = new Node[values.length + 1][];
-      System.arraycopy(values, 0, newValues, 0, values.length);
-      newValues[values.length] = new Node[CHUNK_SIZE];
-      values = newValues;
+      int chunks = wordIds.length;
+      var newWordIds = new int[chunks + 1][];
+      var newNexts = new int[chunks + 1][];
+      System.arraycopy(wordIds, 0, newWordIds, 0, chunks);
+      System.arraycopy(nexts, 0, newNexts, 0, chunks);
+      newWordIds[chunks] = new int[CHUNK_SIZE];
+      newNexts[chunks] = new int[CHUNK_SIZE];
+      wordIds = newWordIds;
+      nexts = newNexts;
     }
-    values[row(count)][col(count)] = value;
+    wordIds[row(count)][col(count)] = wordId;
+    nexts[row(count)][col(count)] = next;
     count++;
     return count - 1;
   }
 
-  public Node get(int index) {
-    return this.values[row(index)][col(index)];
+  public int getWordId(int index) {
+    return this.wordIds[row(index)][col(index)];
   }
 
-  public void set(int index, Node value) {
-    this.values[row(index)][col(index)] = value;
+  public int getNext(int index) {
+    return this.nexts[row(index)][col(index)];
   }
 
   private int row(int index) {
@@ -46,7 +60,7 @@ public class ChunkArray {
   }
 
   private int getCapacity() {
-    return values.length * CHUNK_SIZE;
+    return wordIds.length * CHUNK_SIZE;
   }
 
   public int getCount() {
@@ -0,0 +1,163 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The result of {@link SymSpell#wordSegmentation(CharSequence, int, int)}:
+ * the input split into words, the same words corrected, and the totals by
+ * which the segmentation was chosen.
+ */
+public final class Composition {
+  private final String segmentedString;
+  private final String correctedString;
+  private final int distanceSum;
+  private final double probabilityLogSum;
+
+  Composition(
+      final String segmentedString,
+      final String correctedString,
+      final int distanceSum,
+      final double probabilityLogSum ) {
+    this.segmentedString = segmentedString;
+    this.correctedString = correctedString;
+    this.distanceSum = distanceSum;
+    this.probabilityLogSum = probabilityLogSum;
+  }
+
+  /**
+   * Returns the input with spaces inserted between the words.
+   */
+  public String getSegmentedString() {
+    return segmentedString;
+  }
+
+  /**
+   * Returns the segmented input with each word replaced by its correction.
+   */
+  public String getCorrectedString() {
+    return correctedString;
+  }
+
+  /**
+   * Returns the edit distance between the input and the corrected string,
+   * counting every inserted space.
+   */
+  public int getDistanceSum() {
+    return distanceSum;
+  }
+
+  /**
+   * Returns the sum of the base-10 logarithms of the probabilities of the
+   * words, which is higher for likelier segmentations.
+   */
+  public double getProbabilityLogSum() {
+    return probabilityLogSum;
+  }
+
+  @Override
+  public boolean equals( final Object o ) {
+    if( this == o ) {
+      return true;
+    }
+    if( o == null || getClass() != o.getClass() ) {
+      return false;
+    }
+    final Composition that = (Composition) o;
+    return distanceSum == that.distanceSum &&
+        Double.compare( that.probabilityLogSum, probabilityLogSum ) == 0 &&
+        segmentedString.equals( that.segmentedString ) &&
+        correctedString.equals( that.correctedString );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash( segmentedString, correctedString, distanceSum,
+                         probabilityLogSum );
+  }
+
+  @Override
+  public String toString() {
+    return "Composition{"
+        + "segmentedString='" + segmentedString + '\''
+        + ", correctedString='" + correctedString + '\''
+        + ", distanceSum=" + distanceSum
+        + ", probabilityLogSum=" + probabilityLogSum
+        + '}';
+  }
+
+  /**
+   * The last part of a composition under construction, linked to the parts
+   * before it, so that extending a composition copies no strings. Parts are
+   * immutable and shared by every composition extended from them.
+   */
+  static final class Part {
+    private final Part previous;
+    private final String segment;
+    private final String corrected;
+    private final boolean spaced;
+    private final int distanceSum;
+    private final double probabilityLogSum;
+
+    /**
+     * @param previous          The part before this one, or {@code null}.
+     * @param segment           The characters of the input in this part.
+     * @param corrected         The correction of the segment.
+     * @param spaced            Whether a space precedes this part.
+     * @param distanceSum       The total up to and including this part.
+     * @param probabilityLogSum The total up to and including this part.
+     */
+    Part(
+        final Part previous,
+        final String segment,
+        final String corrected,
+        final boolean spaced,
+        final int distanceSum,
+        final double probabilityLogSum ) {
+      this.previous = previous;
+      this.segment = segment;
+      this.corrected = corrected;
+      this.spaced = spaced;
+      this.distanceSum = distanceSum;
+      this.probabilityLogSum = probabilityLogSum;
+    }
+
+    int distanceSum() {
+      return distanceSum;
+    }
+
+    double probabilityLogSum() {
+      return probabilityLogSum;
+    }
+
+    /**
+     * Joins this part and those before it into a composition.
+     */
+    Composition toComposition() {
+      final List<Part> parts = new ArrayList<>();
+
+      for( Part part = this; part != null; part = part.previous ) {
+        parts.add( part );
+      }
+
+      final StringBuilder segmented = new StringBuilder();
+      final StringBuilder corrected = new StringBuilder();
+
+      for( int i = parts.size() - 1; i >= 0; i-- ) {
+        final Part part = parts.get( i );
+
+        if( part.spaced ) {
+          segmented.append( ' ' );
+          corrected.append( ' ' );
+        }
+
+        segmented.append( part.segment );
+        corrected.append( part.corrected );
+      }
+
+      return new Composition( segmented.toString(), corrected.toString(),
+                              distanceSum, probabilityLogSum );
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The lookups made by one call to
+ * {@link SymSpell#lookupCompound(String, int)}. Terms, their concatenations
+ * and the halves of split points overlap heavily within a line, so each is
+ * looked up once and its suggestions reused for the rest of the call.
+ * <p>
+ * Entries are never removed and the map is concurrent, so that the tasks
+ * evaluating split points in parallel may share one memo. The suggestions
+ * recorded here are unmodifiable.
+ * </p>
+ */
+final class CompoundMemo {
+
+  private final Map<String, List<SuggestItem>> lookups =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns the suggestions recorded for a term, or {@code null} when it
+   * has not been looked up yet.
+   */
+  List<SuggestItem> lookup( final String term ) {
+    return lookups.get( term );
+  }
+
+  /**
+   * Records the suggestions for a term and returns the suggestions recorded
+   * first, which are the same when two tasks looked the term up at once.
+   */
+  List<SuggestItem> record(
+      final String term, final List<SuggestItem> suggestions ) {
+    final List<SuggestItem> recorded = List.copyOf( suggestions );
+    final List<SuggestItem> previous = lookups.putIfAbsent( term, recorded );
+    return previous == null ? recorded : previous;
+  }
+}
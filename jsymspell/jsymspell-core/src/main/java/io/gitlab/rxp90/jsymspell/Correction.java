@@ -0,0 +1,93 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.util.Objects;
+
+/**
+ * A range of text replaced by a {@link StreamCorrector}. The range covers
+ * one word, or two words and the spaces between them when they were
+ * combined into one.
+ */
+public final class Correction {
+  private final long offset;
+  private final String original;
+  private final String replacement;
+  private final int editDistance;
+
+  Correction(
+      final long offset,
+      final String original,
+      final String replacement,
+      final int editDistance ) {
+    this.offset = offset;
+    this.original = original;
+    this.replacement = replacement;
+    this.editDistance = editDistance;
+  }
+
+  /**
+   * Returns the position of the first replaced character, counted in
+   * {@code char}s from the start of the input.
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Returns the position after the last replaced character.
+   */
+  public long getEnd() {
+    return offset + original.length();
+  }
+
+  /**
+   * Returns the replaced text as it was read.
+   */
+  public String getOriginal() {
+    return original;
+  }
+
+  /**
+   * Returns the text written in place of the original.
+   */
+  public String getReplacement() {
+    return replacement;
+  }
+
+  /**
+   * Returns the edit distance between the original, in lower case, and the
+   * replacement, with every inserted or removed space counted as an edit.
+   */
+  public int getEditDistance() {
+    return editDistance;
+  }
+
+  @Override
+  public boolean equals( final Object o ) {
+    if( this == o ) {
+      return true;
+    }
+    if( o == null || getClass() != o.getClass() ) {
+      return false;
+    }
+    final Correction that = (Correction) o;
+    return offset == that.offset &&
+        editDistance == that.editDistance &&
+        original.equals( that.original ) &&
+        replacement.equals( that.replacement );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash( offset, original, replacement, editDistance );
+  }
+
+  @Override
+  public String toString() {
+    return "Correction{"
+        + "offset=" + offset
+        + ", original='" + original + '\''
+        + ", replacement='" + replacement + '\''
+        + ", editDistance=" + editDistance
+        + '}';
+  }
+}
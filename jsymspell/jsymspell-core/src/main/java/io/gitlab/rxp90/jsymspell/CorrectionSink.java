@@ -0,0 +1,59 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives the output of a {@link StreamCorrector} in input order: every
+ * character of the input is passed either unchanged or as part of a
+ * {@link Correction}.
+ * <p>
+ * Calls are made on the thread that runs the corrector, which reads no
+ * further input until a call returns. A sink that cannot keep up may
+ * therefore block, for example on a bounded queue, and the corrector slows
+ * down to its pace while holding no more than a buffer of input.
+ * </p>
+ */
+public interface CorrectionSink {
+
+  /**
+   * Receives text that is not replaced. The array is reused once this
+   * returns and must not be retained.
+   *
+   * @param chars  Holds the text.
+   * @param offset The position of the text in the array.
+   * @param length The number of characters.
+   * @throws IOException Stops the corrector, which rethrows it.
+   */
+  void unchanged( char[] chars, int offset, int length ) throws IOException;
+
+  /**
+   * Receives a replacement of input text.
+   *
+   * @param correction The replaced range and its replacement.
+   * @throws IOException Stops the corrector, which rethrows it.
+   */
+  void corrected( Correction correction ) throws IOException;
+
+  /**
+   * Returns a sink that writes the corrected text: the input with each
+   * correction's replacement in place of its original. The writer is
+   * neither flushed nor closed.
+   */
+  static CorrectionSink writingTo( final Writer writer ) {
+    return new CorrectionSink() {
+      @Override
+      public void unchanged(
+          final char[] chars, final int offset, final int length )
+          throws IOException {
+        writer.write( chars, offset, length );
+      }
+
+      @Override
+      public void corrected( final Correction correction )
+          throws IOException {
+        writer.write( correction.getReplacement() );
+      }
+    };
+  }
+}
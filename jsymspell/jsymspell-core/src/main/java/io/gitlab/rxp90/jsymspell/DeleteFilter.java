@@ -0,0 +1,173 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+
+/**
+ * A blocked Bloom filter over the delete hashes of a {@link DeletesIndex},
+ * consulted before the index so that most deletes that no lexicon word
+ * produces are rejected without touching it. Each hash sets bits within a
+ * single 64-byte block, so answering costs one cache line rather than the
+ * index's scattered offsets and hashes. Hashes that were added are always
+ * reported as possibly present; others are with about the requested false
+ * positive rate. A filter read from an {@link IndexFile} is backed by the
+ * mapped file.
+ */
+final class DeleteFilter {
+  private static final int WORDS_PER_BLOCK = 8;
+  private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+
+  /**
+   * Blocked filters lose accuracy to uneven block loads, which this many
+   * extra bits per hash make up for at the rates worth asking for.
+   */
+  private static final double BLOCK_OVERHEAD = 1.2;
+
+  private static final int MAX_HASH_FUNCTIONS = 16;
+
+  private final LongBuffer words;
+  private final int blockCount;
+  private final int hashFunctions;
+  private final double falsePositiveRate;
+
+  /**
+   * @param entries           The number of distinct hashes to add.
+   * @param falsePositiveRate The wanted chance of a hash that was not added
+   *                          being reported as present, above zero and
+   *                          below one.
+   */
+  DeleteFilter( final int entries, final double falsePositiveRate ) {
+    assert falsePositiveRate > 0 && falsePositiveRate < 1;
+
+    final double ln2 = Math.log( 2 );
+    final double bitsPerEntry =
+        -Math.log( falsePositiveRate ) / (ln2 * ln2) + BLOCK_OVERHEAD;
+    final long bits = (long) Math.ceil( Math.max( entries, 1 ) * bitsPerEntry );
+
+    this.blockCount = (int) Math.min(
+        Integer.MAX_VALUE / WORDS_PER_BLOCK,
+        (bits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK );
+    this.words = LongBuffer.wrap( new long[ blockCount * WORDS_PER_BLOCK ] );
+    this.hashFunctions = (int) Math.max( 1, Math.min(
+        MAX_HASH_FUNCTIONS, Math.round( bitsPerEntry * ln2 ) ) );
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  private DeleteFilter(
+      final LongBuffer words,
+      final int blockCount,
+      final int hashFunctions,
+      final double falsePositiveRate ) {
+    this.words = words;
+    this.blockCount = blockCount;
+    this.hashFunctions = hashFunctions;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /**
+   * Maps a filter previously written by {@link #writeTo(IndexFile.Writer)}.
+   */
+  static DeleteFilter readFrom( final IndexFile.Reader reader )
+      throws IOException {
+    final double falsePositiveRate =
+        Double.longBitsToDouble( reader.readLong() );
+    final int hashFunctions = reader.readInt();
+    final int blockCount = reader.readLength();
+
+    if( !(falsePositiveRate > 0 && falsePositiveRate < 1)
+        || hashFunctions < 1 || hashFunctions > MAX_HASH_FUNCTIONS
+        || blockCount < 1
+        || blockCount > Integer.MAX_VALUE / WORDS_PER_BLOCK ) {
+      throw new IndexFormatException( "Index file has an invalid filter" );
+    }
+
+    return new DeleteFilter(
+        reader.mapLongs( blockCount * WORDS_PER_BLOCK ),
+        blockCount, hashFunctions, falsePositiveRate );
+  }
+
+  void writeTo( final IndexFile.Writer writer ) throws IOException {
+    writer.writeLong( Double.doubleToLongBits( falsePositiveRate ) );
+    writer.writeInt( hashFunctions );
+    writer.writeInt( blockCount );
+    writer.writeLongs( words, words.capacity() );
+  }
+
+  void add( final long deleteHash ) {
+    final long h = mix( deleteHash );
+    final int block = block( h );
+    int bit = (int) h;
+    final int step = step( h );
+
+    for( int i = 0; i < hashFunctions; i++, bit += step ) {
+      final int index = bit & (BITS_PER_BLOCK - 1);
+      final int word = block + (index >>> 6);
+      words.put( word, words.get( word ) | 1L << index );
+    }
+  }
+
+  /**
+   * Answers whether the hash may have been added; {@code false} means it
+   * certainly was not.
+   */
+  boolean mightContain( final long deleteHash ) {
+    final long h = mix( deleteHash );
+    final int block = block( h );
+    int bit = (int) h;
+    final int step = step( h );
+
+    for( int i = 0; i < hashFunctions; i++, bit += step ) {
+      final int index = bit & (BITS_PER_BLOCK - 1);
+
+      if( (words.get( block + (index >>> 6) ) & (1L << index)) == 0 ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the false positive rate the filter was sized for.
+   */
+  double falsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  /**
+   * Returns the number of bytes held by the filter's bits.
+   */
+  long bytes() {
+    return (long) words.capacity() * Long.BYTES;
+  }
+
+  /**
+   * Returns the index of the first word of the block for a mixed hash,
+   * chosen by its high bits so that the low bits remain for the block.
+   */
+  private int block( final long h ) {
+    return (int) (((h >>> 32) * blockCount) >>> 32) * WORDS_PER_BLOCK;
+  }
+
+  /**
+   * Returns the odd distance between successive bits of a mixed hash.
+   */
+  private static int step( final long h ) {
+    return (int) ((h * 0x9E3779B97F4A7C15L) >>> 32) | 1;
+  }
+
+  /**
+   * Spreads hashes that may only populate their low 32 bits. This differs
+   * from the spreading of {@link DeletesIndex#home(long, int)}, so that
+   * hashes crowding one part of the index do not crowd one block.
+   */
+  private static long mix( long h ) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+}
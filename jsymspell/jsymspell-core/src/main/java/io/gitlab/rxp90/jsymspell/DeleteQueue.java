@@ -0,0 +1,388 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.api.StringHasher;
+
+import java.util.Arrays;
+
+/**
+ * Enumerates the single-character deletes of a word in breadth-first order
+ * without creating a string per delete. Entries share one character pool
+ * and are identified by their position in the queue. A delete that repeats
+ * an entry already queued is rejected by probing a primitive table keyed on
+ * a polynomial hash, which is derived from the hash of its parent in
+ * constant time per deleted position and confirmed character by character.
+ * <p>
+ * Instances are not thread-safe; call {@link #clear()} to reuse one.
+ * </p>
+ */
+final class DeleteQueue {
+
+  /**
+   * Marks an entry whose bucket has not been looked up yet.
+   */
+  private static final int UNPROBED = -2;
+
+  private final StringHasher stringHasher;
+  private final Pool view = new Pool();
+
+  private char[] pool;
+  private int poolSize;
+  private int[] offsets;
+  private int[] hashes;
+  private long[] deleteHashes;
+  private int[] buckets;
+  private int size;
+
+  /**
+   * Number of leading entries that {@link #expandTo(int, int)} has
+   * expanded.
+   */
+  private int expanded;
+
+  /**
+   * Open-addressed table of entry indexes plus one; zero marks an empty
+   * slot.
+   */
+  private int[] slots;
+
+  /**
+   * Powers of 31 and the prefix hashes of the entry being expanded.
+   */
+  private int[] powers = {1};
+  private int[] prefixes = new int[ 16 ];
+
+  DeleteQueue( final StringHasher stringHasher, final int initialCapacity ) {
+    final int capacity = Math.max( initialCapacity, 16 );
+
+    this.stringHasher = stringHasher;
+    this.pool = new char[ capacity * 8 ];
+    this.offsets = new int[ capacity + 1 ];
+    this.hashes = new int[ capacity ];
+    this.deleteHashes = new long[ capacity ];
+    this.buckets = new int[ capacity ];
+    this.slots = new int[ DeletesIndex.tableSizeFor( capacity ) ];
+  }
+
+  /**
+   * Removes all entries while keeping the allocated capacity.
+   */
+  void clear() {
+    if( size > 0 ) {
+      Arrays.fill( slots, 0 );
+      size = 0;
+      poolSize = 0;
+      expanded = 0;
+    }
+  }
+
+  StringHasher stringHasher() {
+    return stringHasher;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int length( final int index ) {
+    return offsets[ index + 1 ] - offsets[ index ];
+  }
+
+  char charAt( final int index, final int position ) {
+    return pool[ offsets[ index ] + position ];
+  }
+
+  /**
+   * Answers the {@link StringHasher} hash of an entry, as used to address
+   * the deletes index.
+   */
+  long deleteHash( final int index ) {
+    return deleteHashes[ index ];
+  }
+
+  /**
+   * Answers the slot of an entry's bucket in the deletes index, or -1 when
+   * it has none. The index is probed only the first time an entry is asked
+   * for, so entries shared by several lookups are probed once.
+   */
+  int bucket( final int index, final DeletesIndex deletes ) {
+    int bucket = buckets[ index ];
+
+    if( bucket == UNPROBED ) {
+      bucket = deletes.find( deleteHashes[ index ] );
+      buckets[ index ] = bucket;
+    }
+
+    return bucket;
+  }
+
+  /**
+   * Queues the first {@code length} characters of a word unless an equal
+   * entry is already queued.
+   */
+  void add( final CharSequence s, final int length ) {
+    int hash = 0;
+
+    for( int i = 0; i < length; i++ ) {
+      hash = 31 * hash + s.charAt( i );
+    }
+
+    if( find( hash, s, length ) < 0 ) {
+      ensureCapacity( length );
+
+      for( int i = 0; i < length; i++ ) {
+        pool[ poolSize + i ] = s.charAt( i );
+      }
+
+      append( hash, length );
+    }
+  }
+
+  /**
+   * Queues every string obtained by deleting one character of an entry,
+   * skipping those that are already queued.
+   *
+   * @param index The entry to expand.
+   */
+  void addDeletes( final int index ) {
+    final int length = length( index );
+
+    if( length == 0 ) {
+      return;
+    }
+
+    computePrefixes( index, length );
+
+    final int hash = hashes[ index ];
+
+    for( int position = 0; position < length; position++ ) {
+      // Removing the character at position p from s, whose prefix hashes
+      // are A, leaves A[p] * 31^(n-1-p) + (H - A[p+1] * 31^(n-1-p)).
+      final int deleteHash = hash +
+          (prefixes[ position ] - prefixes[ position + 1 ]) *
+              powers[ length - 1 - position ];
+
+      if( findDelete( deleteHash, index, position ) < 0 ) {
+        ensureCapacity( length - 1 );
+
+        final int start = offsets[ index ];
+        System.arraycopy( pool, start, pool, poolSize, position );
+        System.arraycopy( pool, start + position + 1,
+                          pool, poolSize + position,
+                          length - 1 - position );
+        append( deleteHash, length - 1 );
+      }
+    }
+  }
+
+  /**
+   * Expands, in order, each entry before {@code index} that is fewer than
+   * {@code maxDepth} deletes away from the first entry and has not been
+   * expanded yet. Entry {@code index} then exists exactly when it would
+   * exist had all such entries been expanded in one breadth-first pass, so
+   * lookups that stop early share the queue without growing it further than
+   * they need.
+   *
+   * @return {@code true} when entry {@code index} exists.
+   */
+  boolean expandTo( final int index, final int maxDepth ) {
+    final int rootLength = length( 0 );
+
+    for( ; expanded < index && expanded < size; expanded++ ) {
+      if( rootLength - length( expanded ) < maxDepth ) {
+        addDeletes( expanded );
+      }
+    }
+
+    return index < size;
+  }
+
+  /**
+   * Answers whether an entry spells the given lexicon word.
+   */
+  boolean matches(
+      final int index, final DictionarySnapshot words, final int wordId ) {
+    final int length = length( index );
+
+    if( words.length( wordId ) != length ) {
+      return false;
+    }
+
+    final int start = offsets[ index ];
+
+    for( int i = 0; i < length; i++ ) {
+      if( pool[ start + i ] != words.charAt( wordId, i ) ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  String toString( final int index ) {
+    return new String( pool, offsets[ index ], length( index ) );
+  }
+
+  private int find( final int hash, final CharSequence s, final int length ) {
+    final int mask = slots.length - 1;
+
+    for( int slot = DeletesIndex.home( hash, mask ); slots[ slot ] != 0;
+         slot = (slot + 1) & mask ) {
+      final int index = slots[ slot ] - 1;
+
+      if( hashes[ index ] == hash && length( index ) == length ) {
+        final int start = offsets[ index ];
+        int i = 0;
+
+        while( i < length && pool[ start + i ] == s.charAt( i ) ) {
+          i++;
+        }
+
+        if( i == length ) {
+          return index;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Finds the entry equal to entry {@code parent} without the character at
+   * {@code position}.
+   */
+  private int findDelete(
+      final int hash, final int parent, final int position ) {
+    final int mask = slots.length - 1;
+    final int length = length( parent ) - 1;
+    final int parentStart = offsets[ parent ];
+
+    for( int slot = DeletesIndex.home( hash, mask ); slots[ slot ] != 0;
+         slot = (slot + 1) & mask ) {
+      final int index = slots[ slot ] - 1;
+
+      if( hashes[ index ] == hash && length( index ) == length ) {
+        final int start = offsets[ index ];
+        int i = 0;
+
+        while( i < position && pool[ start + i ] == pool[ parentStart + i ] ) {
+          i++;
+        }
+
+        if( i == position ) {
+          while( i < length
+              && pool[ start + i ] == pool[ parentStart + i + 1 ] ) {
+            i++;
+          }
+        }
+
+        if( i == length ) {
+          return index;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  private void computePrefixes( final int index, final int length ) {
+    if( prefixes.length <= length ) {
+      prefixes = new int[ length * 2 ];
+    }
+
+    if( powers.length < length ) {
+      final int previous = powers.length;
+      powers = Arrays.copyOf( powers, length * 2 );
+
+      for( int i = previous; i < powers.length; i++ ) {
+        powers[ i ] = powers[ i - 1 ] * 31;
+      }
+    }
+
+    final int start = offsets[ index ];
+    int prefix = 0;
+
+    for( int i = 0; i < length; i++ ) {
+      prefixes[ i ] = prefix;
+      prefix = 31 * prefix + pool[ start + i ];
+    }
+
+    prefixes[ length ] = prefix;
+  }
+
+  /**
+   * Registers the characters written at the end of the pool as a new entry.
+   */
+  private void append( final int hash, final int length ) {
+    if( size + 1 >= offsets.length ) {
+      final int capacity = offsets.length * 2;
+      offsets = Arrays.copyOf( offsets, capacity + 1 );
+      hashes = Arrays.copyOf( hashes, capacity );
+      deleteHashes = Arrays.copyOf( deleteHashes, capacity );
+      buckets = Arrays.copyOf( buckets, capacity );
+    }
+
+    final int index = size++;
+    offsets[ index ] = poolSize;
+    poolSize += length;
+    offsets[ index + 1 ] = poolSize;
+    hashes[ index ] = hash;
+    deleteHashes[ index ] =
+        stringHasher.hash( view, offsets[ index ], offsets[ index + 1 ] );
+    buckets[ index ] = UNPROBED;
+
+    if( size * 2 > slots.length ) {
+      slots = new int[ slots.length * 2 ];
+
+      for( int i = 0; i < size; i++ ) {
+        insert( i );
+      }
+    }
+    else {
+      insert( index );
+    }
+  }
+
+  private void insert( final int index ) {
+    final int mask = slots.length - 1;
+    int slot = DeletesIndex.home( hashes[ index ], mask );
+
+    while( slots[ slot ] != 0 ) {
+      slot = (slot + 1) & mask;
+    }
+
+    slots[ slot ] = index + 1;
+  }
+
+  private void ensureCapacity( final int length ) {
+    if( poolSize + length > pool.length ) {
+      pool = Arrays.copyOf( pool, Math.max( pool.length * 2,
+                                            poolSize + length ) );
+    }
+  }
+
+  /**
+   * Presents the pool to the {@link StringHasher}, which hashes the range of
+   * one entry without copying it.
+   */
+  private final class Pool implements CharSequence {
+    @Override
+    public int length() {
+      return poolSize;
+    }
+
+    @Override
+    public char charAt( final int index ) {
+      return pool[ index ];
+    }
+
+    @Override
+    public CharSequence subSequence( final int start, final int end ) {
+      return new String( pool, start, end - start );
+    }
+
+    @Override
+    public String toString() {
+      return new String( pool, 0, poolSize );
+    }
+  }
+}
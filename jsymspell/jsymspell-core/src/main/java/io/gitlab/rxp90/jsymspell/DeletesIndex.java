@@ -0,0 +1,736 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+
+/**
+ * Frozen mapping of delete hashes to the ids of the lexicon words that
+ * produce them, laid out in compressed sparse row form: an open-addressed
+ * table of hashes, a parallel table of offsets into one flat array of word
+ * ids. A bucket occupies {@code wordIds[offsets[slot]..offsets[slot + 1])};
+ * an empty range marks an unused slot. Probing never boxes the hash.
+ * <p>
+ * Indexes merged with their {@link WordTable} list the words of each bucket
+ * by ascending length and, among words of the same length, by descending
+ * count, so that lookups can stop scanning a bucket once its remaining
+ * words cannot qualify. Buckets of at least {@link #DIRECTORY_MIN_SIZE}
+ * words also get a directory of where each length starts, so that lookups
+ * can jump past the words too short to qualify without reading them. The
+ * directories are found through a small table keyed on the start of their
+ * bucket.
+ * </p>
+ * <p>
+ * An index may carry a {@link DeleteFilter} that rejects most absent hashes
+ * before the table is probed. Indexes merged from one with a filter get a
+ * filter of the same false positive rate.
+ * </p>
+ * <p>
+ * The arrays are held as buffers so that an index can be served either from
+ * the heap or straight from a mapped {@link IndexFile}.
+ * </p>
+ */
+final class DeletesIndex {
+
+  /**
+   * Index without any buckets, used as the base to commit staged deletes to.
+   */
+  static final DeletesIndex EMPTY = new DeletesIndex(
+      new long[ 2 ], new int[ 3 ], new int[ 0 ], 0, Directories.NONE );
+
+  /**
+   * Buckets with fewer words are scanned from their start.
+   */
+  static final int DIRECTORY_MIN_SIZE = 16;
+
+  /**
+   * Marks an empty slot of the directory table, which no bucket start and
+   * directory position pack into.
+   */
+  private static final long NO_DIRECTORY = -1L;
+
+  private final LongBuffer hashes;
+  private final IntBuffer offsets;
+  private final IntBuffer wordIds;
+  private final int mask;
+  private final int bucketCount;
+
+  /**
+   * For each directory, its number of lengths followed by each length and
+   * the index of its first word id.
+   */
+  private final IntBuffer directories;
+
+  /**
+   * Open-addressed table of bucket starts, each packed into the high half
+   * of a long with the position of the bucket's directory in the low half.
+   */
+  private final LongBuffer directorySlots;
+  private final int directoryMask;
+
+  /**
+   * Rejects most hashes without buckets, {@code null} when there is none.
+   */
+  private final DeleteFilter filter;
+
+  private DeletesIndex(
+      final long[] hashes,
+      final int[] offsets,
+      final int[] wordIds,
+      final int bucketCount,
+      final Directories directories ) {
+    this( LongBuffer.wrap( hashes ),
+          IntBuffer.wrap( offsets ),
+          IntBuffer.wrap( wordIds ),
+          bucketCount,
+          IntBuffer.wrap( directories.positions ),
+          LongBuffer.wrap( directories.slots ) );
+  }
+
+  private DeletesIndex(
+      final LongBuffer hashes,
+      final IntBuffer offsets,
+      final IntBuffer wordIds,
+      final int bucketCount,
+      final IntBuffer directories,
+      final LongBuffer directorySlots ) {
+    assert Integer.bitCount( hashes.capacity() ) == 1;
+    assert offsets.capacity() == hashes.capacity() + 1;
+    assert Integer.bitCount( directorySlots.capacity() ) == 1;
+
+    this.hashes = hashes;
+    this.offsets = offsets;
+    this.wordIds = wordIds;
+    this.mask = hashes.capacity() - 1;
+    this.bucketCount = bucketCount;
+    this.directories = directories;
+    this.directorySlots = directorySlots;
+    this.directoryMask = directorySlots.capacity() - 1;
+    this.filter = null;
+  }
+
+  private DeletesIndex( final DeletesIndex source, final DeleteFilter filter ) {
+    this.hashes = source.hashes;
+    this.offsets = source.offsets;
+    this.wordIds = source.wordIds;
+    this.mask = source.mask;
+    this.bucketCount = source.bucketCount;
+    this.directories = source.directories;
+    this.directorySlots = source.directorySlots;
+    this.directoryMask = source.directoryMask;
+    this.filter = filter;
+  }
+
+  /**
+   * Maps an index previously written by {@link #writeTo(IndexFile.Writer)}.
+   */
+  static DeletesIndex readFrom( final IndexFile.Reader reader )
+      throws IOException {
+    final int capacity = reader.readCapacity();
+    final int bucketCount = reader.readLength();
+    final int entryCount = reader.readLength();
+    final int directoryLength = reader.readLength();
+    final int directoryCapacity = reader.readCapacity();
+
+    if( bucketCount >= capacity ) {
+      throw new IndexFormatException(
+          "Index file has " + bucketCount + " buckets in " + capacity +
+              " slots" );
+    }
+
+    final DeletesIndex index =
+        new DeletesIndex( reader.mapLongs( capacity ),
+                          reader.mapInts( capacity + 1 ),
+                          reader.mapInts( entryCount ),
+                          bucketCount,
+                          reader.mapInts( directoryLength ),
+                          reader.mapLongs( directoryCapacity ) );
+    final int filtered = reader.readInt();
+
+    if( filtered == 0 ) {
+      return index;
+    }
+
+    if( filtered != 1 ) {
+      throw new IndexFormatException( "Index file has an invalid filter" );
+    }
+
+    return new DeletesIndex( index, DeleteFilter.readFrom( reader ) );
+  }
+
+  void writeTo( final IndexFile.Writer writer ) throws IOException {
+    writer.writeInt( hashes.capacity() );
+    writer.writeInt( bucketCount );
+    writer.writeInt( wordIds.capacity() );
+    writer.writeInt( directories.capacity() );
+    writer.writeInt( directorySlots.capacity() );
+    writer.writeLongs( hashes, hashes.capacity() );
+    writer.writeInts( offsets, offsets.capacity() );
+    writer.writeInts( wordIds, wordIds.capacity() );
+    writer.writeInts( directories, directories.capacity() );
+    writer.writeLongs( directorySlots, directorySlots.capacity() );
+    writer.writeInt( filter == null ? 0 : 1 );
+
+    if( filter != null ) {
+      filter.writeTo( writer );
+    }
+  }
+
+  /**
+   * Returns the slot holding the bucket for the given delete hash.
+   *
+   * @param deleteHash The hash of a delete to probe for.
+   * @return The slot to pass to {@link #start(int)} and {@link #end(int)},
+   * or -1 if no lexicon word produces the delete.
+   */
+  int find( final long deleteHash ) {
+    if( filter != null && !filter.mightContain( deleteHash ) ) {
+      return -1;
+    }
+
+    int slot = home( deleteHash, mask );
+
+    while( offsets.get( slot ) != offsets.get( slot + 1 ) ) {
+      if( hashes.get( slot ) == deleteHash ) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the index of the first word id in the bucket at the given slot.
+   */
+  int start( final int slot ) {
+    return offsets.get( slot );
+  }
+
+  /**
+   * Returns the index just past the last word id in the bucket at the given
+   * slot.
+   */
+  int end( final int slot ) {
+    return offsets.get( slot + 1 );
+  }
+
+  /**
+   * Returns the index of the first word id in the bucket at the given slot
+   * whose word could be at least {@code minLength} characters long. Buckets
+   * with a directory skip their shorter words, others start at
+   * {@link #start(int)}.
+   */
+  int start( final int slot, final int minLength ) {
+    final int start = offsets.get( slot );
+    final int end = offsets.get( slot + 1 );
+
+    if( end - start < DIRECTORY_MIN_SIZE ) {
+      return start;
+    }
+
+    int position = directory( start );
+
+    if( position < 0 ) {
+      return start;
+    }
+
+    final int lengths = directories.get( position++ );
+
+    for( int i = 0; i < lengths; i++, position += 2 ) {
+      if( directories.get( position ) >= minLength ) {
+        return directories.get( position + 1 );
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * Returns the position of the directory of the bucket starting at the
+   * given index, or -1 when it has none.
+   */
+  private int directory( final int start ) {
+    int slot = home( start, directoryMask );
+    long entry;
+
+    while( (entry = directorySlots.get( slot )) != NO_DIRECTORY ) {
+      if( (int) (entry >>> 32) == start ) {
+        return (int) entry;
+      }
+      slot = (slot + 1) & directoryMask;
+    }
+
+    return -1;
+  }
+
+  int wordId( final int index ) {
+    return wordIds.get( index );
+  }
+
+  /**
+   * Returns the number of distinct delete hashes in the index.
+   */
+  int bucketCount() {
+    return bucketCount;
+  }
+
+  /**
+   * Returns the total number of word ids across all buckets.
+   */
+  int entryCount() {
+    return wordIds.capacity();
+  }
+
+  /**
+   * Copies the index into a map of delete hashes to words, the same shape
+   * accepted by {@link SymSpellBuilder#setDeletesMap(Map)}.
+   *
+   * @param words Resolves a word id to its word.
+   * @return A new map holding every bucket in the index.
+   */
+  Map<Long, String[]> toMap( final IntFunction<String> words ) {
+    final Map<Long, String[]> map = new HashMap<>( bucketCount * 2 );
+
+    for( int slot = 0; slot <= mask; slot++ ) {
+      final int start = offsets.get( slot );
+      final int end = offsets.get( slot + 1 );
+
+      if( start != end ) {
+        final String[] suggestions = new String[ end - start ];
+
+        for( int i = start; i < end; i++ ) {
+          suggestions[ i - start ] = words.apply( wordIds.get( i ) );
+        }
+
+        map.put( hashes.get( slot ), suggestions );
+      }
+    }
+
+    return map;
+  }
+
+  /**
+   * Merges this index with staged buckets into a new index. Within each
+   * bucket, the word ids from this index come first, followed by those of
+   * each stage in list order.
+   *
+   * @param stagings Buckets staged since this index was built.
+   * @param executor Fills the buckets of the new index in parallel, may be
+   *                 {@code null} to fill them on the calling thread.
+   * @param tasks    The number of slices to split the filling into.
+   * @return A new index holding the buckets of all.
+   */
+  DeletesIndex merge(
+      final List<SuggestionStage> stagings,
+      final ExecutorService executor,
+      final int tasks ) {
+    return merge( null, stagings, null, executor, tasks );
+  }
+
+  /**
+   * Merges this index, with its word ids renumbered, and staged buckets
+   * into a new index. Buckets left without word ids are dropped.
+   *
+   * @param remap    Maps each word id of this index to its id in the new
+   *                 index, or to -1 to drop it; {@code null} keeps the ids.
+   * @param stagings Buckets staged since this index was built, already
+   *                 holding new ids.
+   * @param words    The words of the new ids, to order each bucket by
+   *                 ascending length and then descending count; {@code null}
+   *                 keeps the word ids in the order they are merged.
+   * @param executor Fills the buckets of the new index in parallel, may be
+   *                 {@code null} to fill them on the calling thread.
+   * @param tasks    The number of slices to split the filling into.
+   * @return A new index holding the buckets of all.
+   * @see #merge(List, ExecutorService, int)
+   */
+  DeletesIndex merge(
+      final int[] remap,
+      final List<SuggestionStage> stagings,
+      final WordTable words,
+      final ExecutorService executor,
+      final int tasks ) {
+    int bucketBound = bucketCount;
+
+    for( final SuggestionStage staging : stagings ) {
+      bucketBound += staging.deleteCount();
+    }
+
+    final int capacity = tableSizeFor( bucketBound );
+    final long[] newHashes = new long[ capacity ];
+    final int[] newOffsets = new int[ capacity + 1 ];
+    final int newMask = capacity - 1;
+    final int[] newBucketCount = new int[ 1 ];
+
+    // Claim a slot per distinct hash, count its word ids into the offset
+    // that follows the slot, then sum the counts into start offsets.
+    for( int slot = 0; slot <= mask; slot++ ) {
+      final int size = remap == null
+          ? offsets.get( slot + 1 ) - offsets.get( slot )
+          : liveCount( slot, remap );
+
+      if( size > 0 ) {
+        claim( newHashes, newOffsets, newMask, hashes.get( slot ), size,
+               newBucketCount );
+      }
+    }
+
+    for( final SuggestionStage staging : stagings ) {
+      staging.forEachBucket( ( deleteHash, size ) -> claim(
+          newHashes, newOffsets, newMask, deleteHash, size, newBucketCount ) );
+    }
+
+    for( int slot = 0; slot < capacity; slot++ ) {
+      newOffsets[ slot + 1 ] += newOffsets[ slot ];
+    }
+
+    // Each task fills a disjoint range of slots, gathering every bucket from
+    // all sources in order, so the result does not depend on scheduling.
+    final int[] newWordIds = new int[ newOffsets[ capacity ] ];
+    final int[] ranks = words == null ? null : rank( words );
+
+    Tasks.run( executor, tasks, task -> {
+      final int end = Tasks.start( task + 1, tasks, capacity );
+
+      for( int slot = Tasks.start( task, tasks, capacity ); slot < end;
+           slot++ ) {
+        int cursor = newOffsets[ slot ];
+
+        if( cursor != newOffsets[ slot + 1 ] ) {
+          final long deleteHash = newHashes[ slot ];
+          final int source = find( deleteHash );
+
+          if( source >= 0 ) {
+            for( int i = start( source ); i < end( source ); i++ ) {
+              final int wordId = remap == null
+                  ? wordIds.get( i )
+                  : remap[ wordIds.get( i ) ];
+
+              if( wordId >= 0 ) {
+                newWordIds[ cursor++ ] = wordId;
+              }
+            }
+          }
+
+          for( final SuggestionStage staging : stagings ) {
+            cursor = staging.copyBucket( deleteHash, newWordIds, cursor );
+          }
+
+          if( ranks != null ) {
+            order( newWordIds, newOffsets[ slot ], cursor, ranks );
+          }
+        }
+      }
+    } );
+
+    final DeletesIndex merged = new DeletesIndex(
+        newHashes, newOffsets, newWordIds, newBucketCount[ 0 ],
+        words == null
+            ? Directories.NONE
+            : new Directories( newOffsets, newWordIds, words ) );
+
+    return filter == null
+        ? merged
+        : merged.withFilter( filter.falsePositiveRate() );
+  }
+
+  /**
+   * Returns an index with the same buckets that consults a filter of all
+   * its hashes before probing, replacing any filter this one has. This
+   * index is returned when its filter already has the given rate.
+   *
+   * @param falsePositiveRate The chance of a hash without a bucket passing
+   *                          the filter, below one, or zero for none.
+   */
+  DeletesIndex withFilter( final double falsePositiveRate ) {
+    if( falsePositiveRate == filterRate() ) {
+      return this;
+    }
+
+    if( falsePositiveRate == 0 ) {
+      return new DeletesIndex( this, null );
+    }
+
+    final DeleteFilter filter =
+        new DeleteFilter( bucketCount, falsePositiveRate );
+
+    for( int slot = 0; slot <= mask; slot++ ) {
+      if( offsets.get( slot ) != offsets.get( slot + 1 ) ) {
+        filter.add( hashes.get( slot ) );
+      }
+    }
+
+    return new DeletesIndex( this, filter );
+  }
+
+  /**
+   * Returns the false positive rate of the filter, zero when there is none.
+   */
+  double filterRate() {
+    return filter == null ? 0 : filter.falsePositiveRate();
+  }
+
+  /**
+   * Returns the number of bytes held by the filter, zero when there is none.
+   */
+  long filterBytes() {
+    return filter == null ? 0 : filter.bytes();
+  }
+
+  /**
+   * Ranks the words by ascending length, then descending count, then id.
+   * The ids are grouped by length with a counting sort, and each group is
+   * sorted as longs holding a count rank above the id, so that nothing is
+   * boxed.
+   *
+   * @return The rank of each word id in the first half, and the word id of
+   * each rank in the second.
+   */
+  private static int[] rank( final WordTable words ) {
+    final int size = words.size();
+    final long[] counts = new long[ size ];
+    int maxLength = 0;
+
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      counts[ wordId ] = words.count( wordId );
+      maxLength = Math.max( maxLength, words.length( wordId ) );
+    }
+
+    final long[] sortedCounts = counts.clone();
+    Arrays.sort( sortedCounts );
+
+    final int[] starts = new int[ maxLength + 2 ];
+
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      starts[ words.length( wordId ) + 1 ]++;
+    }
+
+    for( int length = 1; length < starts.length; length++ ) {
+      starts[ length ] += starts[ length - 1 ];
+    }
+
+    final long[] keys = new long[ size ];
+    final int[] next = Arrays.copyOf( starts, maxLength + 1 );
+
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      // Equal counts share the position of the first of them, and higher
+      // counts get lower ranks.
+      final long countRank =
+          size - 1 - lowerBound( sortedCounts, counts[ wordId ] );
+      keys[ next[ words.length( wordId ) ]++ ] = countRank << 32 | wordId;
+    }
+
+    for( int length = 0; length <= maxLength; length++ ) {
+      Arrays.sort( keys, starts[ length ], starts[ length + 1 ] );
+    }
+
+    final int[] ranks = new int[ size * 2 ];
+
+    for( int rank = 0; rank < size; rank++ ) {
+      final int wordId = (int) keys[ rank ];
+      ranks[ wordId ] = rank;
+      ranks[ size + rank ] = wordId;
+    }
+
+    return ranks;
+  }
+
+  /**
+   * Returns the index of the first element of a sorted array that is not
+   * less than the given value.
+   */
+  private static int lowerBound( final long[] sorted, final long value ) {
+    int low = 0;
+    int high = sorted.length;
+
+    while( low < high ) {
+      final int middle = (low + high) >>> 1;
+
+      if( sorted[ middle ] < value ) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Sorts a range of word ids by their rank.
+   */
+  private static void order(
+      final int[] wordIds, final int from, final int to, final int[] ranks ) {
+    final int size = ranks.length / 2;
+
+    for( int i = from; i < to; i++ ) {
+      wordIds[ i ] = ranks[ wordIds[ i ] ];
+    }
+
+    Arrays.sort( wordIds, from, to );
+
+    for( int i = from; i < to; i++ ) {
+      wordIds[ i ] = ranks[ size + wordIds[ i ] ];
+    }
+  }
+
+  /**
+   * The length directories of the large buckets of an ordered index.
+   */
+  private static final class Directories {
+    static final Directories NONE = new Directories();
+
+    private final int[] positions;
+    private final long[] slots;
+
+    private Directories() {
+      this.positions = new int[ 0 ];
+      this.slots = new long[]{ NO_DIRECTORY, NO_DIRECTORY };
+    }
+
+    /**
+     * @param offsets The start of each bucket and the end of the last.
+     * @param wordIds Ordered by ascending length within each bucket.
+     * @param words   The words of the ids.
+     */
+    Directories(
+        final int[] offsets, final int[] wordIds, final WordTable words ) {
+      int buckets = 0;
+      int length = 0;
+
+      for( int slot = 0; slot < offsets.length - 1; slot++ ) {
+        final int start = offsets[ slot ];
+        final int end = offsets[ slot + 1 ];
+
+        if( end - start >= DIRECTORY_MIN_SIZE ) {
+          buckets++;
+          length += 1 + 2 * lengths( wordIds, start, end, words, null, 0 );
+        }
+      }
+
+      this.positions = new int[ length ];
+      this.slots = new long[ tableSizeFor( buckets ) ];
+      Arrays.fill( slots, NO_DIRECTORY );
+
+      final int mask = slots.length - 1;
+      int position = 0;
+
+      for( int slot = 0; slot < offsets.length - 1; slot++ ) {
+        final int start = offsets[ slot ];
+        final int end = offsets[ slot + 1 ];
+
+        if( end - start >= DIRECTORY_MIN_SIZE ) {
+          int home = home( start, mask );
+
+          while( slots[ home ] != NO_DIRECTORY ) {
+            home = (home + 1) & mask;
+          }
+
+          slots[ home ] = (long) start << 32 | position;
+          positions[ position ] =
+              lengths( wordIds, start, end, words, positions, position + 1 );
+          position += 1 + 2 * positions[ position ];
+        }
+      }
+    }
+
+    /**
+     * Counts the distinct lengths of the words of a bucket, optionally
+     * recording each with the index of its first word.
+     *
+     * @param target Receives the lengths and indexes, may be {@code null}.
+     * @return The number of distinct lengths.
+     */
+    private static int lengths(
+        final int[] wordIds, final int start, final int end,
+        final WordTable words, final int[] target, int position ) {
+      int lengths = 0;
+      int previous = -1;
+
+      for( int i = start; i < end; i++ ) {
+        final int length = words.length( wordIds[ i ] );
+
+        if( length != previous ) {
+          if( target != null ) {
+            target[ position++ ] = length;
+            target[ position++ ] = i;
+          }
+
+          previous = length;
+          lengths++;
+        }
+      }
+
+      return lengths;
+    }
+  }
+
+  /**
+   * Returns the number of word ids in the bucket at the given slot that are
+   * not remapped to -1.
+   */
+  private int liveCount( final int slot, final int[] remap ) {
+    int count = 0;
+
+    for( int i = offsets.get( slot ), end = offsets.get( slot + 1 ); i < end;
+         i++ ) {
+      if( remap[ wordIds.get( i ) ] >= 0 ) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Adds {@code size} to the count of the bucket for the given hash, which
+   * is kept in {@code counts[slot + 1]} while the table is being filled.
+   */
+  private static void claim(
+      final long[] hashes,
+      final int[] counts,
+      final int mask,
+      final long deleteHash,
+      final int size,
+      final int[] bucketCount ) {
+    int slot = home( deleteHash, mask );
+
+    while( counts[ slot + 1 ] != 0 && hashes[ slot ] != deleteHash ) {
+      slot = (slot + 1) & mask;
+    }
+
+    if( counts[ slot + 1 ] == 0 ) {
+      hashes[ slot ] = deleteHash;
+      bucketCount[ 0 ]++;
+    }
+
+    counts[ slot + 1 ] += size;
+  }
+
+  /**
+   * Returns the preferred slot for a hash. Hashers may only populate the low
+   * 32 bits, so the hash is spread across all bits before masking.
+   */
+  static int home( final long hash, final int mask ) {
+    final long h = hash * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  /**
+   * Returns the power-of-two table capacity that keeps the given number of
+   * entries at a load factor of at most one half.
+   */
+  static int tableSizeFor( final int entries ) {
+    return Integer.highestOneBit( Math.max( entries, 1 ) * 2 - 1 ) << 1;
+  }
+}
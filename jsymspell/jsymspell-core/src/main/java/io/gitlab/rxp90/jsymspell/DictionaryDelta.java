@@ -0,0 +1,309 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Words added, removed or recounted since a dictionary was last compacted,
+ * kept beside the frozen {@link WordTable} and {@link DeletesIndex} that
+ * they amend. One writer appends to a delta while any number of readers
+ * query it without locking, each through a {@link DictionarySnapshot} that
+ * records how many added words, changes and delete nodes it may see.
+ * <p>
+ * Nothing below those watermarks is ever overwritten. Every change is
+ * appended: added words take the next word id after the base words, and a
+ * new count, or a removal, is a change that links to the previous change
+ * of the same word. Lists grow at the head, so the writer publishes a new
+ * head with a release store after filling in the entry it points to, and
+ * readers load heads with acquire semantics and skip entries past their
+ * watermarks. Arrays are never reallocated in place: once one is full,
+ * {@link #grow(int)} copies everything into a new delta and the writer
+ * continues there, leaving the old delta unchanged for the snapshots that
+ * still read it.
+ * </p>
+ */
+final class DictionaryDelta {
+
+  /**
+   * The count recorded for a word that has been removed.
+   */
+  static final long REMOVED = -1;
+
+  private final int baseSize;
+
+  private final String[] addedWords;
+  private int addedCount;
+
+  /**
+   * Open-addressed table of added word indexes plus one, keyed on the
+   * word's hash.
+   */
+  private final AtomicIntegerArray wordSlots;
+
+  private final int[] changeWordIds;
+  private final long[] changeCounts;
+  private final int[] changePrevs;
+  private int changeCount;
+
+  /**
+   * The latest change of each word id plus one, zero when it has none.
+   */
+  private final AtomicIntegerArray latest;
+
+  /**
+   * Open-addressed table of delete hashes, with the first node of each
+   * hash's list plus one in the parallel table of heads.
+   */
+  private final long[] deleteHashes;
+  private final AtomicIntegerArray deleteHeads;
+  private int deleteCount;
+
+  private final long[] nodeHashes;
+  private final int[] nodeWordIds;
+  private final int[] nodeNexts;
+  private int nodeCount;
+
+  /**
+   * @param baseSize The number of words in the base table; added words are
+   *                 numbered from here.
+   * @param capacity The number of words and changes to make room for, zero
+   *                 for a delta that stays empty until grown.
+   * @param nodes    The number of deletes to make room for.
+   */
+  DictionaryDelta( final int baseSize, final int capacity, final int nodes ) {
+    this.baseSize = baseSize;
+    this.addedWords = new String[ capacity ];
+    this.wordSlots = new AtomicIntegerArray(
+        DeletesIndex.tableSizeFor( capacity ) );
+    this.changeWordIds = new int[ capacity ];
+    this.changeCounts = new long[ capacity ];
+    this.changePrevs = new int[ capacity ];
+    this.latest = new AtomicIntegerArray(
+        capacity == 0 ? 0 : baseSize + capacity );
+    this.deleteHashes = new long[ DeletesIndex.tableSizeFor( nodes ) ];
+    this.deleteHeads = new AtomicIntegerArray( deleteHashes.length );
+    this.nodeHashes = new long[ nodes ];
+    this.nodeWordIds = new int[ nodes ];
+    this.nodeNexts = new int[ nodes ];
+  }
+
+  int baseSize() {
+    return baseSize;
+  }
+
+  int addedCount() {
+    return addedCount;
+  }
+
+  int changeCount() {
+    return changeCount;
+  }
+
+  int nodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Answers whether a word with the given number of deletes can be added
+   * and counted without growing.
+   */
+  boolean hasRoom( final int deletes ) {
+    return addedCount < addedWords.length
+        && changeCount < changeWordIds.length
+        && nodeCount + deletes <= nodeWordIds.length
+        && (deleteCount + deletes) * 2 <= deleteHashes.length;
+  }
+
+  /**
+   * Copies this delta into a new one with room for at least another word of
+   * the given number of deletes. This delta is left as it is.
+   */
+  DictionaryDelta grow( final int deletes ) {
+    final DictionaryDelta grown = new DictionaryDelta(
+        baseSize,
+        Math.max( 16, addedWords.length * 2 ),
+        Math.max( nodeWordIds.length * 2, nodeCount + deletes ) );
+
+    for( int added = 0; added < addedCount; added++ ) {
+      grown.addWord( addedWords[ added ] );
+    }
+
+    System.arraycopy( changeWordIds, 0, grown.changeWordIds, 0, changeCount );
+    System.arraycopy( changeCounts, 0, grown.changeCounts, 0, changeCount );
+    System.arraycopy( changePrevs, 0, grown.changePrevs, 0, changeCount );
+    grown.changeCount = changeCount;
+
+    for( int wordId = 0; wordId < latest.length(); wordId++ ) {
+      grown.latest.setPlain( wordId, latest.getPlain( wordId ) );
+    }
+
+    // Lists are rebuilt oldest node first so that they keep their order.
+    for( int node = 0; node < nodeCount; node++ ) {
+      grown.addDelete( nodeHashes[ node ], nodeWordIds[ node ] );
+    }
+
+    return grown;
+  }
+
+  /**
+   * Appends a word that is neither a base word nor already added. The word
+   * has no count until {@link #setCount(int, long)} is called.
+   *
+   * @return The id assigned to the word.
+   */
+  int addWord( final String word ) {
+    final int added = addedCount++;
+    addedWords[ added ] = word;
+
+    final int mask = wordSlots.length() - 1;
+    int slot = WordTable.spread( word.hashCode() ) & mask;
+
+    while( wordSlots.getPlain( slot ) != 0 ) {
+      slot = (slot + 1) & mask;
+    }
+
+    wordSlots.setRelease( slot, added + 1 );
+    return baseSize + added;
+  }
+
+  /**
+   * Records the delete hash of an added word.
+   */
+  void addDelete( final long deleteHash, final int wordId ) {
+    final int mask = deleteHashes.length - 1;
+    int slot = DeletesIndex.home( deleteHash, mask );
+    int head;
+
+    while( (head = deleteHeads.getPlain( slot )) != 0
+        && deleteHashes[ slot ] != deleteHash ) {
+      slot = (slot + 1) & mask;
+    }
+
+    if( head == 0 ) {
+      deleteHashes[ slot ] = deleteHash;
+      deleteCount++;
+    }
+
+    final int node = nodeCount++;
+    nodeHashes[ node ] = deleteHash;
+    nodeWordIds[ node ] = wordId;
+    nodeNexts[ node ] = head;
+    deleteHeads.setRelease( slot, node + 1 );
+  }
+
+  /**
+   * Records a new count for a word, {@link #REMOVED} to remove it.
+   */
+  void setCount( final int wordId, final long count ) {
+    final int change = changeCount++;
+    changeWordIds[ change ] = wordId;
+    changeCounts[ change ] = count;
+    changePrevs[ change ] = latest.getPlain( wordId );
+    latest.setRelease( wordId, change + 1 );
+  }
+
+  int changeWordId( final int change ) {
+    return changeWordIds[ change ];
+  }
+
+  long newCount( final int change ) {
+    return changeCounts[ change ];
+  }
+
+  /**
+   * Returns the id of an added word, whether or not it has been removed
+   * since.
+   *
+   * @param word       The word to find.
+   * @param addedWords The number of added words the caller may see.
+   * @return The word's id, or -1 if it was not added.
+   */
+  int find( final CharSequence word, final int addedWords ) {
+    final int mask = wordSlots.length() - 1;
+    int slot = WordTable.spread( WordTable.hash( word ) ) & mask;
+    int entry;
+
+    while( (entry = wordSlots.getAcquire( slot )) != 0 ) {
+      if( entry <= addedWords
+          && this.addedWords[ entry - 1 ].contentEquals( word ) ) {
+        return baseSize + entry - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the latest count recorded for a word among the changes the
+   * caller may see.
+   *
+   * @param changes The number of changes the caller may see.
+   * @param other   The count to answer when none of them applies.
+   */
+  long count( final int wordId, final int changes, final long other ) {
+    int change = latest.getAcquire( wordId );
+
+    while( change > changes ) {
+      change = changePrevs[ change - 1 ];
+    }
+
+    return change == 0 ? other : changeCounts[ change - 1 ];
+  }
+
+  /**
+   * Returns the added word with the given id.
+   */
+  String word( final int wordId ) {
+    return addedWords[ wordId - baseSize ];
+  }
+
+  /**
+   * Returns the first node listing a word that produces the given delete
+   * hash, most recently added first, or -1 when there is none.
+   */
+  int firstNode( final long deleteHash ) {
+    final int mask = deleteHashes.length - 1;
+    int slot = DeletesIndex.home( deleteHash, mask );
+    int head;
+
+    while( (head = deleteHeads.getAcquire( slot )) != 0 ) {
+      if( deleteHashes[ slot ] == deleteHash ) {
+        return head - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the node following the given one, or -1 at the end of a list.
+   */
+  int nextNode( final int node ) {
+    return nodeNexts[ node ] - 1;
+  }
+
+  int nodeWordId( final int node ) {
+    return nodeWordIds[ node ];
+  }
+
+  /**
+   * Stages the delete hashes of the nodes the caller may see, in the order
+   * they were added, under new word ids. Nodes past the watermark may still
+   * be half written and are never read.
+   *
+   * @param nodes   The number of nodes the caller may see.
+   * @param remap   Maps a word id to its new id, or to -1 to drop it.
+   * @param staging Receives the hashes and new word ids.
+   */
+  void stageDeletes(
+      final int nodes, final int[] remap, final SuggestionStage staging ) {
+    for( int node = 0; node < nodes; node++ ) {
+      final int wordId = remap[ nodeWordIds[ node ] ];
+
+      if( wordId >= 0 ) {
+        staging.add( nodeHashes[ node ], wordId );
+      }
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package io.gitlab.rxp90.jsymspell;
+
+/**
+ * Everything that lookups read: the lexicon words, the deletes index and
+ * the bigrams, together with the statistics derived from them. None of them
+ * is modified once the snapshot is constructed and every field is final, so
+ * a snapshot reached through a final or volatile reference is safely
+ * published and may be read by any number of threads without locking.
+ * <p>
+ * A lookup reads the snapshot once and passes it along, so that it sees
+ * one consistent dictionary from start to end.
+ * </p>
+ * <p>
+ * Words changed since the base words and deletes were built are read from a
+ * {@link DictionaryDelta}, of which a snapshot sees only the added words,
+ * changes and delete nodes that had been made when it was taken. Word ids below
+ * {@link WordTable#size()} of the base are base words, the rest are added
+ * words; a removed word keeps its id but has no count and is not found.
+ * </p>
+ */
+final class DictionarySnapshot {
+  private final WordTable words;
+  private final DeletesIndex deletes;
+  private final BigramTable bigrams;
+  private final int maxWordLength;
+  private final long bigramCountMin;
+
+  private final DictionaryDelta delta;
+  private final boolean countOrdered;
+  private final int baseSize;
+  private final int addedWords;
+  private final int changes;
+  private final int nodes;
+
+  /**
+   * @param words          Never modified after this call.
+   * @param deletes        Maps delete hashes to ids of {@code words}.
+   * @param bigrams        Never modified after this call.
+   * @param maxWordLength  The length of the longest word.
+   * @param bigramCountMin The smallest bigram count, or
+   *                       {@link Long#MAX_VALUE} when there are no bigrams.
+   */
+  DictionarySnapshot(
+      final WordTable words,
+      final DeletesIndex deletes,
+      final BigramTable bigrams,
+      final int maxWordLength,
+      final long bigramCountMin ) {
+    this( words, deletes, bigrams, maxWordLength, bigramCountMin,
+          new DictionaryDelta( words.size(), 0, 0 ), true );
+  }
+
+  private DictionarySnapshot(
+      final WordTable words,
+      final DeletesIndex deletes,
+      final BigramTable bigrams,
+      final int maxWordLength,
+      final long bigramCountMin,
+      final DictionaryDelta delta,
+      final boolean countOrdered ) {
+    this.words = words;
+    this.deletes = deletes;
+    this.bigrams = bigrams;
+    this.maxWordLength = maxWordLength;
+    this.bigramCountMin = bigramCountMin;
+    this.delta = delta;
+    this.countOrdered = countOrdered;
+    this.baseSize = words.size();
+    this.addedWords = delta.addedCount();
+    this.changes = delta.changeCount();
+    this.nodes = delta.nodeCount();
+  }
+
+  /**
+   * Takes a snapshot of the same base with everything recorded in the
+   * given delta so far.
+   *
+   * @param delta      The delta of this snapshot or one grown from it.
+   * @param wordLength The length of a word added since this snapshot.
+   * @param raised     Whether the latest change raised the count of a base
+   *                   word above the count it was built with.
+   */
+  DictionarySnapshot withChanges(
+      final DictionaryDelta delta, final int wordLength,
+      final boolean raised ) {
+    return new DictionarySnapshot(
+        words, deletes, bigrams, Math.max( maxWordLength, wordLength ),
+        bigramCountMin, delta, countOrdered && !raised );
+  }
+
+  /**
+   * Returns the base words, which lack the changes since they were built.
+   */
+  WordTable words() {
+    return words;
+  }
+
+  /**
+   * Returns the base deletes, which lack the changes since they were built.
+   */
+  DeletesIndex deletes() {
+    return deletes;
+  }
+
+  DictionaryDelta delta() {
+    return delta;
+  }
+
+  BigramTable bigrams() {
+    return bigrams;
+  }
+
+  /**
+   * Returns an upper bound of the length of the words.
+   */
+  int maxWordLength() {
+    return maxWordLength;
+  }
+
+  long bigramCountMin() {
+    return bigramCountMin;
+  }
+
+  /**
+   * Answers whether no base word counts more than it was built with, so
+   * that the words of a bucket listed after another of the same length
+   * count no more than that word did when it was built.
+   *
+   * @see DeletesIndex
+   */
+  boolean isCountOrdered() {
+    return countOrdered;
+  }
+
+  /**
+   * Answers whether the base words and deletes are all there is.
+   */
+  boolean isCompact() {
+    return changes == 0;
+  }
+
+  /**
+   * Returns the number of word ids, including those of removed words.
+   */
+  int size() {
+    return baseSize + addedWords;
+  }
+
+  /**
+   * Returns the number of changes this snapshot sees.
+   */
+  int changes() {
+    return changes;
+  }
+
+  /**
+   * Returns the number of delete nodes of added words this snapshot sees.
+   */
+  int nodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the id of the given word.
+   *
+   * @param word The word to find.
+   * @return The word's id, or -1 if the word is not in the dictionary.
+   */
+  int find( final CharSequence word ) {
+    final int wordId = findAny( word );
+    return wordId >= 0 && isRemoved( wordId ) ? -1 : wordId;
+  }
+
+  /**
+   * Returns the id of the given word, even if it has been removed.
+   */
+  int findAny( final CharSequence word ) {
+    final int wordId = words.find( word );
+    return wordId >= 0 || addedWords == 0
+        ? wordId
+        : delta.find( word, addedWords );
+  }
+
+  /**
+   * Returns the count of a word, or {@link DictionaryDelta#REMOVED}.
+   */
+  long count( final int wordId ) {
+    if( changes == 0 ) {
+      return words.count( wordId );
+    }
+
+    return delta.count( wordId, changes,
+                        wordId < baseSize ? words.count( wordId ) : 0 );
+  }
+
+  /**
+   * Returns the base-10 logarithm of the count of a word, precomputed for
+   * base words whose count has not changed since they were built.
+   */
+  double log10Count( final int wordId ) {
+    final long count = count( wordId );
+
+    return wordId < baseSize && count == words.count( wordId )
+        ? words.log10Count( wordId )
+        : Math.log10( count );
+  }
+
+  boolean isRemoved( final int wordId ) {
+    return changes != 0 && count( wordId ) == DictionaryDelta.REMOVED;
+  }
+
+  int length( final int wordId ) {
+    return wordId < baseSize
+        ? words.length( wordId )
+        : delta.word( wordId ).length();
+  }
+
+  char charAt( final int wordId, final int index ) {
+    return wordId < baseSize
+        ? words.charAt( wordId, index )
+        : delta.word( wordId ).charAt( index );
+  }
+
+  /**
+   * @see WordTable#getChars(int, char[])
+   */
+  int getChars( final int wordId, final char[] target ) {
+    if( wordId < baseSize ) {
+      return words.getChars( wordId, target );
+    }
+
+    final String word = delta.word( wordId );
+    word.getChars( 0, word.length(), target, 0 );
+    return word.length();
+  }
+
+  /**
+   * @see WordTable#regionMatches(int, int, CharSequence, int, int)
+   */
+  boolean regionMatches(
+      final int wordId,
+      final int offset,
+      final CharSequence s,
+      final int sOffset,
+      final int length ) {
+    if( wordId < baseSize ) {
+      return words.regionMatches( wordId, offset, s, sOffset, length );
+    }
+
+    final String word = delta.word( wordId );
+
+    for( int i = 0; i < length; i++ ) {
+      if( word.charAt( offset + i ) != s.charAt( sOffset + i ) ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  String word( final int wordId ) {
+    return wordId < baseSize ? words.word( wordId ) : delta.word( wordId );
+  }
+
+  /**
+   * Returns the first node of the added words that produce a delete hash,
+   * or -1 when there is none.
+   *
+   * @see #nextAdded(int)
+   */
+  int firstAdded( final long deleteHash ) {
+    return addedWords == 0 ? -1 : skipUnseen( delta.firstNode( deleteHash ) );
+  }
+
+  /**
+   * Returns the node after the given one, or -1 at the end.
+   */
+  int nextAdded( final int node ) {
+    return skipUnseen( delta.nextNode( node ) );
+  }
+
+  int addedWordId( final int node ) {
+    return delta.nodeWordId( node );
+  }
+
+  /**
+   * Skips the nodes of words added after this snapshot was taken, which are
+   * all at the start of a list.
+   */
+  private int skipUnseen( int node ) {
+    final int end = baseSize + addedWords;
+
+    while( node >= 0 && delta.nodeWordId( node ) >= end ) {
+      node = delta.nextNode( node );
+    }
+
+    return node;
+  }
+}
@@ -0,0 +1,289 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Versioned binary image of a built {@link SymSpell}. The file starts with
+ * a magic number and a format version, followed by scalar settings and then
+ * the primitive arrays of each index structure. Arrays are stored
+ * little-endian and aligned to eight bytes so that they can be mapped and
+ * read in place through {@link FileChannel#map}; nothing is parsed or
+ * copied when an index is loaded, and the pages of the file are shared by
+ * every process that maps it.
+ */
+final class IndexFile {
+
+  /**
+   * The bytes {@code JSYMSPEL} read as a little-endian long.
+   */
+  static final long MAGIC = 0x4C4550534D59534AL;
+
+  /**
+   * Incremented whenever the layout of the file changes.
+   */
+  static final int VERSION = 8;
+
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  private IndexFile() {
+  }
+
+  /**
+   * Writes an index file sequentially through a small staging buffer.
+   */
+  static final class Writer implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect( 1 << 16 ).order( ORDER );
+
+    Writer( final Path path ) throws IOException {
+      this.channel = FileChannel.open( path, CREATE, WRITE,
+                                       TRUNCATE_EXISTING );
+      writeLong( MAGIC );
+      writeInt( VERSION );
+    }
+
+    void writeInt( final int value ) throws IOException {
+      reserve( Integer.BYTES ).putInt( value );
+    }
+
+    void writeLong( final long value ) throws IOException {
+      reserve( Long.BYTES ).putLong( value );
+    }
+
+    void writeString( final String value ) throws IOException {
+      final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+      writeInt( bytes.length );
+
+      for( final byte b : bytes ) {
+        reserve( 1 ).put( b );
+      }
+    }
+
+    void writeInts( final IntBuffer values, final int length )
+        throws IOException {
+      align();
+
+      for( int done = 0; done < length; ) {
+        final int n = Math.min( length - done,
+                                reserve( Integer.BYTES ).remaining()
+                                    / Integer.BYTES );
+        buffer.asIntBuffer().put( slice( values, done, n ) );
+        buffer.position( buffer.position() + n * Integer.BYTES );
+        done += n;
+      }
+    }
+
+    void writeLongs( final LongBuffer values, final int length )
+        throws IOException {
+      align();
+
+      for( int done = 0; done < length; ) {
+        final int n = Math.min( length - done,
+                                reserve( Long.BYTES ).remaining()
+                                    / Long.BYTES );
+        buffer.asLongBuffer().put( slice( values, done, n ) );
+        buffer.position( buffer.position() + n * Long.BYTES );
+        done += n;
+      }
+    }
+
+    void writeBytes( final ByteBuffer values, final int length )
+        throws IOException {
+      align();
+
+      for( int done = 0; done < length; ) {
+        final int n = Math.min( length - done, reserve( 1 ).remaining() );
+        buffer.put( slice( values, done, n ) );
+        done += n;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try( channel ) {
+        flush();
+      }
+    }
+
+    /**
+     * Pads the file with zeros up to the next multiple of eight bytes.
+     */
+    private void align() throws IOException {
+      while( ((channel.position() + buffer.position()) & 7) != 0 ) {
+        reserve( 1 ).put( (byte) 0 );
+      }
+    }
+
+    /**
+     * Flushes the staging buffer if it has less than the given room left.
+     */
+    private ByteBuffer reserve( final int bytes ) throws IOException {
+      if( buffer.remaining() < bytes ) {
+        flush();
+      }
+
+      return buffer;
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+
+      while( buffer.hasRemaining() ) {
+        channel.write( buffer );
+      }
+
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Reads scalars from an index file and maps its arrays.
+   */
+  static final class Reader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer scalar =
+        ByteBuffer.allocate( Long.BYTES ).order( ORDER );
+    private long position;
+
+    Reader( final Path path ) throws IOException {
+      this.channel = FileChannel.open( path, READ );
+
+      if( channel.size() < Long.BYTES || readLong() != MAGIC ) {
+        channel.close();
+        throw new IndexFormatException( "Not a SymSpell index: " + path );
+      }
+
+      final int version = readInt();
+
+      if( version != VERSION ) {
+        channel.close();
+        throw new IndexFormatException(
+            "Unsupported index version " + version + " (expected " +
+                VERSION + "): " + path );
+      }
+    }
+
+    int readInt() throws IOException {
+      return read( Integer.BYTES ).getInt();
+    }
+
+    long readLong() throws IOException {
+      return read( Long.BYTES ).getLong();
+    }
+
+    /**
+     * Reads the number of elements of a following array or string, which
+     * cannot exceed the bytes left in the file.
+     */
+    int readLength() throws IOException {
+      final int length = readInt();
+
+      if( length < 0 || length > channel.size() - position ) {
+        throw new IndexFormatException(
+            "Index file has an invalid length " + length );
+      }
+
+      return length;
+    }
+
+    /**
+     * Reads the capacity of a following open-addressed table, which must
+     * be a power of two.
+     */
+    int readCapacity() throws IOException {
+      final int capacity = readLength();
+
+      if( Integer.bitCount( capacity ) != 1 ) {
+        throw new IndexFormatException(
+            "Index file has an invalid table capacity " + capacity );
+      }
+
+      return capacity;
+    }
+
+    String readString() throws IOException {
+      final byte[] bytes = new byte[ readLength() ];
+
+      fill( ByteBuffer.wrap( bytes ) );
+      return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+    IntBuffer mapInts( final int length ) throws IOException {
+      return map( (long) length * Integer.BYTES ).asIntBuffer();
+    }
+
+    LongBuffer mapLongs( final int length ) throws IOException {
+      return map( (long) length * Long.BYTES ).asLongBuffer();
+    }
+
+    ByteBuffer mapBytes( final int length ) throws IOException {
+      return map( length );
+    }
+
+    /**
+     * Closes the file; buffers that were mapped from it remain valid.
+     */
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+
+    private ByteBuffer map( final long bytes ) throws IOException {
+      position = (position + 7) & ~7L;
+
+      if( bytes < 0 || position + bytes > channel.size() ) {
+        throw new IndexFormatException( "Index file is truncated" );
+      }
+
+      final ByteBuffer mapped = channel.map( READ_ONLY, position, bytes );
+      position += bytes;
+      return mapped.order( ORDER );
+    }
+
+    private ByteBuffer read( final int bytes ) throws IOException {
+      fill( scalar.clear().limit( bytes ) );
+      return scalar.flip();
+    }
+
+    /**
+     * Reads the bytes at the current position until the buffer is full.
+     */
+    private void fill( final ByteBuffer buffer ) throws IOException {
+      final int bytes = buffer.remaining();
+
+      while( buffer.hasRemaining() ) {
+        if( channel.read( buffer, position + buffer.position() ) < 0 ) {
+          throw new IndexFormatException( "Index file is truncated" );
+        }
+      }
+
+      position += bytes;
+    }
+  }
+
+  private static ByteBuffer slice(
+      final ByteBuffer values, final int offset, final int length ) {
+    return values.duplicate().limit( offset + length ).position( offset );
+  }
+
+  private static IntBuffer slice(
+      final IntBuffer values, final int offset, final int length ) {
+    return values.duplicate().limit( offset + length ).position( offset );
+  }
+
+  private static LongBuffer slice(
+      final LongBuffer values, final int offset, final int length ) {
+    return values.duplicate().limit( offset + length ).position( offset );
+  }
+}
@@ -0,0 +1,141 @@
+package io.gitlab.rxp90.jsymspell;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Records lookups and build phases as JDK Flight Recorder events, named
+ * {@code jsymspell.Lookup} and {@code jsymspell.BuildPhase}, so that they
+ * can be profiled in production alongside the rest of a recording. Events
+ * are filled in only when they are enabled in the recording settings.
+ * Both are committed after the work they describe, so their own duration
+ * is zero and the work's wall time is a field instead; thresholds in the
+ * recording settings therefore do not apply.
+ */
+public final class JfrListener implements SymSpellListener {
+
+  @Override
+  public void lookupCompleted( final LookupMetrics metrics ) {
+    final LookupEvent event = new LookupEvent();
+
+    if( !event.isEnabled() ) {
+      return;
+    }
+
+    event.nanos = metrics.getNanos();
+    event.input = metrics.getInput();
+    event.verbosity = metrics.getVerbosity().name();
+    event.maxEditDistance = metrics.getMaxEditDistance();
+    event.suggestions = metrics.getSuggestions();
+    event.cached = metrics.isCached();
+    event.candidates = metrics.getCandidates();
+    event.bucketsProbed = metrics.getBucketsProbed();
+    event.bucketsFound = metrics.getBucketsFound();
+    event.bucketEntries = metrics.getBucketEntries();
+    event.largestBucket = metrics.getLargestBucket();
+    event.lengthRejections = metrics.getLengthRejections();
+    event.prefixRejections = metrics.getPrefixRejections();
+    event.suffixRejections = metrics.getSuffixRejections();
+    event.deleteOrderRejections = metrics.getDeleteOrderRejections();
+    event.duplicates = metrics.getDuplicates();
+    event.orderSkips = metrics.getOrderSkips();
+    event.distanceCalls = metrics.getDistanceCalls();
+    event.distanceExits = metrics.getDistanceExits();
+    event.commit();
+  }
+
+  @Override
+  public void buildPhaseCompleted( final BuildPhase phase, final long nanos ) {
+    final BuildPhaseEvent event = new BuildPhaseEvent();
+
+    if( event.isEnabled() ) {
+      event.phase = phase.name();
+      event.nanos = nanos;
+      event.commit();
+    }
+  }
+
+  @Name( "jsymspell.Lookup" )
+  @Label( "Lookup" )
+  @Category( "JSymSpell" )
+  @Description( "Work done by one spelling lookup" )
+  @StackTrace( false )
+  static final class LookupEvent extends Event {
+    @Label( "Input" )
+    String input;
+
+    @Label( "Verbosity" )
+    String verbosity;
+
+    @Label( "Max Edit Distance" )
+    int maxEditDistance;
+
+    @Label( "Duration" )
+    @Timespan( Timespan.NANOSECONDS )
+    long nanos;
+
+    @Label( "Suggestions" )
+    int suggestions;
+
+    @Label( "Cached" )
+    boolean cached;
+
+    @Label( "Candidates" )
+    int candidates;
+
+    @Label( "Buckets Probed" )
+    int bucketsProbed;
+
+    @Label( "Buckets Found" )
+    int bucketsFound;
+
+    @Label( "Bucket Entries" )
+    int bucketEntries;
+
+    @Label( "Largest Bucket" )
+    int largestBucket;
+
+    @Label( "Length Rejections" )
+    int lengthRejections;
+
+    @Label( "Prefix Rejections" )
+    int prefixRejections;
+
+    @Label( "Suffix Rejections" )
+    int suffixRejections;
+
+    @Label( "Delete Order Rejections" )
+    int deleteOrderRejections;
+
+    @Label( "Duplicates" )
+    int duplicates;
+
+    @Label( "Order Skips" )
+    int orderSkips;
+
+    @Label( "Distance Calls" )
+    int distanceCalls;
+
+    @Label( "Distance Early Exits" )
+    int distanceExits;
+  }
+
+  @Name( "jsymspell.BuildPhase" )
+  @Label( "Build Phase" )
+  @Category( "JSymSpell" )
+  @Description( "Time spent in one phase of building a dictionary" )
+  @StackTrace( false )
+  static final class BuildPhaseEvent extends Event {
+    @Label( "Phase" )
+    String phase;
+
+    @Label( "Duration" )
+    @Timespan( Timespan.NANOSECONDS )
+    long nanos;
+  }
+}
@@ -0,0 +1,358 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.LexiconFormatException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Parses a UTF-8 lexicon of one word and count per line, separated by a
+ * tab, straight from the bytes of a channel. Lines are found and counts
+ * parsed in a reused byte buffer, and each word is decoded into a reused
+ * character buffer, so reading allocates nothing per line and never holds
+ * more than the longest line and a buffer of input.
+ * <p>
+ * Fields after the count are ignored, as are blank lines, carriage returns
+ * ending lines and a byte order mark starting the input. Gzip-compressed
+ * input is recognized by its magic number and decompressed on the fly.
+ * </p>
+ */
+final class LexiconReader {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private static final int GZIP_MAGIC_1 = 0x1F;
+  private static final int GZIP_MAGIC_2 = 0x8B;
+
+  /**
+   * Supplies a lexicon to read when a spell checker is built.
+   */
+  interface Source {
+    /**
+     * Reads the lexicon to its end.
+     *
+     * @param entries Receives each word and count, in order. The word is
+     *                valid only until the call returns.
+     * @throws IOException Could not read the lexicon.
+     */
+    void read( ObjLongConsumer<CharSequence> entries ) throws IOException;
+  }
+
+  private final ReadableByteChannel channel;
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+  private ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+  private ByteBuffer view = ByteBuffer.wrap( buffer.array() );
+  private CharBuffer word = CharBuffer.allocate( 64 );
+  private long lineNumber;
+
+  /**
+   * @param channel The uncompressed lexicon, which is not closed.
+   */
+  LexiconReader( final ReadableByteChannel channel ) {
+    this.channel = channel;
+  }
+
+  /**
+   * Returns a source that opens, reads and closes a lexicon file, which may
+   * be gzip-compressed.
+   */
+  static Source of( final Path path ) {
+    return entries -> {
+      try( final ReadableByteChannel channel = open( path ) ) {
+        new LexiconReader( channel ).read( entries );
+      }
+    };
+  }
+
+  /**
+   * Returns a source that reads a lexicon stream, which may be
+   * gzip-compressed, to its end without closing it.
+   */
+  static Source of( final InputStream in ) {
+    return entries -> new LexiconReader( open( in ) ).read( entries );
+  }
+
+  /**
+   * Opens a lexicon file, decompressing it when it starts with the gzip
+   * magic number.
+   */
+  static ReadableByteChannel open( final Path path ) throws IOException {
+    final FileChannel file = FileChannel.open( path, READ );
+
+    try {
+      final ByteBuffer magic = ByteBuffer.allocate( 2 );
+
+      while( magic.hasRemaining() && file.read( magic ) >= 0 ) {
+        // Files shorter than the magic number are read as they are.
+      }
+
+      file.position( 0 );
+
+      if( isGzip( magic.get( 0 ) & 0xFF, magic.get( 1 ) & 0xFF ) ) {
+        return Channels.newChannel( new GZIPInputStream(
+            Channels.newInputStream( file ), BUFFER_SIZE ) );
+      }
+
+      return file;
+    } catch( final IOException | RuntimeException e ) {
+      file.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Wraps a lexicon stream, decompressing it when it starts with the gzip
+   * magic number.
+   */
+  static ReadableByteChannel open( final InputStream in ) throws IOException {
+    final PushbackInputStream stream = new PushbackInputStream( in, 2 );
+    final int b1 = stream.read();
+    final int b2 = b1 < 0 ? -1 : stream.read();
+
+    if( b2 >= 0 ) {
+      stream.unread( b2 );
+    }
+    if( b1 >= 0 ) {
+      stream.unread( b1 );
+    }
+
+    return Channels.newChannel(
+        isGzip( b1, b2 ) ? new GZIPInputStream( stream, BUFFER_SIZE ) : stream );
+  }
+
+  private static boolean isGzip( final int b1, final int b2 ) {
+    return b1 == GZIP_MAGIC_1 && b2 == GZIP_MAGIC_2;
+  }
+
+  /**
+   * Reads the lexicon to its end.
+   *
+   * @param entries Receives each word and count, in order. The word is valid
+   *                only until the call returns.
+   * @throws IOException            Could not read the channel.
+   * @throws LexiconFormatException A line has no count or is not UTF-8.
+   */
+  void read( final ObjLongConsumer<CharSequence> entries ) throws IOException {
+    boolean start = true;
+    boolean end = false;
+
+    while( !end ) {
+      end = channel.read( buffer ) < 0;
+      buffer.flip();
+
+      final byte[] bytes = buffer.array();
+      final int limit = buffer.limit();
+      int from = buffer.position();
+
+      if( start ) {
+        if( limit - from < 3 && !end ) {
+          buffer.position( limit ).limit( buffer.capacity() );
+          continue;
+        }
+
+        if( limit - from >= 3
+            && (bytes[ from ] & 0xFF) == 0xEF
+            && (bytes[ from + 1 ] & 0xFF) == 0xBB
+            && (bytes[ from + 2 ] & 0xFF) == 0xBF ) {
+          from += 3;
+        }
+
+        start = false;
+      }
+
+      for( int i = from; i < limit; i++ ) {
+        if( bytes[ i ] == '\n' ) {
+          line( bytes, from, i, entries );
+          from = i + 1;
+        }
+      }
+
+      if( end ) {
+        line( bytes, from, limit, entries );
+      }
+      else {
+        buffer.position( from );
+        buffer.compact();
+
+        if( !buffer.hasRemaining() ) {
+          grow();
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes room for a line longer than the buffer.
+   */
+  private void grow() {
+    final ByteBuffer grown = ByteBuffer.allocate( buffer.capacity() * 2 );
+    buffer.flip();
+    grown.put( buffer );
+    buffer = grown;
+    view = ByteBuffer.wrap( buffer.array() );
+  }
+
+  private void line(
+      final byte[] bytes, final int from, int to,
+      final ObjLongConsumer<CharSequence> entries ) {
+    lineNumber++;
+
+    if( to > from && bytes[ to - 1 ] == '\r' ) {
+      to--;
+    }
+
+    if( to == from ) {
+      return;
+    }
+
+    int tab = from;
+
+    while( tab < to && bytes[ tab ] != '\t' ) {
+      tab++;
+    }
+
+    int countEnd = tab + 1;
+
+    while( countEnd < to && bytes[ countEnd ] != '\t' ) {
+      countEnd++;
+    }
+
+    if( countEnd > to ) {
+      throw error( "has no tab" );
+    }
+
+    final long count = parseCount( bytes, tab + 1, countEnd, lineNumber );
+    entries.accept( decode( bytes, from, tab ), count );
+  }
+
+  /**
+   * Parses a decimal count with an optional sign, like
+   * {@link Long#parseLong(String)}.
+   *
+   * @param lineNumber The line holding the count, for errors.
+   */
+  private static long parseCount(
+      final byte[] bytes, final int from, final int to,
+      final long lineNumber ) {
+    final boolean negative = from < to && bytes[ from ] == '-';
+    int i = from < to && (negative || bytes[ from ] == '+') ? from + 1 : from;
+
+    if( i == to ) {
+      throw error( lineNumber, "has no count" );
+    }
+
+    long count = 0;
+
+    for( ; i < to; i++ ) {
+      final int digit = bytes[ i ] - '0';
+
+      if( digit < 0 || digit > 9 ) {
+        throw error( lineNumber, "has a count that is not a number" );
+      }
+      if( count > (Long.MAX_VALUE - digit) / 10 ) {
+        throw error( lineNumber, "has a count that is out of range" );
+      }
+
+      count = count * 10 + digit;
+    }
+
+    return negative ? -count : count;
+  }
+
+  /**
+   * Decodes a word into the reused character buffer, copying ASCII bytes
+   * directly and handing the rest to the UTF-8 decoder.
+   */
+  private CharSequence decode(
+      final byte[] bytes, final int from, final int to ) {
+    // UTF-8 never takes fewer bytes than UTF-16 takes chars.
+    if( word.capacity() < to - from ) {
+      word = CharBuffer.allocate( Math.max( word.capacity() * 2, to - from ) );
+    }
+
+    word.clear();
+    int i = from;
+
+    while( i < to && bytes[ i ] >= 0 ) {
+      word.put( (char) bytes[ i++ ] );
+    }
+
+    if( i < to ) {
+      view.limit( to ).position( i );
+      decoder.reset();
+
+      final CoderResult result = decoder.decode( view, word, true );
+
+      if( result.isError() || decoder.flush( word ).isError() ) {
+        throw error( "is not UTF-8" );
+      }
+    }
+
+    return word.flip();
+  }
+
+  /**
+   * Parses a lexicon line held in a string by the same rules as the lines
+   * of a channel: a carriage return ending it is ignored, a blank line is
+   * skipped, and one without a count is an error.
+   *
+   * @param line       The line, without its line feed.
+   * @param lineNumber The line's position, counted from one, for errors.
+   * @param entries    Receives the word and count, unless the line is blank.
+   * @throws LexiconFormatException The line has no count.
+   */
+  static void parse(
+      final String line, final long lineNumber,
+      final ObjLongConsumer<CharSequence> entries ) {
+    int to = line.length();
+
+    if( to > 0 && line.charAt( to - 1 ) == '\r' ) {
+      to--;
+    }
+
+    if( to == 0 ) {
+      return;
+    }
+
+    final int tab = line.indexOf( '\t' );
+
+    if( tab < 0 || tab >= to ) {
+      throw error( lineNumber, "has no tab" );
+    }
+
+    final int next = line.indexOf( '\t', tab + 1 );
+    final int countEnd = next < 0 || next > to ? to : next;
+
+    // Characters outside Latin-1 become '?', which is not a digit either.
+    final byte[] count = line.substring( tab + 1, countEnd )
+                             .getBytes( StandardCharsets.ISO_8859_1 );
+
+    entries.accept( line.substring( 0, tab ),
+                    parseCount( count, 0, count.length, lineNumber ) );
+  }
+
+  private LexiconFormatException error( final String problem ) {
+    return error( lineNumber, problem );
+  }
+
+  private static LexiconFormatException error(
+      final long lineNumber, final String problem ) {
+    return new LexiconFormatException(
+        "Lexicon line " + lineNumber + " " + problem );
+  }
+}
@@ -0,0 +1,226 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of lookup results keyed on the input, verbosity and maximum
+ * edit distance. Keys are spread over independently locked shards, each a
+ * segmented LRU: a result enters the probationary segment and moves to the
+ * protected segment when it is requested again, so that a burst of one-off
+ * inputs evicts other one-off inputs rather than the frequently repeated
+ * ones.
+ * <p>
+ * Results computed while the dictionary changes must not outlive the
+ * change. Callers read {@link #epoch()} before computing a result and pass
+ * it to {@link #put}; {@link #invalidateAll()} advances the epoch, so a
+ * result computed against the previous dictionary is discarded.
+ * </p>
+ */
+final class LookupCache {
+
+  /**
+   * Share of each shard reserved for results requested more than once.
+   */
+  private static final double PROTECTED_SHARE = 0.8;
+
+  private final Shard[] shards;
+  private final AtomicLong epoch = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maximumSize The maximum number of results to retain, at least one.
+   */
+  LookupCache( final int maximumSize ) {
+    if( maximumSize < 1 ) {
+      throw new IllegalArgumentException( "maximumSize < 1" );
+    }
+
+    final int count = Integer.highestOneBit(
+        Math.max( 1, Math.min( 16, maximumSize / 64 ) ) );
+    this.shards = new Shard[ count ];
+
+    for( int i = 0; i < count; i++ ) {
+      shards[ i ] = new Shard( Tasks.start( i + 1, count, maximumSize ) -
+                                   Tasks.start( i, count, maximumSize ) );
+    }
+  }
+
+  /**
+   * Returns the cached result, or {@code null} when there is none.
+   */
+  List<SuggestItem> get(
+      final String input, final Verbosity verbosity,
+      final int maxEditDistance ) {
+    final Key key = new Key( input, verbosity, maxEditDistance );
+    final List<SuggestItem> result = shardOf( key ).get( key );
+
+    (result == null ? misses : hits).increment();
+    return result;
+  }
+
+  /**
+   * Returns the epoch to pass to {@link #put} for a result about to be
+   * computed.
+   */
+  long epoch() {
+    return epoch.get();
+  }
+
+  /**
+   * Caches a result unless the cache was invalidated after {@code epoch}
+   * was read.
+   *
+   * @param result An unmodifiable list.
+   */
+  void put(
+      final String input, final Verbosity verbosity, final int maxEditDistance,
+      final List<SuggestItem> result, final long epoch ) {
+    final Key key = new Key( input, verbosity, maxEditDistance );
+    shardOf( key ).put( key, result, epoch );
+  }
+
+  /**
+   * Discards every cached result, including those being computed.
+   */
+  void invalidateAll() {
+    epoch.incrementAndGet();
+
+    for( final Shard shard : shards ) {
+      shard.clear();
+    }
+  }
+
+  CacheStats stats() {
+    long size = 0;
+
+    for( final Shard shard : shards ) {
+      size += shard.size();
+    }
+
+    return new CacheStats(
+        hits.sum(), misses.sum(), evictions.sum(), size );
+  }
+
+  private Shard shardOf( final Key key ) {
+    final int h = key.hashCode();
+    return shards[ (h ^ (h >>> 16)) & (shards.length - 1) ];
+  }
+
+  private final class Shard {
+    private final int capacity;
+    private final int protectedCapacity;
+    private final Map<Key, List<SuggestItem>> probation =
+        new LinkedHashMap<>( 16, 0.75f, true );
+    private final Map<Key, List<SuggestItem>> protect =
+        new LinkedHashMap<>( 16, 0.75f, true );
+
+    private Shard( final int capacity ) {
+      this.capacity = Math.max( capacity, 1 );
+      this.protectedCapacity = (int) (this.capacity * PROTECTED_SHARE);
+    }
+
+    synchronized List<SuggestItem> get( final Key key ) {
+      List<SuggestItem> result = protect.get( key );
+
+      if( result == null ) {
+        result = probation.remove( key );
+
+        if( result != null ) {
+          promote( key, result );
+        }
+      }
+
+      return result;
+    }
+
+    synchronized void put(
+        final Key key, final List<SuggestItem> result, final long epoch ) {
+      if( epoch != LookupCache.this.epoch.get() ) {
+        return;
+      }
+
+      if( protect.containsKey( key ) ) {
+        protect.put( key, result );
+        return;
+      }
+
+      probation.put( key, result );
+      evict();
+    }
+
+    synchronized void clear() {
+      probation.clear();
+      protect.clear();
+    }
+
+    synchronized int size() {
+      return probation.size() + protect.size();
+    }
+
+    private void promote( final Key key, final List<SuggestItem> result ) {
+      protect.put( key, result );
+
+      if( protect.size() > protectedCapacity ) {
+        final Iterator<Map.Entry<Key, List<SuggestItem>>> eldest =
+            protect.entrySet().iterator();
+        final Map.Entry<Key, List<SuggestItem>> demoted = eldest.next();
+        eldest.remove();
+        probation.put( demoted.getKey(), demoted.getValue() );
+      }
+    }
+
+    private void evict() {
+      while( probation.size() + protect.size() > capacity ) {
+        final Map<Key, List<SuggestItem>> victims =
+            probation.isEmpty() ? protect : probation;
+        final Iterator<Key> eldest = victims.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static final class Key {
+    private final String input;
+    private final Verbosity verbosity;
+    private final int maxEditDistance;
+
+    private Key(
+        final String input, final Verbosity verbosity,
+        final int maxEditDistance ) {
+      this.input = input;
+      this.verbosity = verbosity;
+      this.maxEditDistance = maxEditDistance;
+    }
+
+    @Override
+    public boolean equals( final Object o ) {
+      if( this == o ) {
+        return true;
+      }
+      if( !(o instanceof Key) ) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return maxEditDistance == that.maxEditDistance
+          && verbosity == that.verbosity
+          && input.equals( that.input );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( input, verbosity, maxEditDistance );
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.api.BitParallelOSA;
+import io.gitlab.rxp90.jsymspell.api.StringHasher;
+
+import java.util.Arrays;
+
+/**
+ * Scratch state reused across calls to
+ * {@link SymSpell#lookup(String, SymSpell.Verbosity, LookupContext)}: the
+ * queue of candidate deletes, the set of suggestions already considered,
+ * the character buffers, and the match masks of the input, which are built
+ * once per lookup and reused for every candidate compared with it.
+ * Everything is cleared rather than reallocated, and grown only when a
+ * longer input or a larger dictionary requires it, so that steady-state
+ * lookups allocate nothing but their results.
+ * <p>
+ * A context may be used with any {@link SymSpell} instance, but by only one
+ * thread at a time. Lookups that are not given a context use one confined
+ * to the calling thread.
+ * </p>
+ */
+public final class LookupContext {
+
+  private DeleteQueue candidates;
+
+  /**
+   * The deletes of the prefix shared by consecutive inputs of a batch.
+   */
+  private DeleteQueue prefixCandidates;
+
+  /**
+   * The generation in which each word id was last considered; a word was
+   * considered by the current lookup when its stamp equals the generation.
+   */
+  private int[] considered = new int[ 0 ];
+  private int generation;
+
+  private char[] inputChars = new char[ 32 ];
+  private char[] suggestionChars = new char[ 32 ];
+  private final BitParallelOSA.Pattern inputPattern =
+      new BitParallelOSA.Pattern();
+  private final BitParallelOSA.Pattern termPattern =
+      new BitParallelOSA.Pattern();
+  private final LookupMetrics metrics = new LookupMetrics();
+
+  /**
+   * Prepares the context for a lookup of {@code input} against a dictionary
+   * of {@code words} words.
+   */
+  void begin( final String input, final int words ) {
+    if( considered.length < words ) {
+      considered = new int[ Math.max( words, considered.length * 2 ) ];
+      generation = 0;
+    }
+
+    if( ++generation == 0 ) {
+      Arrays.fill( considered, 0 );
+      generation = 1;
+    }
+
+    final int length = input.length();
+    inputChars = ensureCapacity( inputChars, length );
+    input.getChars( 0, length, inputChars, 0 );
+    inputPattern.set( inputChars, length );
+  }
+
+  /**
+   * Answers the cleared candidate queue.
+   */
+  DeleteQueue candidates( final StringHasher stringHasher ) {
+    if( candidates == null || candidates.stringHasher() != stringHasher ) {
+      candidates = new DeleteQueue( stringHasher, 64 );
+    }
+    else {
+      candidates.clear();
+    }
+
+    return candidates;
+  }
+
+  /**
+   * Answers the cleared queue that holds the expansion of a prefix shared
+   * by the inputs of a batch, kept apart from the queue of each lookup.
+   */
+  DeleteQueue prefixCandidates( final StringHasher stringHasher ) {
+    if( prefixCandidates == null
+        || prefixCandidates.stringHasher() != stringHasher ) {
+      prefixCandidates = new DeleteQueue( stringHasher, 64 );
+    }
+    else {
+      prefixCandidates.clear();
+    }
+
+    return prefixCandidates;
+  }
+
+  /**
+   * Answers the counts of the current lookup. They are cleared only for
+   * lookups reported to a {@link SymSpellListener} and otherwise
+   * meaningless.
+   */
+  LookupMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Marks a word as considered by the current lookup.
+   *
+   * @return {@code false} when the word was already considered.
+   */
+  boolean consider( final int wordId ) {
+    if( considered[ wordId ] == generation ) {
+      return false;
+    }
+
+    considered[ wordId ] = generation;
+    return true;
+  }
+
+  /**
+   * Computes the distance from the input to a lexicon word, reading a word
+   * stored as Latin-1 in place and copying any other.
+   *
+   * @return The distance, or -1 when it exceeds {@code maxDistance}.
+   */
+  int distance(
+      final DictionarySnapshot dictionary,
+      final int wordId,
+      final int maxDistance ) {
+    final WordTable words = dictionary.words();
+
+    if( wordId < words.size() ) {
+      final byte[] latin1 = words.latin1Array( wordId );
+
+      if( latin1 != null ) {
+        return inputPattern.distance(
+            latin1, words.arrayOffset( wordId ), words.length( wordId ),
+            maxDistance );
+      }
+    }
+
+    final int length = dictionary.length( wordId );
+    suggestionChars = ensureCapacity( suggestionChars, length );
+    dictionary.getChars( wordId, suggestionChars );
+    return inputPattern.distance( suggestionChars, length, maxDistance );
+  }
+
+  /**
+   * Computes the distance between two strings outside of a lookup, such as
+   * that of a split or a corrected line from its input, with masks kept
+   * apart from those of the input.
+   *
+   * @see BitParallelOSA#distance(String, String, int)
+   */
+  int distance( final String s1, final String s2, final int maxDistance ) {
+    return termPattern.distance( s1, s2, maxDistance );
+  }
+
+  private static char[] ensureCapacity( final char[] chars, final int length ) {
+    return chars.length < length ? new char[ length * 2 ] : chars;
+  }
+}
@@ -0,0 +1,263 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+
+/**
+ * The work done by one lookup, as reported to a {@link SymSpellListener}.
+ * Candidates are the deletes of the input that were looked up in the
+ * deletes index; each lexicon word found in their buckets is either
+ * passed over by the order of its bucket, rejected by one of the cheap
+ * filters below, rejected because an earlier candidate already led to it,
+ * or compared with the input by computing their edit distance.
+ * <p>
+ * An instance belongs to the {@link LookupContext} of the lookup and is
+ * reused by its next lookup, so it is valid only until the listener
+ * returns. Call {@link #toString()} to keep a description.
+ * </p>
+ */
+public final class LookupMetrics {
+  private String input;
+  private Verbosity verbosity;
+  private int maxEditDistance;
+  private long nanos;
+  private int suggestions;
+  private boolean cached;
+
+  int candidates;
+  int bucketsProbed;
+  int bucketsFound;
+  int bucketEntries;
+  int largestBucket;
+  int lengthRejections;
+  int prefixRejections;
+  int suffixRejections;
+  int deleteOrderRejections;
+  int duplicates;
+  int orderSkips;
+  int distanceCalls;
+  int distanceExits;
+
+  LookupMetrics() {
+  }
+
+  /**
+   * Clears the counts for a lookup that is about to start.
+   */
+  void begin(
+      final String input, final Verbosity verbosity,
+      final int maxEditDistance ) {
+    this.input = input;
+    this.verbosity = verbosity;
+    this.maxEditDistance = maxEditDistance;
+    this.nanos = 0;
+    this.suggestions = 0;
+    this.cached = false;
+    this.candidates = 0;
+    this.bucketsProbed = 0;
+    this.bucketsFound = 0;
+    this.bucketEntries = 0;
+    this.largestBucket = 0;
+    this.lengthRejections = 0;
+    this.prefixRejections = 0;
+    this.suffixRejections = 0;
+    this.deleteOrderRejections = 0;
+    this.duplicates = 0;
+    this.orderSkips = 0;
+    this.distanceCalls = 0;
+    this.distanceExits = 0;
+  }
+
+  /**
+   * Records how the lookup ended.
+   */
+  void end( final long nanos, final int suggestions ) {
+    this.nanos = nanos;
+    this.suggestions = suggestions;
+  }
+
+  /**
+   * Records that the suggestions came from the lookup result cache.
+   */
+  void cacheHit() {
+    this.cached = true;
+  }
+
+  /**
+   * Counts a bucket of the deletes index, or the absence of one.
+   *
+   * @param size The number of words in the bucket, zero when there is none.
+   */
+  void probed( final int size ) {
+    bucketsProbed++;
+
+    if( size > 0 ) {
+      bucketsFound++;
+      bucketEntries += size;
+      largestBucket = Math.max( largestBucket, size );
+    }
+  }
+
+  /**
+   * Returns the word that was looked up.
+   */
+  public String getInput() {
+    return input;
+  }
+
+  public Verbosity getVerbosity() {
+    return verbosity;
+  }
+
+  public int getMaxEditDistance() {
+    return maxEditDistance;
+  }
+
+  /**
+   * Returns the wall time of the lookup in nanoseconds.
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * Returns the number of suggestions found.
+   */
+  public int getSuggestions() {
+    return suggestions;
+  }
+
+  /**
+   * Answers whether the suggestions came from the lookup result cache, in
+   * which case all counts are zero.
+   */
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * Returns the number of deletes of the input that were looked up.
+   */
+  public int getCandidates() {
+    return candidates;
+  }
+
+  /**
+   * Returns the number of times the deletes index was probed, one per
+   * candidate that was not skipped by its length.
+   */
+  public int getBucketsProbed() {
+    return bucketsProbed;
+  }
+
+  /**
+   * Returns the number of probes that found a bucket.
+   */
+  public int getBucketsFound() {
+    return bucketsFound;
+  }
+
+  /**
+   * Returns the number of words in all buckets found, including words added
+   * since the deletes index was built.
+   */
+  public int getBucketEntries() {
+    return bucketEntries;
+  }
+
+  /**
+   * Returns the number of words in the largest bucket found.
+   */
+  public int getLargestBucket() {
+    return largestBucket;
+  }
+
+  /**
+   * Returns the number of words rejected because their length differs too
+   * much from that of the input or the candidate, or because they are as
+   * long as the candidate without spelling it.
+   */
+  public int getLengthRejections() {
+    return lengthRejections;
+  }
+
+  /**
+   * Returns the number of words rejected because their prefix is too much
+   * longer than the candidate.
+   */
+  public int getPrefixRejections() {
+    return prefixRejections;
+  }
+
+  /**
+   * Returns the number of words rejected because their characters after the
+   * prefix differ too much from those of the input.
+   */
+  public int getSuffixRejections() {
+    return suffixRejections;
+  }
+
+  /**
+   * Returns the number of words rejected because the candidate's characters
+   * do not appear in order in their prefix, which is checked only when not
+   * all suggestions are wanted.
+   */
+  public int getDeleteOrderRejections() {
+    return deleteOrderRejections;
+  }
+
+  /**
+   * Returns the number of words skipped because an earlier candidate had
+   * already led to them.
+   */
+  public int getDuplicates() {
+    return duplicates;
+  }
+
+  /**
+   * Returns the number of words passed over without being examined because
+   * the order of their bucket shows that they cannot qualify.
+   */
+  public int getOrderSkips() {
+    return orderSkips;
+  }
+
+  /**
+   * Returns the number of edit distances computed.
+   */
+  public int getDistanceCalls() {
+    return distanceCalls;
+  }
+
+  /**
+   * Returns the number of edit distance computations that gave up because
+   * the distance exceeded the current maximum.
+   */
+  public int getDistanceExits() {
+    return distanceExits;
+  }
+
+  @Override
+  public String toString() {
+    return "LookupMetrics{"
+        + "input='" + input + '\''
+        + ", verbosity=" + verbosity
+        + ", maxEditDistance=" + maxEditDistance
+        + ", nanos=" + nanos
+        + ", suggestions=" + suggestions
+        + ", cached=" + cached
+        + ", candidates=" + candidates
+        + ", bucketsProbed=" + bucketsProbed
+        + ", bucketsFound=" + bucketsFound
+        + ", bucketEntries=" + bucketEntries
+        + ", largestBucket=" + largestBucket
+        + ", lengthRejections=" + lengthRejections
+        + ", prefixRejections=" + prefixRejections
+        + ", suffixRejections=" + suffixRejections
+        + ", deleteOrderRejections=" + deleteOrderRejections
+        + ", duplicates=" + duplicates
+        + ", orderSkips=" + orderSkips
+        + ", distanceCalls=" + distanceCalls
+        + ", distanceExits=" + distanceExits
+        + '}';
+  }
+}
@@ -0,0 +1,400 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.api.BitParallelOSA;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Corrects text of any length as it is read, the way
+ * {@link SymSpell#lookupCompound(String, int, ExecutorService)} corrects a
+ * line, while holding no more than a buffer of it in memory.
+ * <p>
+ * Words are runs of letters and digits, with apostrophes inside them. Each
+ * word is looked up in lower case and may be replaced, split in two, or
+ * combined with the word before it when only spaces or tabs separate them.
+ * Every other character, and every word containing a digit or longer than
+ * {@link #MAX_WORD_LENGTH}, is passed on unchanged. A word is held back
+ * until the next one is read, which is all the look-ahead that combining
+ * words needs, so corrections reach the {@link CorrectionSink} one word
+ * behind the input.
+ * </p>
+ * <p>
+ * Lookups are remembered for {@link #MEMO_WORDS} words at a time, after
+ * which they are forgotten and the dictionary's latest changes are picked
+ * up. Instances hold no state between calls and may be used by several
+ * threads at once.
+ * </p>
+ */
+public final class StreamCorrector {
+
+  /**
+   * Words longer than this are passed on unchanged; they are rarely words
+   * and cost a lookup per split point.
+   */
+  public static final int MAX_WORD_LENGTH = 64;
+
+  /**
+   * The number of words whose lookups are remembered together.
+   */
+  public static final int MEMO_WORDS = 4096;
+
+  /**
+   * Words separated by more spaces than this are never combined.
+   */
+  private static final int MAX_SPACES = 16;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final SymSpell symSpell;
+  private final int maxEditDistance;
+  private final ExecutorService executor;
+
+  /**
+   * @param symSpell        Looks up the words.
+   * @param maxEditDistance The maximum edit distance of each word.
+   */
+  public StreamCorrector( final SymSpell symSpell, final int maxEditDistance ) {
+    this( symSpell, maxEditDistance, null );
+  }
+
+  /**
+   * @param symSpell        Looks up the words.
+   * @param maxEditDistance The maximum edit distance of each word.
+   * @param executor        Evaluates the split points of long words in
+   *                        parallel, may be {@code null} to use the calling
+   *                        thread.
+   */
+  public StreamCorrector(
+      final SymSpell symSpell, final int maxEditDistance,
+      final ExecutorService executor ) {
+    this.symSpell = symSpell;
+    this.maxEditDistance = maxEditDistance;
+    this.executor = executor;
+  }
+
+  /**
+   * Reads text to its end and passes it to the sink corrected. The reader
+   * is not closed.
+   *
+   * @param reader The text to correct.
+   * @param sink   Receives every character of the text, in order.
+   * @throws IOException             Could not read the text, or the sink
+   *                                 failed.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public void correct( final Reader reader, final CorrectionSink sink )
+      throws IOException, NotInitializedException {
+    final Run run = new Run( sink );
+    final char[] buffer = new char[ BUFFER_SIZE ];
+    int read;
+
+    while( (read = reader.read( buffer )) != -1 ) {
+      run.accept( buffer, read );
+    }
+
+    run.finish();
+  }
+
+  /**
+   * Decodes bytes to their end and passes the text to the sink corrected.
+   * Malformed input is replaced, like {@link String#String(byte[], Charset)}
+   * does. The channel is not closed.
+   *
+   * @param channel The encoded text to correct.
+   * @param charset The encoding of the text.
+   * @param sink    Receives every character of the text, in order.
+   * @throws IOException             Could not read the text, or the sink
+   *                                 failed.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public void correct(
+      final ReadableByteChannel channel, final Charset charset,
+      final CorrectionSink sink ) throws IOException, NotInitializedException {
+    correct( Channels.newReader(
+        channel,
+        charset.newDecoder()
+               .onMalformedInput( CodingErrorAction.REPLACE )
+               .onUnmappableCharacter( CodingErrorAction.REPLACE ),
+        -1 ), sink );
+  }
+
+  private static boolean isApostrophe( final char c ) {
+    return c == '\'' || c == '\u2019';
+  }
+
+  /**
+   * Applies the capitalization of a word to its replacement: all capitals
+   * for a word of several capital letters, otherwise an initial capital.
+   */
+  private static String matchCase(
+      final String original, final String replacement ) {
+    if( replacement.isEmpty()
+        || !Character.isUpperCase( original.charAt( 0 ) ) ) {
+      return replacement;
+    }
+
+    int letters = 0;
+
+    for( int i = 0; i < original.length(); i++ ) {
+      final char c = original.charAt( i );
+
+      if( Character.isLowerCase( c ) ) {
+        return Character.toUpperCase( replacement.charAt( 0 ) )
+            + replacement.substring( 1 );
+      }
+      if( Character.isLetter( c ) ) {
+        letters++;
+      }
+    }
+
+    return letters > 1
+        ? replacement.toUpperCase( Locale.ROOT )
+        : Character.toUpperCase( replacement.charAt( 0 ) )
+            + replacement.substring( 1 );
+  }
+
+  /**
+   * The state of one call to {@link #correct(Reader, CorrectionSink)}.
+   * Text is either copied to the sink straight from the read buffer, or
+   * held while it may still change: the word being read, the last word
+   * corrected, and the spaces after it.
+   */
+  private final class Run {
+    private final CorrectionSink sink;
+    private final BitParallelOSA.Pattern pattern =
+        new BitParallelOSA.Pattern();
+    private final char[] scratch =
+        new char[ 2 * MAX_WORD_LENGTH + MAX_SPACES + 1 ];
+
+    private DictionarySnapshot dictionary;
+    private CompoundMemo memo;
+    private int words;
+
+    /**
+     * The position of the first character of the buffer being read.
+     */
+    private long position;
+
+    /**
+     * The word being read, unless it is too long and being skipped.
+     */
+    private final StringBuilder word = new StringBuilder();
+    private long wordOffset;
+    private boolean wordHasDigit;
+    private boolean skipping;
+
+    /**
+     * The last word read and its correction, which may still be combined
+     * with the next word, and the spaces read since.
+     */
+    private final List<SuggestItem> parts = new ArrayList<>( 2 );
+    private final StringBuilder spaces = new StringBuilder();
+    private String held;
+    private long heldOffset;
+    private String previous;
+    private boolean lastCombination;
+
+    private Run( final CorrectionSink sink ) {
+      this.sink = sink;
+    }
+
+    private boolean inWord() {
+      return skipping || word.length() > 0;
+    }
+
+    /**
+     * Answers whether the text read is copied straight from the buffer.
+     */
+    private boolean copying() {
+      return skipping || (word.length() == 0 && held == null);
+    }
+
+    private void accept( final char[] chars, final int length )
+        throws IOException {
+      int copyFrom = 0;
+
+      for( int i = 0; i < length; i++ ) {
+        final char c = chars[ i ];
+
+        if( Character.isLetterOrDigit( c ) || inWord() && isApostrophe( c ) ) {
+          if( !inWord() ) {
+            if( copying() ) {
+              copy( chars, copyFrom, i );
+            }
+
+            wordOffset = position + i;
+          }
+
+          if( !skipping ) {
+            word.append( c );
+            wordHasDigit |= Character.isDigit( c );
+
+            if( word.length() > MAX_WORD_LENGTH ) {
+              release();
+              copy( word.toString() );
+              word.setLength( 0 );
+              skipping = true;
+              copyFrom = i + 1;
+            }
+          }
+
+          continue;
+        }
+
+        if( inWord() ) {
+          final boolean skipped = skipping;
+          endWord();
+
+          if( !skipped ) {
+            copyFrom = i;
+          }
+        }
+
+        if( held != null ) {
+          if( (c == ' ' || c == '\t') && spaces.length() < MAX_SPACES ) {
+            spaces.append( c );
+            continue;
+          }
+
+          release();
+          copyFrom = i;
+        }
+      }
+
+      if( copying() ) {
+        copy( chars, copyFrom, length );
+      }
+
+      position += length;
+    }
+
+    private void finish() throws IOException {
+      if( inWord() ) {
+        endWord();
+      }
+
+      release();
+    }
+
+    /**
+     * Corrects the word just read, combining it with the held word when
+     * only spaces separate them, and holds it in turn.
+     */
+    private void endWord() throws IOException {
+      if( skipping ) {
+        skipping = false;
+        wordHasDigit = false;
+        return;
+      }
+
+      int end = word.length();
+
+      while( isApostrophe( word.charAt( end - 1 ) ) ) {
+        end--;
+      }
+
+      final String term = word.substring( 0, end );
+      final String apostrophes = word.substring( end );
+      final boolean hasDigit = wordHasDigit;
+
+      word.setLength( 0 );
+      wordHasDigit = false;
+
+      if( hasDigit ) {
+        release();
+        copy( term );
+      }
+      else {
+        correct( term );
+      }
+
+      if( !apostrophes.isEmpty() ) {
+        release();
+        copy( apostrophes );
+      }
+    }
+
+    private void correct( final String term ) throws IOException {
+      final boolean joinable = held != null;
+      final String lower = term.toLowerCase( Locale.ROOT );
+
+      if( !joinable ) {
+        release();
+      }
+
+      if( memo == null || ++words > MEMO_WORDS ) {
+        dictionary = symSpell.getDictionary();
+        memo = new CompoundMemo();
+        words = 0;
+      }
+
+      final boolean combined = symSpell.compoundTerm(
+          dictionary, joinable ? previous : null, lower, lastCombination,
+          maxEditDistance, parts, memo, executor );
+
+      if( combined ) {
+        held = held + spaces + term;
+        spaces.setLength( 0 );
+      }
+      else {
+        release();
+        held = term;
+        heldOffset = wordOffset;
+      }
+
+      previous = lower;
+      lastCombination = combined;
+    }
+
+    /**
+     * Passes the held word and the spaces after it to the sink, so that no
+     * later word may be combined with it.
+     */
+    private void release() throws IOException {
+      if( held != null ) {
+        final String suggestion = parts.remove( 0 ).getSuggestion();
+        final String lower = held.toLowerCase( Locale.ROOT );
+
+        if( suggestion.equals( lower ) ) {
+          copy( held );
+        }
+        else {
+          sink.corrected( new Correction(
+              heldOffset, held, matchCase( held, suggestion ),
+              pattern.distance( lower, suggestion, Integer.MAX_VALUE ) ) );
+        }
+
+        held = null;
+        previous = null;
+        lastCombination = false;
+      }
+
+      copy( spaces.toString() );
+      spaces.setLength( 0 );
+    }
+
+    private void copy( final String text ) throws IOException {
+      if( !text.isEmpty() ) {
+        text.getChars( 0, text.length(), scratch, 0 );
+        sink.unchanged( scratch, 0, text.length() );
+      }
+    }
+
+    private void copy( final char[] chars, final int from, final int to )
+        throws IOException {
+      if( to > from ) {
+        sink.unchanged( chars, from, to - from );
+      }
+    }
+  }
+}
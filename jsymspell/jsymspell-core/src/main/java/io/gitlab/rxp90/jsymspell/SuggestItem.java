@@ -47,11 +47,11 @@ public final class SuggestItem implements Comparable<SuggestItem> {
     return suggestion;
   }
 
-  int getEditDistance() {
+  public int getEditDistance() {
     return editDistance;
   }
 
-  double getFrequencyOfSuggestionInDict() {
+  public double getFrequencyOfSuggestionInDict() {
     return frequencyOfSuggestionInDict;
   }
 
@@ -1,83 +1,115 @@
 package io.gitlab.rxp90.jsymspell;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
+/**
+ * Accumulates delete hashes and the ids of the words that produce them
+ * before they are committed to a frozen {@link DeletesIndex}. Buckets are
+ * singly linked lists of nodes, so adding never copies a bucket.
+ */
 public class SuggestionStage {
 
-  static class Node {
-    private final String suggestion;
-    private final int next;
-
-    Node(String suggestion, int next) {
-      this.suggestion = suggestion;
-      this.next = next;
-    }
-  }
-
-  private static class Entry {
-    private int count;
-    private int first;
-
-    private Entry(int count, int first) {
-      this.count = count;
-      this.first = first;
-    }
-
-    private void incrCount() {
-      this.count++;
-    }
-
-    void setFirst(int first) {
-      this.first = first;
-    }
+  /**
+   * Receives a delete hash together with the size of its bucket.
+   */
+  @FunctionalInterface
+  interface Visitor {
+    void accept(long deleteHash, int value);
   }
 
-  private final Map<Long, Entry> deletes;
+  private long[] hashes;
+  private int[] counts;
+  private int[] firsts;
+  private int deleteCount;
   private final ChunkArray nodes;
 
   SuggestionStage(int initialCapacity) {
-    this.deletes = new HashMap<>(initialCapacity);
+    int capacity = DeletesIndex.tableSizeFor(initialCapacity);
+    this.hashes = new long[capacity];
+    this.counts = new int[capacity];
+    this.firsts = new int[capacity];
     this.nodes = new ChunkArray(initialCapacity * 2);
   }
 
   public int deleteCount() {
-    return deletes.size();
+    return deleteCount;
   }
 
   public int nodeCount() {
     return nodes.getCount();
   }
 
-  void add(long deleteHash, String suggestion) {
-    Entry entry = deletes.getOrDefault(deleteHash, new Entry(0, -1));
-    int next = entry.first;
-    entry.incrCount();
-    entry.setFirst(nodes.getCount());
-    deletes.put(deleteHash, entry);
-    nodes.add(new Node(suggestion, next));
+  void add(long deleteHash, int wordId) {
+    int slot = slotOf(deleteHash);
+    if (counts[slot] == 0) {
+      hashes[slot] = deleteHash;
+      firsts[slot] = -1;
+      deleteCount++;
+    }
+    counts[slot]++;
+    firsts[slot] = nodes.add(wordId, firsts[slot]);
+
+    if (deleteCount * 2 > hashes.length) {
+      grow();
+    }
+  }
+
+  /**
+   * Commits the staged buckets on top of an existing index.
+   *
+   * @param permanent The index to extend, may be {@link DeletesIndex#EMPTY}.
+   * @return A new index holding the buckets of both.
+   */
+  DeletesIndex commitTo(DeletesIndex permanent) {
+    return permanent.merge(List.of(this), null, 1);
   }
 
-  void commitTo(Map<Long, String[]> permanentLongToStringArrayMap) {
-    for (Map.Entry<Long, Entry> entry : deletes.entrySet()) {
-      int i = 0;
-      String[] suggestions = permanentLongToStringArrayMap.get(entry.getKey());
-      if (suggestions != null) {
-        i = suggestions.length;
-        var newSuggestions = new String[suggestions.length + entry.getValue().count];
-        System.arraycopy(suggestions, 0, newSuggestions, 0, suggestions.length);
-        permanentLongToStringArrayMap.put(entry.getKey(), newSuggestions);
-      } else {
-        suggestions = new String[entry.getValue().count];
-        permanentLongToStringArrayMap.put(entry.getKey(), suggestions);
+  void forEachBucket(Visitor visitor) {
+    for (int slot = 0; slot < hashes.length; slot++) {
+      if (counts[slot] > 0) {
+        visitor.accept(hashes[slot], counts[slot]);
       }
+    }
+  }
+
+  /**
+   * Copies the word ids staged for the given hash, most recently added
+   * first, into {@code target} starting at {@code cursor}.
+   *
+   * @return The index following the last word id copied.
+   */
+  int copyBucket(long deleteHash, int[] target, int cursor) {
+    int slot = slotOf(deleteHash);
+    int next = counts[slot] > 0 ? firsts[slot] : -1;
+    while (next >= 0) {
+      target[cursor++] = nodes.getWordId(next);
+      next = nodes.getNext(next);
+    }
+    return cursor;
+  }
+
+  private int slotOf(long deleteHash) {
+    int mask = hashes.length - 1;
+    int slot = DeletesIndex.home(deleteHash, mask);
+    while (counts[slot] != 0 && hashes[slot] != deleteHash) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
 
-      int next = entry.getValue().first;
-      while (next >= 0 && i < suggestions.length) {
-        var node = nodes.get(next);
-        suggestions[i] = node.suggestion;
-        next = node.next;
-        i++;
+  private void grow() {
+    long[] oldHashes = hashes;
+    int[] oldCounts = counts;
+    int[] oldFirsts = firsts;
+    hashes = new long[oldHashes.length * 2];
+    counts = new int[hashes.length];
+    firsts = new int[hashes.length];
+    for (int i = 0; i < oldHashes.length; i++) {
+      if (oldCounts[i] > 0) {
+        int slot = slotOf(oldHashes[i]);
+        hashes[slot] = oldHashes[i];
+        counts[slot] = oldCounts[i];
+        firsts[slot] = oldFirsts[i];
       }
     }
   }
@@ -1,15 +1,42 @@
 package io.gitlab.rxp90.jsymspell;
 
-import io.gitlab.rxp90.jsymspell.api.DamerauLevenshteinOSA;
-import io.gitlab.rxp90.jsymspell.api.EditDistance;
 import io.gitlab.rxp90.jsymspell.api.StringHasher;
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
 import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjLongConsumer;
 
 import static io.gitlab.rxp90.jsymspell.SymSpell.Verbosity.ALL;
-import static java.lang.Long.parseLong;
 
+/**
+ * Suggests corrections from a frequency dictionary using symmetric deletes.
+ * <p>
+ * Instances are safe for concurrent use: any number of threads may call
+ * {@link #lookup(String, Verbosity)},
+ * {@link #lookupAll(List, Verbosity, ExecutorService)} and
+ * {@link #lookupCompound(String, int)} without external synchronization,
+ * also while {@link #addWord(String, long)}, {@link #removeWord(String)} and
+ * {@link #updateCount(String, long)} change the dictionary; changes are
+ * serialized by an internal lock. Every lookup reads a single snapshot of
+ * the dictionary that is never modified and is published through a
+ * volatile field, so it sees each change either completely or not at all;
+ * {@link #snapshot()} holds one snapshot for a series of lookups. Lookups
+ * keep their scratch state in a {@link LookupContext} confined to the
+ * calling thread and share only the lookup result cache, which locks
+ * internally and is cleared by every change. Two further conditions are the
+ * caller's: a {@link LookupContext} passed to
+ * {@link #lookup(String, Verbosity, LookupContext)} must not be used by two
+ * threads at once, and the {@link StringHasher} must itself be thread-safe,
+ * as the provided implementations are.
+ * </p>
+ */
 public class SymSpell {
   /**
    * Delimiter for lexicon bigrams and unigrams (words).
@@ -20,15 +47,48 @@ public class SymSpell {
   private final int prefixLength;
   private final int countThreshold;
 
-  private final Map<Long, String[]> deletes = new HashMap<>();
-  private final Map<String, Long> lexiconWords = new HashMap<>();
-  private final Map<String, Long> lexiconBigrams = new HashMap<>();
-  private final Map<String, Long> belowThresholdWords = new HashMap<>();
-  private final EditDistance damerauLevenshteinOSA;
+  private volatile DictionarySnapshot dictionary;
+  private final LookupCache lookupCache;
+  private final ThreadLocal<LookupContext> lookupContexts;
 
   private final StringHasher stringHasher;
 
-  private int maxDictionaryWordLength;
+  /**
+   * Observes lookups and builds, {@code null} when none was set.
+   */
+  private final SymSpellListener listener;
+
+  /**
+   * Guards the changes to the dictionary and the fields below.
+   */
+  private final Object updateLock = new Object();
+
+  /**
+   * Words whose total count is still below the count threshold.
+   */
+  private final Map<String, Long> belowThresholdWords;
+
+  /**
+   * The held back counts of a mapped index, moved into
+   * {@link #belowThresholdWords} when first needed.
+   */
+  private WordTable mappedBelowThresholdWords;
+  private final boolean frozen;
+  private DeleteQueue updateQueue;
+  private boolean compacting;
+
+  /**
+   * The number of changes after which the dictionary is compacted in the
+   * background, unless it has more than eight times as many words.
+   */
+  private static final int COMPACTION_CHANGES = 4096;
+
+  /**
+   * Terms this long or longer have their split points evaluated in parallel
+   * when {@link #lookupCompound(String, int, ExecutorService)} is given an
+   * executor; shorter ones are not worth the hand-off.
+   */
+  public static final int PARALLEL_SPLIT_LENGTH = 8;
 
   /**
    * Number of all words in the corpus that was used to generate the
@@ -41,7 +101,8 @@ public class SymSpell {
    * </p>
    */
   private final static long N = 1024908267229L;
-  private long bigramCountMin = Long.MAX_VALUE;
+
+  private static final double LOG10_N = Math.log10( N );
 
   public enum Verbosity {
     TOP,
@@ -56,202 +117,1100 @@ public class SymSpell {
       final StringHasher stringHasher,
       final Map<Long, String[]> deletes,
       final Collection<String> lexiconWords,
-      final Collection<String> lexiconBigrams ) {
+      final List<LexiconReader.Source> lexiconSources,
+      final Collection<String> lexiconBigrams,
+      final List<LexiconReader.Source> bigramSources,
+      final int parallelism,
+      final int lookupCacheSize,
+      final double deleteFilterRate,
+      final SymSpellListener listener ) {
     this.maxDictionaryEditDistance = maxDictionaryEditDistance;
     this.prefixLength = prefixLength;
     this.countThreshold = countThreshold;
     this.stringHasher = stringHasher;
-    this.deletes.putAll( deletes );
-    this.damerauLevenshteinOSA = new DamerauLevenshteinOSA();
+    this.listener = listener;
+    this.lookupCache = createLookupCache( lookupCacheSize );
+    this.lookupContexts = ThreadLocal.withInitial( LookupContext::new );
+    this.frozen = false;
+
+    final ExecutorService executor = parallelism > 1
+        ? Executors.newFixedThreadPool( parallelism )
+        : null;
+
+    try {
+      long start = System.nanoTime();
+      final WordTable counted = countLexiconWords(
+          lexiconWords.toArray( new String[ 0 ] ), executor, parallelism );
+
+      for( final LexiconReader.Source source : lexiconSources ) {
+        source.read( ( word, count ) -> countEntry( counted, word, count ) );
+      }
+
+      final WordTable words = selectWords( counted, true );
+      this.belowThresholdWords = selectWords( counted, false ).toMap();
+
+      int maxWordLength = 0;
+
+      for( int wordId = 0; wordId < words.size(); wordId++ ) {
+        maxWordLength = Math.max( maxWordLength, words.length( wordId ) );
+      }
+
+      final BigramTable bigrams =
+          parseBigrams( lexiconBigrams, bigramSources );
+      start = report( SymSpellListener.BuildPhase.PARSE, start );
+
+      final List<SuggestionStage> stagings = new ArrayList<>();
+
+      if( !deletes.isEmpty() ) {
+        stagings.add( initDeletes( words, deletes ) );
+      }
+
+      stagings.addAll( generateDeletes( words, executor, parallelism ) );
+      start = report( SymSpellListener.BuildPhase.GENERATE_DELETES, start );
+
+      final DeletesIndex merged =
+          DeletesIndex.EMPTY.merge(
+              null, stagings, words, executor, parallelism );
+      final DeletesIndex index = deleteFilterRate > 0
+          ? merged.withFilter( deleteFilterRate )
+          : merged;
+      report( SymSpellListener.BuildPhase.COMMIT, start );
+
+      this.dictionary = new DictionarySnapshot(
+          words, index, bigrams, maxWordLength, bigrams.countMin() );
+    } catch( final IOException e ) {
+      throw new UncheckedIOException( e );
+    } finally {
+      if( executor != null ) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Reads the state written by {@link #writeIndex(Path)}. The words and
+   * deletes are served directly from the mapped file.
+   */
+  private SymSpell(
+      final IndexFile.Reader reader, final StringHasher stringHasher,
+      final int lookupCacheSize, final double deleteFilterRate,
+      final SymSpellListener listener )
+      throws IOException {
+    final long start = System.nanoTime();
+    final String hasherId = reader.readString();
+
+    if( !hasherId.equals( stringHasher.getClass().getName() ) ) {
+      throw new IndexFormatException(
+          "Index was built with " + hasherId + ", not " +
+              stringHasher.getClass().getName() );
+    }
+
+    this.maxDictionaryEditDistance = reader.readInt();
+    this.prefixLength = reader.readInt();
+    this.countThreshold = reader.readInt();
+
+    final int maxWordLength = reader.readInt();
+    final long bigramCountMin = reader.readLong();
+
+    this.stringHasher = stringHasher;
+    this.listener = listener;
+    this.lookupCache = createLookupCache( lookupCacheSize );
+    this.lookupContexts = ThreadLocal.withInitial( LookupContext::new );
+    this.belowThresholdWords = new HashMap<>();
+    this.frozen = false;
+
+    final WordTable words = WordTable.readFrom( reader );
+    // The filter written with the index is rebuilt only at another rate.
+    final DeletesIndex deletes =
+        DeletesIndex.readFrom( reader ).withFilter( deleteFilterRate );
+    final BigramTable bigrams = BigramTable.readFrom( reader );
+
+    this.mappedBelowThresholdWords = WordTable.readFrom( reader );
+    this.dictionary = new DictionarySnapshot(
+        words, deletes, bigrams, maxWordLength, bigramCountMin );
+    report( SymSpellListener.BuildPhase.MAP_INDEX, start );
+  }
+
+  /**
+   * Maps an index file written by {@link #writeIndex(Path)}.
+   *
+   * @param path         The index file to map.
+   * @param stringHasher Must be of the same class as the hasher the index
+   *                     was built with.
+   * @param lookupCacheSize The maximum number of lookup results to cache,
+   *                     zero to disable caching.
+   * @param deleteFilterRate The false positive rate of the delete filter,
+   *                     zero for none. The filter written with the index is
+   *                     mapped when its rate is the same.
+   * @param listener     Observes lookups and the mapping, may be
+   *                     {@code null}.
+   * @return A spell checker that serves lookups from the mapped file.
+   * @throws IOException          Could not read the file.
+   * @throws IndexFormatException The file is not a compatible index.
+   */
+  static SymSpell mapIndex(
+      final Path path, final StringHasher stringHasher,
+      final int lookupCacheSize, final double deleteFilterRate,
+      final SymSpellListener listener )
+      throws IOException {
+    try( final IndexFile.Reader reader = new IndexFile.Reader( path ) ) {
+      return new SymSpell(
+          reader, stringHasher, lookupCacheSize, deleteFilterRate, listener );
+    }
+  }
+
+  /**
+   * Creates a read-only view of the given spell checker's current
+   * dictionary.
+   */
+  private SymSpell( final SymSpell source ) {
+    this.maxDictionaryEditDistance = source.maxDictionaryEditDistance;
+    this.prefixLength = source.prefixLength;
+    this.countThreshold = source.countThreshold;
+    this.stringHasher = source.stringHasher;
+    this.listener = source.listener;
+    this.lookupCache = null;
+    this.lookupContexts = source.lookupContexts;
+    this.belowThresholdWords = Collections.emptyMap();
+    this.frozen = true;
+    this.dictionary = source.dictionary;
+  }
+
+  /**
+   * Reports a build phase that started at {@code start} to the listener.
+   *
+   * @return The time the phase ended, when the next one starts.
+   */
+  private long report( final SymSpellListener.BuildPhase phase,
+                       final long start ) {
+    final long end = System.nanoTime();
+
+    if( listener != null ) {
+      listener.buildPhaseCompleted( phase, end - start );
+    }
+
+    return end;
+  }
+
+  private static LookupCache createLookupCache( final int lookupCacheSize ) {
+    return lookupCacheSize > 0 ? new LookupCache( lookupCacheSize ) : null;
+  }
+
+  /**
+   * Writes the complete built state to a versioned binary file that
+   * {@link SymSpellBuilder#setIndexFile(Path)} can later map without
+   * rebuilding the deletes. Counts held back below the count threshold are
+   * kept, so that {@link #addWord(String, long)} continues from them.
+   *
+   * @param path The file to create or overwrite.
+   * @throws IOException Could not write the file.
+   */
+  public void writeIndex( final Path path ) throws IOException {
+    final DictionarySnapshot dictionary = compact( this.dictionary );
+    final WordTable heldBack;
+
+    synchronized( updateLock ) {
+      final Map<String, Long> words = belowThresholdWords();
+      heldBack = new WordTable( words.size() );
+      words.forEach( heldBack::add );
+    }
+
+    try( final IndexFile.Writer writer = new IndexFile.Writer( path ) ) {
+      writer.writeString( stringHasher.getClass().getName() );
+      writer.writeInt( maxDictionaryEditDistance );
+      writer.writeInt( prefixLength );
+      writer.writeInt( countThreshold );
+      writer.writeInt( dictionary.maxWordLength() );
+      writer.writeLong( dictionary.bigramCountMin() );
+      dictionary.words().writeTo( writer );
+      dictionary.deletes().writeTo( writer );
+      dictionary.bigrams().writeTo( writer );
+      heldBack.writeTo( writer );
+    }
+  }
+
+  /**
+   * Returns the counts held back below the count threshold, reading those
+   * of a mapped index on first use. Callers hold the update lock.
+   */
+  private Map<String, Long> belowThresholdWords() {
+    if( mappedBelowThresholdWords != null ) {
+      belowThresholdWords.putAll( mappedBelowThresholdWords.toMap() );
+      mappedBelowThresholdWords = null;
+    }
+
+    return belowThresholdWords;
+  }
+
+  private boolean deleteSuggestionPrefix(
+      DeleteQueue candidates, int candidate, int deleteLen,
+      DictionarySnapshot dictionary, int suggestionId, int suggestionLen ) {
+    if( deleteLen == 0 ) {
+      return true;
+    }
+
+    int adjustedSuggestionLen = Math.min( prefixLength, suggestionLen );
+
+    int j = 0;
+
+    for( int i = 0; i < deleteLen; i++ ) {
+      char delChar = candidates.charAt( candidate, i );
+      while( j < adjustedSuggestionLen
+          && delChar != dictionary.charAt( suggestionId, j ) ) {
+        j++;
+      }
+      if( j == adjustedSuggestionLen ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  Set<String> edits( String word, int editDistance, Set<String> deleteWords ) {
+    final DeleteQueue queue = new DeleteQueue( stringHasher, word.length() );
+    queue.add( word, word.length() );
+    addDeletes( queue, editDistance );
+
+    for( int i = 1; i < queue.size(); i++ ) {
+      deleteWords.add( queue.toString( i ) );
+    }
+    return deleteWords;
+  }
+
+  /**
+   * Expands the queued root breadth-first into all of its deletes that are
+   * within the maximum dictionary edit distance.
+   *
+   * @param queue        Holds the root to expand as its first entry.
+   * @param editDistance The edit distance the root already represents.
+   */
+  private void addDeletes( final DeleteQueue queue, final int editDistance ) {
+    final int rootLength = queue.length( 0 );
+
+    for( int i = 0; i < queue.size(); i++ ) {
+      final int length = queue.length( i );
+
+      if( length > 1 &&
+          editDistance + rootLength - length < maxDictionaryEditDistance ) {
+        queue.addDeletes( i );
+      }
+    }
+  }
+
+  /**
+   * Sums the counts of each distinct word in the lexicon. Words keep the
+   * order of their first occurrence whether the lines are counted on one
+   * thread or split into consecutive slices counted in parallel.
+   *
+   * @param lines    Lexicon lines, each a word and count.
+   * @param executor Counts the slices in parallel, may be {@code null}.
+   * @param tasks    The number of slices to split the lines into.
+   * @return Every word in the lexicon with its total count.
+   */
+  private WordTable countLexiconWords(
+      final String[] lines, final ExecutorService executor, final int tasks ) {
+    final WordTable[] partials = new WordTable[ tasks ];
+
+    Tasks.run( executor, tasks, task -> {
+      final WordTable partial = new WordTable( 16384 );
+      final int end = Tasks.start( task + 1, tasks, lines.length );
+
+      final ObjLongConsumer<CharSequence> entries =
+          ( word, count ) -> countEntry( partial, word, count );
+
+      for( int i = Tasks.start( task, tasks, lines.length ); i < end; i++ ) {
+        LexiconReader.parse( lines[ i ], i + 1, entries );
+      }
+
+      partials[ task ] = partial;
+    } );
+
+    final WordTable counted = partials[ 0 ];
+
+    for( int task = 1; task < tasks; task++ ) {
+      final WordTable partial = partials[ task ];
+
+      for( int wordId = 0; wordId < partial.size(); wordId++ ) {
+        addCount( counted, partial.word( wordId ), partial.count( wordId ) );
+      }
+    }
+
+    return counted;
+  }
+
+  /**
+   * Counts a lexicon entry unless its count is not positive, which counts
+   * as zero when there is no count threshold.
+   */
+  private void countEntry(
+      final WordTable words, final CharSequence word, final long count ) {
+    if( count > 0 ) {
+      addCount( words, word, count );
+    }
+    else if( countThreshold <= 0 ) {
+      addCount( words, word, 0L );
+    }
+  }
+
+  private static void addCount(
+      final WordTable words, final CharSequence word, final long count ) {
+    final int wordId = words.find( word );
+
+    if( wordId < 0 ) {
+      words.add( word, count );
+    }
+    else {
+      words.setCount( wordId, sum( words.count( wordId ), count ) );
+    }
+  }
+
+  /**
+   * Adds two counts, saturating at {@link Long#MAX_VALUE}.
+   */
+  private static long sum( final long countPrevious, final long count ) {
+    return (Long.MAX_VALUE - countPrevious > count) ?
+        countPrevious + count : Long.MAX_VALUE;
+  }
+
+  /**
+   * Partitions counted words by the count threshold.
+   *
+   * @param counted        Every word in the lexicon with its total count.
+   * @param aboveThreshold {@code true} to select the words whose count
+   *                       meets the threshold, {@code false} for the rest.
+   * @return The selected words, in the same relative order.
+   */
+  private WordTable selectWords(
+      final WordTable counted, final boolean aboveThreshold ) {
+    int selected = 0;
+
+    for( int wordId = 0; wordId < counted.size(); wordId++ ) {
+      if( (counted.count( wordId ) >= countThreshold) == aboveThreshold ) {
+        selected++;
+      }
+    }
+
+    if( aboveThreshold && selected == counted.size() ) {
+      return counted;
+    }
+
+    final WordTable words = new WordTable( selected );
+
+    for( int wordId = 0; wordId < counted.size(); wordId++ ) {
+      final long count = counted.count( wordId );
+
+      if( (count >= countThreshold) == aboveThreshold ) {
+        words.add( counted.word( wordId ), count );
+      }
+    }
+
+    return words;
+  }
+
+  /**
+   * Stages prebuilt deletes to be committed with those generated from the
+   * lexicon. Suggestions that are not lexicon words are dropped because they
+   * have no count to rank them by.
+   *
+   * @param lexiconWords The words that the delete hashes map to.
+   * @param deletes      Delete hashes mapped to the words that produce them.
+   * @return The delete hashes and word ids.
+   */
+  private SuggestionStage initDeletes(
+      final WordTable lexiconWords, final Map<Long, String[]> deletes ) {
+    final SuggestionStage staging = new SuggestionStage( deletes.size() );
 
-    initLexiconWords( lexiconWords );
-    initLexiconBigrams( lexiconBigrams );
+    deletes.forEach( ( deleteHash, suggestions ) -> {
+      for( final String suggestion : suggestions ) {
+        final int wordId = lexiconWords.find( suggestion );
+
+        if( wordId >= 0 ) {
+          staging.add( deleteHash, wordId );
+        }
+      }
+    } );
+
+    return staging;
+  }
+
+  /**
+   * Sums the counts of each distinct bigram in the lexicon lines and then
+   * in the lexicon sources.
+   */
+  private BigramTable parseBigrams(
+      final Collection<String> lines,
+      final List<LexiconReader.Source> sources ) throws IOException {
+    final BigramTable bigrams = new BigramTable( lines.size() );
+
+    int lineNumber = 0;
+
+    for( final String line : lines ) {
+      LexiconReader.parse( line, ++lineNumber, bigrams::add );
+    }
+
+    for( final LexiconReader.Source source : sources ) {
+      source.read( bigrams::add );
+    }
+
+    return bigrams;
+  }
+
+  /**
+   * Stages the deletes of every lexicon word. Each task stages a
+   * consecutive range of word ids into its own stage.
+   *
+   * @param lexiconWords The words to stage.
+   * @param executor     Generates the ranges in parallel, may be
+   *                     {@code null}.
+   * @param tasks        The number of ranges to split the word ids into.
+   * @return The stages, ordered so that committing them lists the word ids
+   * of each bucket from the most recently added, like a single stage would.
+   */
+  private List<SuggestionStage> generateDeletes(
+      final WordTable lexiconWords, final ExecutorService executor,
+      final int tasks ) {
+    final SuggestionStage[] stagings = new SuggestionStage[ tasks ];
+    final int words = lexiconWords.size();
+
+    Tasks.run( executor, tasks, task -> {
+      final SuggestionStage staging = new SuggestionStage( 16384 );
+      final DeleteQueue queue = new DeleteQueue( stringHasher, 256 );
+      final int end = Tasks.start( task + 1, tasks, words );
+
+      for( int wordId = Tasks.start( task, tasks, words ); wordId < end;
+           wordId++ ) {
+        generateDeletes( lexiconWords, wordId, staging, queue );
+      }
+
+      stagings[ task ] = staging;
+    } );
+
+    final List<SuggestionStage> ordered = Arrays.asList( stagings );
+    Collections.reverse( ordered );
+    return ordered;
+  }
+
+  /**
+   * Stages the prefix of a word and its deletes, plus the empty string when
+   * the whole word is within the maximum edit distance of it.
+   *
+   * @param lexiconWords Holds the word to stage.
+   * @param wordId       The lexicon word to stage.
+   * @param staging      Receives the delete hashes.
+   * @param queue        Scratch space, cleared before use.
+   */
+  private void generateDeletes(
+      final WordTable lexiconWords, final int wordId,
+      final SuggestionStage staging, final DeleteQueue queue ) {
+    queueDeletes( lexiconWords.word( wordId ), queue );
+
+    for( int i = 0; i < queue.size(); i++ ) {
+      staging.add( queue.deleteHash( i ), wordId );
+    }
+  }
+
+  /**
+   * Queues the prefix of a word and its deletes, plus the empty string when
+   * the whole word is within the maximum edit distance of it.
+   *
+   * @param key   The lexicon word to expand.
+   * @param queue Scratch space, cleared before use.
+   */
+  private void queueDeletes( final String key, final DeleteQueue queue ) {
+    final int length = key.length();
+
+    queue.clear();
+    queue.add( key, Math.min( length, prefixLength ) );
+    addDeletes( queue, 0 );
+
+    if( length <= maxDictionaryEditDistance ) {
+      queue.add( "", 0 );
+    }
+  }
+
+  /**
+   * Answers whether a word is in the dictionary, so that callers can skip
+   * correcting it. This probes the word table directly, without the lookup
+   * cache, the listener or any scratch state, and allocates nothing.
+   *
+   * @param word The word to find, compared exactly.
+   * @return {@code true} if {@link #lookup(String, Verbosity)} would suggest
+   * the word itself at distance zero.
+   */
+  public boolean isKnown( final CharSequence word ) {
+    return dictionary.find( word ) >= 0;
+  }
+
+  /**
+   * Returns the count of a dictionary word, as cheaply as
+   * {@link #isKnown(CharSequence)} answers.
+   *
+   * @param word The word to find, compared exactly.
+   * @return The word's count, or zero if it is not in the dictionary,
+   * including when its count is still below the count threshold.
+   */
+  public long frequency( final CharSequence word ) {
+    final DictionarySnapshot dictionary = this.dictionary;
+    final int wordId = dictionary.find( word );
+    return wordId < 0 ? 0 : dictionary.count( wordId );
+  }
+
+  public List<SuggestItem> lookup( String input, Verbosity verbosity )
+      throws NotInitializedException {
+    return lookup( input, verbosity, lookupContexts.get() );
+  }
+
+  /**
+   * Finds suggestions using scratch state supplied by the caller instead of
+   * the state confined to the calling thread.
+   *
+   * @param input     The word to correct.
+   * @param verbosity Controls which suggestions are returned.
+   * @param context   Reused scratch state, not shared with concurrent calls.
+   * @return The suggestions, sorted by edit distance and then frequency.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public List<SuggestItem> lookup(
+      final String input, final Verbosity verbosity,
+      final LookupContext context ) throws NotInitializedException {
+    return lookup( dictionary, input, verbosity,
+                   this.maxDictionaryEditDistance, false, context );
+  }
+
+  /**
+   * Finds suggestions for each of the inputs on the calling thread.
+   *
+   * @see #lookupAll(List, Verbosity, ExecutorService)
+   */
+  public List<List<SuggestItem>> lookupAll(
+      final List<String> inputs, final Verbosity verbosity )
+      throws NotInitializedException {
+    return lookupAll( inputs, verbosity, null );
+  }
+
+  /**
+   * Finds suggestions for each of the inputs, with the same results as
+   * calling {@link #lookup(String, Verbosity)} for every input. Repeated
+   * inputs are looked up once and share one unmodifiable result list.
+   * Inputs are sorted so that those sharing their first
+   * {@code prefixLength} characters are looked up together, reusing one
+   * expansion of the prefix into deletes and one probe per delete.
+   *
+   * @param inputs    The words to correct.
+   * @param verbosity Controls which suggestions are returned.
+   * @param executor  Looks up slices of the sorted inputs in parallel, may
+   *                  be {@code null} to use the calling thread.
+   * @return The suggestions for each input, in the order of the inputs.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public List<List<SuggestItem>> lookupAll(
+      final List<String> inputs, final Verbosity verbosity,
+      final ExecutorService executor ) throws NotInitializedException {
+    final DictionarySnapshot dictionary = this.dictionary;
+    requireWords( dictionary );
+
+    final String[] distinct = new HashSet<>( inputs ).toArray( new String[ 0 ] );
+    Arrays.sort( distinct );
+
+    final List<List<SuggestItem>> results = new ArrayList<>(
+        Collections.nCopies( distinct.length, null ) );
+    final int tasks = executor == null
+        ? 1
+        : Math.min( distinct.length, 4 * parallelism( executor ) );
+
+    Tasks.run( executor, tasks, task -> {
+      // Tasks on one thread run one after another, so they can share its
+      // context.
+      final LookupContext context = lookupContexts.get();
+      final DeleteQueue candidates = context.prefixCandidates( stringHasher );
+      final int end = Tasks.start( task + 1, tasks, distinct.length );
+      String prefix = null;
+
+      for( int i = Tasks.start( task, tasks, distinct.length ); i < end;
+           i++ ) {
+        final String input = distinct[ i ];
+        final int prefixLen = Math.min( input.length(), prefixLength );
+
+        if( prefix == null || prefix.length() != prefixLen
+            || !input.startsWith( prefix ) ) {
+          prefix = input.substring( 0, prefixLen );
+          candidates.clear();
+          candidates.add( prefix, prefixLen );
+        }
+
+        try {
+          results.set( i, Collections.unmodifiableList( lookup(
+              dictionary, input, verbosity, maxDictionaryEditDistance, false,
+              context, candidates ) ) );
+        } catch( final NotInitializedException e ) {
+          throw new IllegalStateException( e );
+        }
+      }
+    } );
+
+    final Map<String, List<SuggestItem>> byInput = new HashMap<>();
+
+    for( int i = 0; i < distinct.length; i++ ) {
+      byInput.put( distinct[ i ], results.get( i ) );
+    }
+
+    final List<List<SuggestItem>> all = new ArrayList<>( inputs.size() );
+
+    for( final String input : inputs ) {
+      all.add( byInput.get( input ) );
+    }
+
+    return all;
+  }
+
+  /**
+   * Returns the number of tasks the executor runs at once.
+   */
+  private static int parallelism( final ExecutorService executor ) {
+    return executor instanceof ForkJoinPool
+        ? ((ForkJoinPool) executor).getParallelism()
+        : Runtime.getRuntime().availableProcessors();
   }
 
-  private boolean deleteSuggestionPrefix(
-      String delete, int deleteLen, String suggestion, int suggestionLen ) {
-    if( deleteLen == 0 ) {
+  private List<SuggestItem> lookup(
+      final DictionarySnapshot dictionary, final String input,
+      final Verbosity verbosity, final int maxEditDistance,
+      final boolean includeUnknown, final LookupContext context )
+      throws NotInitializedException {
+    return lookup( dictionary, input, verbosity, maxEditDistance,
+                   includeUnknown, context, null );
+  }
+
+  /**
+   * Finds suggestions for the input and reports the lookup to the listener,
+   * if there is one.
+   *
+   * @see #cachedLookup(DictionarySnapshot, String, Verbosity, int, boolean,
+   * LookupContext, DeleteQueue)
+   */
+  private List<SuggestItem> lookup(
+      final DictionarySnapshot dictionary, final String input,
+      final Verbosity verbosity, final int maxEditDistance,
+      final boolean includeUnknown, final LookupContext context,
+      final DeleteQueue expanded ) throws NotInitializedException {
+    if( listener == null ) {
+      return cachedLookup( dictionary, input, verbosity, maxEditDistance,
+                           includeUnknown, context, expanded );
+    }
+
+    final LookupMetrics metrics = context.metrics();
+    metrics.begin( input, verbosity, maxEditDistance );
+
+    final long start = System.nanoTime();
+    final List<SuggestItem> suggestions = cachedLookup(
+        dictionary, input, verbosity, maxEditDistance, includeUnknown,
+        context, expanded );
+
+    metrics.end( System.nanoTime() - start, suggestions.size() );
+    listener.lookupCompleted( metrics );
+    return suggestions;
+  }
+
+  /**
+   * Answers the cached suggestions for the input when there are any,
+   * otherwise computes them and caches a copy.
+   *
+   * @see #suggest(DictionarySnapshot, String, Verbosity, int, boolean,
+   * LookupContext, DeleteQueue)
+   */
+  private List<SuggestItem> cachedLookup(
+      final DictionarySnapshot dictionary, final String input,
+      final Verbosity verbosity, final int maxEditDistance,
+      final boolean includeUnknown, final LookupContext context,
+      final DeleteQueue expanded ) throws NotInitializedException {
+    if( lookupCache == null || includeUnknown ) {
+      return suggest( dictionary, input, verbosity, maxEditDistance,
+                      includeUnknown, context, expanded );
+    }
+
+    final List<SuggestItem> cached =
+        lookupCache.get( input, verbosity, maxEditDistance );
+
+    if( cached != null ) {
+      context.metrics().cacheHit();
+      return new ArrayList<>( cached );
+    }
+
+    final long epoch = lookupCache.epoch();
+    final List<SuggestItem> suggestions = suggest(
+        dictionary, input, verbosity, maxEditDistance, false, context,
+        expanded );
+
+    // Read after the epoch, a dictionary changed since the lookup started
+    // is either seen here or has advanced the epoch.
+    if( dictionary == this.dictionary ) {
+      lookupCache.put( input, verbosity, maxEditDistance,
+                       List.copyOf( suggestions ), epoch );
+    }
+
+    return suggestions;
+  }
+
+  /**
+   * Returns the hit and miss counts of the lookup result cache, which are
+   * all zero when the cache is disabled.
+   *
+   * @see SymSpellBuilder#setLookupCacheSize(int)
+   */
+  public CacheStats getLookupCacheStats() {
+    return lookupCache == null
+        ? new CacheStats( 0, 0, 0, 0 )
+        : lookupCache.stats();
+  }
+
+  /**
+   * Returns the number of bytes held by the filter that rejects deletes
+   * absent from the deletes index, zero when there is none. Deletes of words
+   * added since the index was last compacted are not in the filter.
+   *
+   * @see SymSpellBuilder#setDeleteFilterFalsePositiveRate(double)
+   */
+  public long getDeleteFilterBytes() {
+    return dictionary.deletes().filterBytes();
+  }
+
+  /**
+   * Adds occurrences of a word, as loading another lexicon line for it
+   * would. A word becomes a dictionary word once its total count reaches the
+   * count threshold; until then, its count is held back.
+   *
+   * @param word  The word to add.
+   * @param count The number of occurrences to add.
+   * @return {@code true} if the word became a dictionary word, {@code false}
+   * if it already was one or is still below the count threshold.
+   * @throws UnsupportedOperationException This is a {@link #snapshot()}.
+   */
+  public boolean addWord( final String word, long count ) {
+    synchronized( updateLock ) {
+      requireWritable();
+
+      if( count <= 0 ) {
+        if( countThreshold > 0 ) {
+          return false;
+        }
+        count = 0;
+      }
+
+      final DictionarySnapshot dictionary = this.dictionary;
+      final int wordId = dictionary.find( word );
+
+      if( wordId >= 0 ) {
+        publish( change(
+            dictionary, word, sum( dictionary.count( wordId ), count ) ) );
+        return false;
+      }
+
+      final long total = sum( belowThresholdWords().getOrDefault( word, 0L ),
+                              count );
+
+      if( total < countThreshold ) {
+        belowThresholdWords().put( word, total );
+        return false;
+      }
+
+      belowThresholdWords().remove( word );
+      publish( change( dictionary, word, total ) );
+      return true;
+    }
+  }
+
+  /**
+   * Removes a word from the dictionary, along with any count held back for
+   * it.
+   *
+   * @param word The word to remove.
+   * @return {@code true} if the word was a dictionary word.
+   * @throws UnsupportedOperationException This is a {@link #snapshot()}.
+   */
+  public boolean removeWord( final String word ) {
+    synchronized( updateLock ) {
+      requireWritable();
+      belowThresholdWords().remove( word );
+
+      final DictionarySnapshot dictionary = this.dictionary;
+
+      if( dictionary.find( word ) < 0 ) {
+        return false;
+      }
+
+      publish( change( dictionary, word, DictionaryDelta.REMOVED ) );
+      return true;
+    }
+  }
+
+  /**
+   * Replaces the count of a dictionary word. A count below the count
+   * threshold removes the word and holds the count back, as if it had been
+   * added with {@link #addWord(String, long)}.
+   *
+   * @param word  The word to recount.
+   * @param count The word's new count.
+   * @return {@code true} if the word was a dictionary word.
+   * @throws IllegalArgumentException      The count is negative.
+   * @throws UnsupportedOperationException This is a {@link #snapshot()}.
+   */
+  public boolean updateCount( final String word, final long count ) {
+    if( count < 0 ) {
+      throw new IllegalArgumentException( "count < 0" );
+    }
+
+    synchronized( updateLock ) {
+      requireWritable();
+
+      final DictionarySnapshot dictionary = this.dictionary;
+
+      if( dictionary.find( word ) < 0 ) {
+        return false;
+      }
+
+      if( count < countThreshold ) {
+        belowThresholdWords().put( word, count );
+        publish( change( dictionary, word, DictionaryDelta.REMOVED ) );
+      }
+      else {
+        publish( change( dictionary, word, count ) );
+      }
+
       return true;
     }
+  }
 
-    int adjustedSuggestionLen = Math.min( prefixLength, suggestionLen );
+  /**
+   * Folds the words changed since the dictionary was built into its frozen
+   * words and deletes. This happens in the background once enough changes
+   * accumulate, so calling it is only needed to reclaim their memory or
+   * speed up lookups sooner.
+   *
+   * @throws UnsupportedOperationException This is a {@link #snapshot()}.
+   */
+  public void compact() {
+    synchronized( updateLock ) {
+      requireWritable();
 
-    int j = 0;
+      final DictionarySnapshot dictionary = this.dictionary;
 
-    for( int i = 0; i < deleteLen; i++ ) {
-      char delChar = delete.charAt( i );
-      while( j < adjustedSuggestionLen && delChar != suggestion.charAt( j ) ) {
-        j++;
-      }
-      if( j == adjustedSuggestionLen ) {
-        return false;
+      if( !dictionary.isCompact() ) {
+        publish( compact( dictionary ) );
       }
     }
-    return true;
   }
 
-  Set<String> edits( String word, int editDistance, Set<String> deleteWords ) {
-    editDistance++;
-    if( word.length() > 1 && editDistance <= maxDictionaryEditDistance ) {
-      for( int i = 0; i < word.length(); i++ ) {
-        StringBuilder editableWord = new StringBuilder( word );
-        String delete = editableWord.deleteCharAt( i ).toString();
-        if( deleteWords.add( delete ) ) {
-          if( editDistance < maxDictionaryEditDistance ) {
-            edits( delete, editDistance, deleteWords );
-          }
-        }
-      }
+  /**
+   * Returns a spell checker that answers from the dictionary as it is now,
+   * unaffected by later changes to this one. Nothing is copied, so taking a
+   * snapshot is cheap. The snapshot has no lookup cache and cannot be
+   * changed.
+   *
+   * @return A read-only view of the current dictionary.
+   */
+  public SymSpell snapshot() {
+    return new SymSpell( this );
+  }
+
+  private void requireWritable() {
+    if( frozen ) {
+      throw new UnsupportedOperationException( "Snapshots cannot change" );
     }
-    return deleteWords;
   }
 
-  private Set<String> editsPrefix( String key ) {
-    Set<String> set = new HashSet<>();
-    if( key.length() <= maxDictionaryEditDistance ) {
-      set.add( "" );
+  /**
+   * Records a new count for a word in the delta of a dictionary, first
+   * adding the word and its deletes if the dictionary has never held it.
+   * Callers hold the update lock.
+   *
+   * @param dictionary The latest dictionary, whose delta is appended to.
+   * @param word       The word to change.
+   * @param count      The word's new count, or
+   *                   {@link DictionaryDelta#REMOVED}.
+   * @return A snapshot that includes the change.
+   */
+  private DictionarySnapshot change(
+      final DictionarySnapshot dictionary, final String word,
+      final long count ) {
+    DictionaryDelta delta = dictionary.delta();
+    int wordId = dictionary.findAny( word );
+
+    if( wordId >= 0 ) {
+      if( !delta.hasRoom( 0 ) ) {
+        delta = delta.grow( 0 );
+      }
+
+      delta.setCount( wordId, count );
+      return dictionary.withChanges(
+          delta, 0, wordId < dictionary.words().size()
+              && count > dictionary.words().count( wordId ) );
     }
-    if( key.length() > prefixLength ) {
-      key = key.substring( 0, prefixLength );
+
+    if( count == DictionaryDelta.REMOVED ) {
+      return dictionary;
     }
-    set.add( key );
-    return edits( key, 0, set );
-  }
 
-  private Map.Entry<String, Long> parse( final String line ) {
-    final String[] parts = line.split( LEXICON_DELIMITER );
-    return new AbstractMap.SimpleEntry<>( parts[ 0 ], parseLong( parts[ 1 ] ) );
-  }
+    if( updateQueue == null ) {
+      updateQueue = new DeleteQueue( stringHasher, 256 );
+    }
 
-  private void initLexiconWords( final Collection<String> lexicon ) {
-    final SuggestionStage staging = new SuggestionStage( 16384 );
+    queueDeletes( word, updateQueue );
 
-    lexicon.forEach( line -> {
-      final Map.Entry<String, Long> entry = parse( line );
-      createDictionaryEntry( entry, staging );
-    } );
+    if( !delta.hasRoom( updateQueue.size() ) ) {
+      delta = delta.grow( updateQueue.size() );
+    }
 
-    commitStaged( staging );
-  }
+    wordId = delta.addWord( word );
 
-  private void initLexiconBigrams( final Collection<String> lexicon ) {
-    lexicon.forEach( line -> {
-      final Map.Entry<String, Long> entry = parse( line );
-      final long count = entry.getValue();
-      lexiconBigrams.put( entry.getKey(), count );
-      if( count < bigramCountMin ) {
-        bigramCountMin = count;
-      }
-    } );
+    for( int i = 0; i < updateQueue.size(); i++ ) {
+      delta.addDelete( updateQueue.deleteHash( i ), wordId );
+    }
+
+    delta.setCount( wordId, count );
+    return dictionary.withChanges( delta, word.length(), false );
   }
 
-  private void commitStaged( final SuggestionStage staging ) {
-    staging.commitTo( deletes );
+  /**
+   * Makes a changed dictionary visible to lookups and starts compacting it
+   * when it has accumulated enough changes. Callers hold the update lock.
+   */
+  private void publish( final DictionarySnapshot changed ) {
+    dictionary = changed;
+
+    if( lookupCache != null ) {
+      lookupCache.invalidateAll();
+    }
+
+    if( !compacting && changed.changes() >= Math.max(
+        COMPACTION_CHANGES, changed.words().size() / 8 ) ) {
+      compacting = true;
+      ForkJoinPool.commonPool().execute( () -> compactInBackground( changed ) );
+    }
   }
 
-  private void createDictionaryEntry(
-      final Map.Entry<String, Long> entry, final SuggestionStage staging ) {
-    final String key = entry.getKey();
-    long count = entry.getValue();
+  /**
+   * Compacts a dictionary without holding the update lock, then replays
+   * the changes made meanwhile onto the result and publishes it. The result
+   * is discarded if the dictionary was compacted by other means meanwhile.
+   */
+  private void compactInBackground( final DictionarySnapshot source ) {
+    DictionarySnapshot compacted = null;
+
+    try {
+      compacted = compact( source );
+    } finally {
+      synchronized( updateLock ) {
+        compacting = false;
+
+        final DictionarySnapshot current = dictionary;
+
+        if( compacted != null && current.words() == source.words() ) {
+          final DictionaryDelta delta = current.delta();
 
-    if( count <= 0 ) {
-      if( countThreshold > 0 ) {
-        return;
+          for( int change = source.changes(); change < current.changes();
+               change++ ) {
+            compacted = change(
+                compacted, current.word( delta.changeWordId( change ) ),
+                delta.newCount( change ) );
+          }
+
+          publish( compacted );
+        }
       }
-      count = 0L;
     }
+  }
 
-    Long countPrevious = belowThresholdWords.get( key );
+  /**
+   * Builds frozen words and deletes that include every change a dictionary
+   * has seen. Removed words are dropped and the remaining words keep their
+   * order. The deletes of the base words are renumbered rather than
+   * generated again.
+   *
+   * @return The given dictionary if it has no changes, otherwise a new
+   * dictionary without a delta.
+   */
+  private static DictionarySnapshot compact(
+      final DictionarySnapshot dictionary ) {
+    if( dictionary.isCompact() ) {
+      return dictionary;
+    }
 
-    if( countThreshold > 1 && countPrevious != null ) {
+    final int size = dictionary.size();
+    final int[] remap = new int[ size ];
+    final WordTable words = new WordTable( size );
+    int maxWordLength = 0;
 
-      count = (Long.MAX_VALUE - countPrevious > count) ?
-          countPrevious + count : Long.MAX_VALUE;
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      final long count = dictionary.count( wordId );
 
-      if( count >= countThreshold ) {
-        belowThresholdWords.remove( key );
+      if( count == DictionaryDelta.REMOVED ) {
+        remap[ wordId ] = -1;
       }
       else {
-        belowThresholdWords.put( key, count );
-      }
-    }
-    else {
-      if( lexiconWords.containsKey( key ) ) {
-        countPrevious = lexiconWords.get( key );
-        count = (Long.MAX_VALUE - countPrevious > count) ?
-            countPrevious + count : Long.MAX_VALUE;
-        lexiconWords.put( key, count );
-        return;
-      }
-      else if( count < countThreshold ) {
-        belowThresholdWords.put( key, count );
-        return;
-      }
-      lexiconWords.put( key, count );
-
-      if( key.length() > maxDictionaryWordLength ) {
-        maxDictionaryWordLength = key.length();
+        final String word = dictionary.word( wordId );
+        remap[ wordId ] = words.add( word, count );
+        maxWordLength = Math.max( maxWordLength, word.length() );
       }
-      generateDeletes( key, staging );
     }
-  }
 
-  private void generateDeletes( String key, SuggestionStage staging ) {
-    Set<String> edits = editsPrefix( key );
+    final SuggestionStage staging = new SuggestionStage( 16 );
+    dictionary.delta().stageDeletes( dictionary.nodes(), remap, staging );
 
-    if( staging != null ) {
-      edits.forEach( delete -> staging.add( stringHasher.hash( delete ),
-                                            key ) );
-    }
-    else {
-      edits.forEach(
-          delete -> {
-            long deleteHash = stringHasher.hash( delete );
-            String[] suggestions = deletes.get( deleteHash );
-            if( suggestions != null ) {
-              var newSuggestions = Arrays.copyOf( suggestions,
-                                                  suggestions.length + 1 );
-              deletes.put( deleteHash, newSuggestions );
-              suggestions = newSuggestions;
-            }
-            else {
-              suggestions = new String[ 1 ];
-              deletes.put( deleteHash, suggestions );
-            }
-            suggestions[ suggestions.length - 1 ] = key;
-          } );
-    }
+    return new DictionarySnapshot(
+        words,
+        dictionary.deletes().merge(
+            remap, List.of( staging ), words, null, 1 ),
+        dictionary.bigrams(),
+        maxWordLength,
+        dictionary.bigramCountMin() );
   }
 
-  public List<SuggestItem> lookup( String input, Verbosity verbosity )
+  private static void requireWords( final DictionarySnapshot dictionary )
       throws NotInitializedException {
-    return lookup( input, verbosity, this.maxDictionaryEditDistance, false );
+    if( dictionary.size() == 0 ) {
+      throw new NotInitializedException(
+          "There are no words in the dictionary. Please, call " +
+              "`loadDictionary` to add words." );
+    }
   }
 
+  /**
+   * Finds suggestions for the input.
+   *
+   * @param dictionary The state to read, the same throughout the lookup.
+   * @param expanded {@code null} to enumerate the deletes of the input
+   *                 privately, otherwise a queue starting with the prefix of
+   *                 the input that is shared with other lookups of the same
+   *                 prefix and expanded in breadth-first order as far as
+   *                 any of them needs. The candidates this lookup visits
+   *                 are always a leading run of that order, so it visits
+   *                 them in the order it would have enumerated them.
+   */
   @SuppressWarnings("SameParameterValue")
-  private List<SuggestItem> lookup(
+  private List<SuggestItem> suggest(
+      final DictionarySnapshot dictionary,
       String input, Verbosity verbosity, int maxEditDistance,
-      boolean includeUnknown ) throws NotInitializedException {
+      boolean includeUnknown, final LookupContext context,
+      final DeleteQueue expanded ) throws NotInitializedException {
     if( maxEditDistance > maxDictionaryEditDistance ) {
       throw new IllegalArgumentException(
           "maxEditDistance > maxDictionaryEditDistance" );
     }
 
-    if( lexiconWords.isEmpty() ) {
-      throw new NotInitializedException(
-          "There are no words in the dictionary. Please, call " +
-              "`loadDictionary` to add words." );
-    }
+    requireWords( dictionary );
 
+    final DeletesIndex deletes = dictionary.deletes();
     List<SuggestItem> suggestions = new ArrayList<>();
     int inputLen = input.length();
-    if( inputLen - maxEditDistance > maxDictionaryWordLength ) {
+    if( inputLen - maxEditDistance > dictionary.maxWordLength() ) {
       return Collections.emptyList();
     }
 
     long suggestionCount;
-    if( lexiconWords.containsKey( input ) ) {
-      suggestions.add( new SuggestItem( input, 0, lexiconWords.get( input ) ) );
+    final int inputId = dictionary.find( input );
+    if( inputId >= 0 ) {
+      suggestions.add(
+          new SuggestItem( input, 0, dictionary.count( inputId ) ) );
       if( !Verbosity.ALL.equals( verbosity ) ) {
         return suggestions;
       }
@@ -261,27 +1220,25 @@ public class SymSpell {
       return suggestions;
     }
 
-    Set<String> deletesAlreadyConsidered = new HashSet<>();
-    Set<String> suggestionsAlreadyConsidered = new HashSet<>();
-
-    suggestionsAlreadyConsidered.add( input );
-
     int maxEditDistance2 = maxEditDistance;
     int candidatePointer = 0;
-    final List<String> candidates = new ArrayList<>();
-
-    int inputPrefixLen = inputLen;
-    if( inputPrefixLen > prefixLength ) {
-      inputPrefixLen = prefixLength;
-      candidates.add( input.substring( 0, inputPrefixLen ) );
-    }
-    else {
-      candidates.add( input );
+    final int inputPrefixLen = Math.min( inputLen, prefixLength );
+    context.begin( input, dictionary.size() );
+    final DeleteQueue candidates = expanded == null
+        ? context.candidates( stringHasher )
+        : expanded;
+    final LookupMetrics metrics = context.metrics();
+
+    if( expanded == null ) {
+      candidates.add( input, inputPrefixLen );
     }
 
-    while( candidatePointer < candidates.size() ) {
-      String candidate = candidates.get( candidatePointer++ );
-      int candidateLength = candidate.length();
+    while( expanded == null
+        ? candidatePointer < candidates.size()
+        : expanded.expandTo( candidatePointer, maxEditDistance ) ) {
+      final int candidate = candidatePointer++;
+      metrics.candidates++;
+      int candidateLength = candidates.length( candidate );
       int lengthDiff = inputPrefixLen - candidateLength;
 
       if( lengthDiff > maxEditDistance2 ) {
@@ -293,124 +1250,166 @@ public class SymSpell {
         }
       }
 
-      String[] dictSuggestions = deletes.get( stringHasher.hash( candidate ) );
-      if( dictSuggestions != null ) {
-        for( String suggestion : dictSuggestions ) {
-          if( suggestion != null ) {
-            if( suggestion.equals( input ) ) {
-              continue;
-            }
+      final int bucket = candidates.bucket( candidate, deletes );
+      final int bucketEnd = bucket < 0 ? 0 : deletes.end( bucket );
+      // Ordered buckets may skip words too short to be suggested.
+      int b = bucket < 0 ? 0 : deletes.start(
+          bucket, Math.max( candidateLength, inputLen - maxEditDistance2 ) );
+      int node = dictionary.firstAdded( candidates.deleteHash( candidate ) );
+      int entries = bucket < 0 ? 0 : b - deletes.start( bucket );
+      metrics.orderSkips += entries;
+
+      // Words added since the deletes were built follow the bucket.
+      while( b < bucketEnd || node >= 0 ) {
+        final int suggestionId;
+        entries++;
+
+        if( b < bucketEnd ) {
+          suggestionId = deletes.wordId( b++ );
+
+          final int skipped = skipOrdered(
+              dictionary, deletes, b, bucketEnd, suggestionId, inputLen,
+              maxEditDistance2, verbosity, suggestions );
+
+          if( skipped > 0 ) {
+            metrics.orderSkips += skipped;
+            entries += skipped - 1;
+            b += skipped - 1;
+            continue;
+          }
+        }
+        else {
+          suggestionId = dictionary.addedWordId( node );
+          node = dictionary.nextAdded( node );
+        }
+
+        if( suggestionId == inputId || dictionary.isRemoved( suggestionId ) ) {
+          continue;
+        }
+
+        int suggestionLen = dictionary.length( suggestionId );
 
-            int suggestionLen = suggestion.length();
+        if( (Math.abs( suggestionLen - inputLen ) > maxEditDistance2)
+            || (suggestionLen < candidateLength)
+            || (suggestionLen == candidateLength && !candidates.matches(
+            candidate, dictionary, suggestionId )) ) {
+          metrics.lengthRejections++;
+          continue;
+        }
+        int suggestionPrefixLen = Math.min( suggestionLen, prefixLength );
+        if( suggestionPrefixLen > inputPrefixLen
+            && (suggestionPrefixLen - candidateLength) > maxEditDistance2 ) {
+          metrics.prefixRejections++;
+          continue;
+        }
 
-            if( (Math.abs( suggestionLen - inputLen ) > maxEditDistance2)
-                || (suggestionLen < candidateLength)
-                || (suggestionLen == candidateLength && !suggestion.equals(
-                candidate )) ) {
+        int distance;
+        int min = 0;
+        if( candidateLength == 0 ) {
+          distance = Math.max( inputLen, suggestionLen );
+          if( distance > maxEditDistance2 ) {
+            continue;
+          }
+          if( !context.consider( suggestionId ) ) {
+            metrics.duplicates++;
+            continue;
+          }
+        }
+        else if( suggestionLen == 1 ) {
+          if( input.indexOf( dictionary.charAt( suggestionId, 0 ) ) < 0 ) {
+            distance = inputLen;
+          }
+          else {
+            distance = inputLen - 1;
+          }
+          if( distance > maxEditDistance2 ) {
+            continue;
+          }
+          if( !context.consider( suggestionId ) ) {
+            metrics.duplicates++;
+            continue;
+          }
+        }
+        else {
+          if( (prefixLength - maxEditDistance == candidateLength)
+              && (((min = Math.min( inputLen,
+                                    suggestionLen ) - prefixLength) > 1)
+              && (!dictionary.regionMatches(
+              suggestionId, suggestionLen + 1 - min,
+              input, inputLen + 1 - min, min - 1 )))
+              || ((min > 0)
+              && (input.charAt( inputLen - min ) != dictionary.charAt(
+              suggestionId, suggestionLen - min ))
+              && ((input.charAt( inputLen - min - 1 )
+              != dictionary.charAt( suggestionId, suggestionLen - min ))
+              || (input.charAt( inputLen - min )
+              != dictionary.charAt(
+              suggestionId, suggestionLen - min - 1 )))) ) {
+            metrics.suffixRejections++;
+            continue;
+          }
+          else {
+            if( !verbosity.equals( Verbosity.ALL )
+                && !deleteSuggestionPrefix(
+                candidates, candidate, candidateLength, dictionary,
+                suggestionId, suggestionLen ) ) {
+              metrics.deleteOrderRejections++;
               continue;
             }
-            int suggestionPrefixLen = Math.min( suggestionLen, prefixLength );
-            if( suggestionPrefixLen > inputPrefixLen
-                && (suggestionPrefixLen - candidateLength) > maxEditDistance2 ) {
+            if( !context.consider( suggestionId ) ) {
+              metrics.duplicates++;
               continue;
             }
-
-            int distance;
-            int min = 0;
-            if( candidateLength == 0 ) {
-              distance = Math.max( inputLen, suggestionLen );
-              if( distance <= maxEditDistance2 ) {
-                suggestionsAlreadyConsidered.add( suggestion );
-              }
-            }
-            else if( suggestionLen == 1 ) {
-              if( input.indexOf( suggestion.charAt( 0 ) ) < 0 ) {
-                distance = inputLen;
-              }
-              else {
-                distance = inputLen - 1;
-              }
-              if( distance <= maxEditDistance2 ) {
-                suggestionsAlreadyConsidered.add( suggestion );
-              }
+            metrics.distanceCalls++;
+            distance = context.distance(
+                dictionary, suggestionId, maxEditDistance2 );
+            if( distance < 0 ) {
+              metrics.distanceExits++;
+              continue;
             }
-            else {
-              if( (prefixLength - maxEditDistance == candidateLength)
-                  && (((min = Math.min( inputLen,
-                                        suggestionLen ) - prefixLength) > 1)
-                  && (!input
-                  .substring( inputLen + 1 - min )
-                  .equals( suggestion.substring( suggestionLen + 1 - min ) )))
-                  || ((min > 0)
-                  && (input.charAt( inputLen - min ) != suggestion.charAt(
-                  suggestionLen - min ))
-                  && ((input.charAt( inputLen - min - 1 )
-                  != suggestion.charAt( suggestionLen - min ))
-                  || (input.charAt( inputLen - min )
-                  != suggestion.charAt( suggestionLen - min - 1 )))) ) {
-                continue;
-              }
-              else {
-                if( (!verbosity.equals( Verbosity.ALL )
-                    && deleteSuggestionPrefix(
-                    candidate, candidateLength, suggestion, suggestionLen ))
-                    || !suggestionsAlreadyConsidered.add( suggestion ) ) {
-                  continue;
-                }
-                distance = damerauLevenshteinOSA.distance(
-                    input, suggestion, maxEditDistance2 );
-                if( distance < 0 ) {
-                  continue;
-                }
-              }
-
-              if( distance <= maxEditDistance2 ) {
-                suggestionCount = lexiconWords.get( suggestion );
-                SuggestItem suggestItem = new SuggestItem(
-                    suggestion, distance, suggestionCount );
-                if( !suggestions.isEmpty() ) {
-                  switch( verbosity ) {
-                    case CLOSEST:
-                      if( distance < maxEditDistance2 ) {
-                        suggestions.clear();
-                        break;
-                      }
-                      continue;
-                    case TOP:
-                      if( distance < maxEditDistance2
-                          || suggestionCount
-                          > suggestions.get( 0 )
-                                       .getFrequencyOfSuggestionInDict() ) {
-                        maxEditDistance2 = distance;
-                        suggestions.set( 0, suggestItem );
-                      }
-                      continue;
-                    case ALL:
-                      break;
-                  }
+          }
+        }
+
+        if( distance <= maxEditDistance2 ) {
+          suggestionCount = dictionary.count( suggestionId );
+          SuggestItem suggestItem = new SuggestItem(
+              dictionary.word( suggestionId ), distance, suggestionCount );
+          if( !suggestions.isEmpty() ) {
+            switch( verbosity ) {
+              case CLOSEST:
+                if( distance < maxEditDistance2 ) {
+                  suggestions.clear();
                 }
-                if( !verbosity.equals( ALL ) ) {
+                break;
+              case TOP:
+                if( distance < maxEditDistance2
+                    || suggestionCount
+                    > suggestions.get( 0 )
+                                 .getFrequencyOfSuggestionInDict() ) {
                   maxEditDistance2 = distance;
+                  suggestions.set( 0, suggestItem );
                 }
-                suggestions.add( suggestItem );
-              }
+                continue;
+              case ALL:
+                break;
             }
           }
+          if( !verbosity.equals( ALL ) ) {
+            maxEditDistance2 = distance;
+          }
+          suggestions.add( suggestItem );
         }
       }
 
+      metrics.probed( entries );
+
       // add edits
-      if( lengthDiff < maxEditDistance && candidateLength <= prefixLength ) {
+      if( expanded == null
+          && lengthDiff < maxEditDistance && candidateLength <= prefixLength ) {
         if( !verbosity.equals( ALL ) && lengthDiff >= maxEditDistance2 ) {
           continue;
         }
-        for( int i = 0; i < candidateLength; i++ ) {
-          StringBuilder editableString = new StringBuilder( candidate );
-          String delete = editableString.deleteCharAt( i ).toString();
-          if( deletesAlreadyConsidered.add( delete ) ) {
-            candidates.add( delete );
-          }
-        }
+        candidates.addDeletes( candidate );
       }
     }
     if( suggestions.size() > 1 ) {
@@ -424,45 +1423,94 @@ public class SymSpell {
     return suggestions;
   }
 
+  /**
+   * Finds the words of a bucket that cannot qualify, given that buckets
+   * list words by ascending length and, within a length, by descending
+   * count. Words longer than the input by more than the maximum distance
+   * are all at the end of the bucket. Under {@link Verbosity#TOP}, a word
+   * that is at least the best distance longer or shorter than the input
+   * could only win by counting more than the best suggestion, and so could
+   * none of the words of the same length after it unless counts have been
+   * raised since the bucket was ordered.
+   *
+   * @param next         The index of the word after the current one.
+   * @param bucketEnd    The index past the last word of the bucket.
+   * @param suggestionId The current word, which must be a base word.
+   * @return The number of words to skip, starting with the current one.
+   */
+  private static int skipOrdered(
+      final DictionarySnapshot dictionary, final DeletesIndex deletes,
+      final int next, final int bucketEnd, final int suggestionId,
+      final int inputLen, final int maxEditDistance,
+      final Verbosity verbosity, final List<SuggestItem> suggestions ) {
+    final int length = dictionary.length( suggestionId );
+
+    if( length - inputLen > maxEditDistance ) {
+      return bucketEnd - next + 1;
+    }
+
+    if( verbosity != Verbosity.TOP
+        || suggestions.isEmpty()
+        || !dictionary.isCountOrdered()
+        || Math.abs( length - inputLen ) < maxEditDistance
+        || dictionary.words().count( suggestionId )
+        > suggestions.get( 0 ).getFrequencyOfSuggestionInDict() ) {
+      return 0;
+    }
+
+    // Longer words beyond this length are too long.
+    if( length >= inputLen ) {
+      return bucketEnd - next + 1;
+    }
+
+    int end = next;
+
+    while( end < bucketEnd
+        && dictionary.length( deletes.wordId( end ) ) == length ) {
+      end++;
+    }
+
+    return end - next + 1;
+  }
+
   Map<Long, String[]> getDeletes() {
-    return deletes;
+    final DictionarySnapshot dictionary = compact( this.dictionary );
+    return dictionary.deletes().toMap( dictionary.words()::word );
   }
 
   public List<SuggestItem> lookupCompound( String input, int editDistanceMax )
       throws NotInitializedException {
+    return lookupCompound( input, editDistanceMax, null );
+  }
+
+  /**
+   * Corrects a line of space-separated terms, splitting and combining terms
+   * where that gives a likelier line. Every term, concatenation and half of
+   * a split point is looked up at most once per call.
+   *
+   * @param input           The line to correct.
+   * @param editDistanceMax The maximum edit distance of each term.
+   * @param executor        Evaluates the split points of terms of at least
+   *                        {@link #PARALLEL_SPLIT_LENGTH} characters in
+   *                        parallel, may be {@code null} to use the calling
+   *                        thread. The result is the same either way.
+   * @return The corrected line as a single suggestion.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public List<SuggestItem> lookupCompound(
+      final String input, final int editDistanceMax,
+      final ExecutorService executor ) throws NotInitializedException {
+    final DictionarySnapshot dictionary = this.dictionary;
+    final CompoundMemo memo = new CompoundMemo();
     List<String> termList = Arrays.asList( input.split( " " ) );
-    List<SuggestItem> suggestions;
     List<SuggestItem> suggestionParts = new ArrayList<>();
-    EditDistance editDistance = new DamerauLevenshteinOSA();
 
     boolean lastCombination = false;
 
     for( int i = 0; i < termList.size(); i++ ) {
-      suggestions = lookup(
-          termList.get( i ), Verbosity.TOP, editDistanceMax, false );
-
-      if( i > 0
-          && !lastCombination
-          && combineWords(
-          editDistanceMax, termList, suggestions, suggestionParts, i ) ) {
-        lastCombination = true;
-        continue;
-      }
-
-      lastCombination = false;
-
-      if( !suggestions.isEmpty()
-          && (suggestions.get( 0 ).getEditDistance() == 0 || termList.get( i )
-                                                                     .length() == 1) ) {
-        suggestionParts.add( suggestions.get( 0 ) );
-      }
-      else {
-        splitWords( editDistanceMax,
-                    termList,
-                    suggestions,
-                    suggestionParts,
-                    i );
-      }
+      lastCombination = compoundTerm(
+          dictionary, i > 0 ? termList.get( i - 1 ) : null, termList.get( i ),
+          lastCombination, editDistanceMax, suggestionParts, memo, executor );
     }
     double freq = N;
     StringBuilder stringBuilder = new StringBuilder();
@@ -473,121 +1521,263 @@ public class SymSpell {
 
     String term = stringBuilder.toString().stripTrailing();
     SuggestItem suggestion =
-        new SuggestItem( term, editDistance.distance(
+        new SuggestItem( term, lookupContexts.get().distance(
             input, term, Integer.MAX_VALUE ), freq );
     List<SuggestItem> suggestionsLine = new ArrayList<>();
     suggestionsLine.add( suggestion );
     return suggestionsLine;
   }
 
+  /**
+   * Segments and corrects text with the dictionary's edit distance, allowing
+   * words as long as the longest dictionary word.
+   *
+   * @see #wordSegmentation(CharSequence, int, int)
+   */
+  public Composition wordSegmentation( final CharSequence input )
+      throws NotInitializedException {
+    return wordSegmentation( input, maxDictionaryEditDistance,
+                             dictionary.maxWordLength() );
+  }
+
+  /**
+   * Splits text into words by inserting spaces where they are missing, and
+   * corrects the words, as the original SymSpell's {@code WordSegmentation}
+   * does. Existing spaces may be kept or removed.
+   * <p>
+   * Every part of the text up to {@code maxSegmentationWordLength} long is
+   * looked up once. The best composition of the text ending at each of the
+   * last {@code maxSegmentationWordLength} positions is kept in a circular
+   * buffer, so the work and memory grow linearly with the length of the
+   * text. Compositions are linked lists of parts, so extending one copies no
+   * strings, and word probabilities come from logarithms precomputed for the
+   * dictionary's counts.
+   * </p>
+   *
+   * @param input                     The text to segment.
+   * @param maxEditDistance           The maximum edit distance of each word.
+   * @param maxSegmentationWordLength The longest part to consider a word.
+   * @return The segmentation with the smallest total edit distance and,
+   * among those, the highest probability.
+   * @throws NotInitializedException The dictionary has no words.
+   */
+  public Composition wordSegmentation(
+      final CharSequence input, final int maxEditDistance,
+      final int maxSegmentationWordLength ) throws NotInitializedException {
+    final DictionarySnapshot dictionary = this.dictionary;
+    requireWords( dictionary );
+
+    final String text = input.toString();
+
+    if( text.isEmpty() || maxSegmentationWordLength < 1 ) {
+      return new Composition( text, text, 0, 0 );
+    }
+
+    final LookupContext context = lookupContexts.get();
+    final int arraySize = Math.min( maxSegmentationWordLength, text.length() );
+    final Composition.Part[] compositions = new Composition.Part[ arraySize ];
+    int circularIndex = -1;
+
+    // Outer loop (column): every position where a part may start.
+    for( int j = 0; j < text.length(); j++ ) {
+      // Inner loop (row): every length of a part starting there.
+      final int imax = Math.min( text.length() - j, maxSegmentationWordLength );
+
+      for( int i = 1; i <= imax; i++ ) {
+        String part = text.substring( j, j + i );
+        int separatorLength = 0;
+        int topEd = 0;
+        final double topProbabilityLog;
+        final String topResult;
+
+        if( Character.isWhitespace( part.charAt( 0 ) ) ) {
+          // Remove the space before computing the distance.
+          part = part.substring( 1 );
+        }
+        else {
+          // The space did not exist and has to be inserted.
+          separatorLength = 1;
+        }
+
+        // Spaces within the part are removed, each adding one to its edit
+        // distance.
+        topEd += part.length();
+        part = part.replace( " ", "" );
+        topEd -= part.length();
+
+        final List<SuggestItem> results = lookup(
+            dictionary, part, Verbosity.TOP, maxEditDistance, false,
+            context );
+
+        if( !results.isEmpty() ) {
+          final SuggestItem top = results.get( 0 );
+          topResult = top.getSuggestion();
+          topEd += top.getEditDistance();
+          // Words are assumed independent, so the probability of the
+          // composition is the product of theirs; summing logarithms instead
+          // keeps tiny products from underflowing.
+          topProbabilityLog = dictionary.log10Count(
+              dictionary.find( topResult ) ) - LOG10_N;
+        }
+        else {
+          // Unknown parts are estimated at P = 10 / (N * 10^length), so
+          // that a long unknown part does not beat splitting it.
+          topResult = part;
+          topEd += part.length();
+          topProbabilityLog = 1 - LOG10_N - part.length();
+        }
+
+        final int destinationIndex = (i + circularIndex) % arraySize;
+
+        if( j == 0 ) {
+          compositions[ destinationIndex ] = new Composition.Part(
+              null, part, topResult, false, topEd, topProbabilityLog );
+          continue;
+        }
+
+        final Composition.Part previous = compositions[ circularIndex ];
+        final Composition.Part current = compositions[ destinationIndex ];
+
+        // Replace on a higher probability at the same distance or one space
+        // more, or on a smaller distance.
+        if( i == maxSegmentationWordLength
+            || ((previous.distanceSum() + topEd == current.distanceSum()
+            || previous.distanceSum() + separatorLength + topEd
+            == current.distanceSum())
+            && current.probabilityLogSum()
+            < previous.probabilityLogSum() + topProbabilityLog)
+            || previous.distanceSum() + separatorLength + topEd
+            < current.distanceSum() ) {
+          // Punctuation and apostrophes stay with the previous word.
+          final boolean joined = topResult.length() == 1
+              ? isPunctuation( topResult.charAt( 0 ) )
+              : topResult.length() == 2 && topResult.charAt( 0 ) == '\u2019';
+
+          compositions[ destinationIndex ] = new Composition.Part(
+              previous, part, topResult, !joined,
+              previous.distanceSum() + (joined ? 0 : separatorLength) + topEd,
+              previous.probabilityLogSum() + topProbabilityLog );
+        }
+      }
+
+      if( ++circularIndex == arraySize ) {
+        circularIndex = 0;
+      }
+    }
+
+    return compositions[ circularIndex ].toComposition();
+  }
+
+  private static boolean isPunctuation( final char c ) {
+    switch( Character.getType( c ) ) {
+      case Character.CONNECTOR_PUNCTUATION:
+      case Character.DASH_PUNCTUATION:
+      case Character.START_PUNCTUATION:
+      case Character.END_PUNCTUATION:
+      case Character.INITIAL_QUOTE_PUNCTUATION:
+      case Character.FINAL_QUOTE_PUNCTUATION:
+      case Character.OTHER_PUNCTUATION:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Corrects the next term of a compound, appending its suggestion to the
+   * parts or, when it is better combined with the previous term, replacing
+   * the last part with the combination. Only the last part is read or
+   * replaced, so parts before it are final.
+   *
+   * @param previous        The term before this one, {@code null} for the
+   *                        first term.
+   * @param lastCombination Whether the previous term was combined with the
+   *                        one before it, which rules out combining again.
+   * @return Whether the term was combined with the previous term.
+   */
+  boolean compoundTerm(
+      final DictionarySnapshot dictionary,
+      final String previous,
+      final String term,
+      final boolean lastCombination,
+      final int editDistanceMax,
+      final List<SuggestItem> suggestionParts,
+      final CompoundMemo memo,
+      final ExecutorService executor ) throws NotInitializedException {
+    final List<SuggestItem> suggestions =
+        lookupTop( dictionary, term, editDistanceMax, memo );
+
+    if( previous != null
+        && !lastCombination
+        && combineWords( dictionary, editDistanceMax, previous, term,
+                         suggestions, suggestionParts, memo ) ) {
+      return true;
+    }
+
+    if( !suggestions.isEmpty()
+        && (suggestions.get( 0 ).getEditDistance() == 0
+        || term.length() == 1) ) {
+      suggestionParts.add( suggestions.get( 0 ) );
+    }
+    else {
+      splitWords( dictionary, editDistanceMax, term, suggestions,
+                  suggestionParts, memo, executor );
+    }
+
+    return false;
+  }
+
+  /**
+   * Finds the {@link Verbosity#TOP} suggestions for a term of a compound,
+   * reusing those already found by the same call.
+   */
+  private List<SuggestItem> lookupTop(
+      final DictionarySnapshot dictionary, final String term,
+      final int editDistanceMax, final CompoundMemo memo )
+      throws NotInitializedException {
+    final List<SuggestItem> recorded = memo.lookup( term );
+
+    return recorded != null ? recorded : memo.record( term, lookup(
+        dictionary, term, Verbosity.TOP, editDistanceMax, false,
+        lookupContexts.get() ) );
+  }
+
   private void splitWords(
+      DictionarySnapshot dictionary,
       int editDistanceMax,
-      List<String> termList,
+      String word,
       List<SuggestItem> suggestions,
       List<SuggestItem> suggestionParts,
-      int i ) throws NotInitializedException {
+      CompoundMemo memo,
+      ExecutorService executor ) throws NotInitializedException {
     SuggestItem suggestionSplitBest = null;
     if( !suggestions.isEmpty() ) {
       suggestionSplitBest = suggestions.get( 0 );
     }
 
-    String word = termList.get( i );
     if( word.length() > 1 ) {
-      for( int j = 1; j < word.length(); j++ ) {
-        String part1 = word.substring( 0, j );
-        String part2 = word.substring( j );
-        SuggestItem suggestionSplit;
-        List<SuggestItem> suggestions1 = lookup(
-            part1, Verbosity.TOP, editDistanceMax, false );
-        if( !suggestions1.isEmpty() ) {
-          List<SuggestItem> suggestions2 = lookup(
-              part2, Verbosity.TOP, editDistanceMax, false );
-          if( !suggestions2.isEmpty() ) {
-
-            String splitTerm =
-                suggestions1.get( 0 ).getSuggestion() + " " + suggestions2.get(
-                    0 ).getSuggestion();
-            int splitDistance = damerauLevenshteinOSA.distance(
-                word, splitTerm, editDistanceMax );
-
-            if( splitDistance < 0 ) {
-              splitDistance = editDistanceMax + 1;
-            }
-
-            if( suggestionSplitBest != null ) {
-              if( splitDistance > suggestionSplitBest.getEditDistance() ) {
-                continue;
-              }
-              if( splitDistance < suggestionSplitBest.getEditDistance() ) {
-                suggestionSplitBest = null;
-              }
-            }
-            double freq;
-            if( lexiconBigrams.containsKey( splitTerm ) ) {
-              freq = lexiconBigrams.get( splitTerm );
-
-              if( !suggestions.isEmpty() ) {
-                if( (suggestions1.get( 0 )
-                                 .getSuggestion() + suggestions2.get( 0 )
-                                                                .getSuggestion())
-                    .equals( word ) ) {
-                  freq = Math.max( freq,
-                                   suggestions.get( 0 )
-                                              .getFrequencyOfSuggestionInDict() + 2 );
-                }
-                else if( (suggestions1
-                    .get( 0 )
-                    .getSuggestion()
-                    .equals( suggestions.get( 0 ).getSuggestion() )
-                    || suggestions2
-                    .get( 0 )
-                    .getSuggestion()
-                    .equals( suggestions.get( 0 ).getSuggestion() )) ) {
-                  freq = Math.max( freq,
-                                   suggestions.get( 0 )
-                                              .getFrequencyOfSuggestionInDict() + 1 );
-                }
-
-              }
-              else if( (suggestions1.get( 0 )
-                                    .getSuggestion() + suggestions2.get( 0 )
-                                                                   .getSuggestion())
-                  .equals( word ) ) {
-                freq =
-                    Math.max(
-                        freq,
-                        Math.max(
-                            suggestions1.get( 0 )
-                                        .getFrequencyOfSuggestionInDict(),
-                            suggestions2.get( 0 )
-                                        .getFrequencyOfSuggestionInDict() ) );
-              }
-            }
-            else {
-              // The Naive Bayes probability of the word combination is the
-              // product of the two
-              // word probabilities: P(AB) = P(A) * P(B)
-              // use it to estimate the frequency count of the combination,
-              // which then is used
-              // to rank/select the best splitting variant
-              freq =
-                  Math.min(
-                      bigramCountMin,
-                      (long)
-                          ((suggestions1.get( 0 )
-                                        .getFrequencyOfSuggestionInDict()
-                              / (double) SymSpell.N)
-                              * suggestions2.get( 0 )
-                                            .getFrequencyOfSuggestionInDict()) );
-            }
-            suggestionSplit = new SuggestItem( splitTerm, splitDistance, freq );
+      final SuggestItem[] splits = evaluateSplits(
+          dictionary, editDistanceMax, word, suggestions, memo, executor );
 
-            if( suggestionSplitBest == null
-                || suggestionSplit.getFrequencyOfSuggestionInDict()
-                > suggestionSplitBest.getFrequencyOfSuggestionInDict() ) {
-              suggestionSplitBest = suggestionSplit;
-            }
+      for( final SuggestItem suggestionSplit : splits ) {
+        if( suggestionSplit == null ) {
+          continue;
+        }
+        if( suggestionSplitBest != null ) {
+          if( suggestionSplit.getEditDistance()
+              > suggestionSplitBest.getEditDistance() ) {
+            continue;
           }
+          if( suggestionSplit.getEditDistance()
+              < suggestionSplitBest.getEditDistance() ) {
+            suggestionSplitBest = null;
+          }
+        }
+
+        if( suggestionSplitBest == null
+            || suggestionSplit.getFrequencyOfSuggestionInDict()
+            > suggestionSplitBest.getFrequencyOfSuggestionInDict() ) {
+          suggestionSplitBest = suggestionSplit;
         }
       }
       if( suggestionSplitBest != null ) {
@@ -611,17 +1801,159 @@ public class SymSpell {
     }
   }
 
+  /**
+   * Evaluates every split point of a word, in parallel when an executor is
+   * given and the word is long enough to be worth it.
+   *
+   * @return The split at each point, the first being after one character,
+   * or {@code null} where either part has no suggestion.
+   */
+  private SuggestItem[] evaluateSplits(
+      final DictionarySnapshot dictionary,
+      final int editDistanceMax,
+      final String word,
+      final List<SuggestItem> suggestions,
+      final CompoundMemo memo,
+      final ExecutorService executor ) throws NotInitializedException {
+    final SuggestItem[] splits = new SuggestItem[ word.length() - 1 ];
+
+    if( executor == null || word.length() < PARALLEL_SPLIT_LENGTH ) {
+      for( int j = 1; j < word.length(); j++ ) {
+        splits[ j - 1 ] = evaluateSplit(
+            dictionary, editDistanceMax, word, suggestions, memo, j );
+      }
+
+      return splits;
+    }
+
+    // Interleaved, since split points near either end take longer.
+    final int tasks = Math.min( splits.length, parallelism( executor ) );
+
+    Tasks.run( executor, tasks, task -> {
+      for( int j = task + 1; j < word.length(); j += tasks ) {
+        try {
+          splits[ j - 1 ] = evaluateSplit(
+              dictionary, editDistanceMax, word, suggestions, memo, j );
+        } catch( final NotInitializedException e ) {
+          throw new IllegalStateException( e );
+        }
+      }
+    } );
+
+    return splits;
+  }
+
+  /**
+   * Suggests the word split before the character at {@code j}, estimating
+   * the split's frequency from the bigrams or from the frequencies of its
+   * parts.
+   *
+   * @return The split, or {@code null} when either part has no suggestion.
+   */
+  private SuggestItem evaluateSplit(
+      DictionarySnapshot dictionary,
+      int editDistanceMax,
+      String word,
+      List<SuggestItem> suggestions,
+      CompoundMemo memo,
+      int j ) throws NotInitializedException {
+    List<SuggestItem> suggestions1 = lookupTop(
+        dictionary, word.substring( 0, j ), editDistanceMax, memo );
+    if( !suggestions1.isEmpty() ) {
+      List<SuggestItem> suggestions2 = lookupTop(
+          dictionary, word.substring( j ), editDistanceMax, memo );
+      if( !suggestions2.isEmpty() ) {
+
+        String splitTerm =
+            suggestions1.get( 0 ).getSuggestion() + " " + suggestions2.get(
+                0 ).getSuggestion();
+        int splitDistance = lookupContexts.get().distance(
+            word, splitTerm, editDistanceMax );
+
+        if( splitDistance < 0 ) {
+          splitDistance = editDistanceMax + 1;
+        }
+
+        double freq;
+        final long bigramCount = dictionary.bigrams().count(
+            suggestions1.get( 0 ).getSuggestion(),
+            suggestions2.get( 0 ).getSuggestion() );
+        if( bigramCount != BigramTable.ABSENT ) {
+          freq = bigramCount;
+
+          if( !suggestions.isEmpty() ) {
+            if( (suggestions1.get( 0 )
+                             .getSuggestion() + suggestions2.get( 0 )
+                                                            .getSuggestion())
+                .equals( word ) ) {
+              freq = Math.max( freq,
+                               suggestions.get( 0 )
+                                          .getFrequencyOfSuggestionInDict() + 2 );
+            }
+            else if( (suggestions1
+                .get( 0 )
+                .getSuggestion()
+                .equals( suggestions.get( 0 ).getSuggestion() )
+                || suggestions2
+                .get( 0 )
+                .getSuggestion()
+                .equals( suggestions.get( 0 ).getSuggestion() )) ) {
+              freq = Math.max( freq,
+                               suggestions.get( 0 )
+                                          .getFrequencyOfSuggestionInDict() + 1 );
+            }
+
+          }
+          else if( (suggestions1.get( 0 )
+                                .getSuggestion() + suggestions2.get( 0 )
+                                                               .getSuggestion())
+              .equals( word ) ) {
+            freq =
+                Math.max(
+                    freq,
+                    Math.max(
+                        suggestions1.get( 0 )
+                                    .getFrequencyOfSuggestionInDict(),
+                        suggestions2.get( 0 )
+                                    .getFrequencyOfSuggestionInDict() ) );
+          }
+        }
+        else {
+          // The Naive Bayes probability of the word combination is the
+          // product of the two
+          // word probabilities: P(AB) = P(A) * P(B)
+          // use it to estimate the frequency count of the combination,
+          // which then is used
+          // to rank/select the best splitting variant
+          freq =
+              Math.min(
+                  dictionary.bigramCountMin(),
+                  (long)
+                      ((suggestions1.get( 0 )
+                                    .getFrequencyOfSuggestionInDict()
+                          / (double) SymSpell.N)
+                          * suggestions2.get( 0 )
+                                        .getFrequencyOfSuggestionInDict()) );
+        }
+        return new SuggestItem( splitTerm, splitDistance, freq );
+      }
+    }
+    return null;
+  }
+
   private boolean combineWords(
+      DictionarySnapshot dictionary,
       int editDistanceMax,
-      List<String> termList,
+      String previous,
+      String term,
       List<SuggestItem> suggestions,
       List<SuggestItem> suggestionParts,
-      int i ) throws NotInitializedException {
-    List<SuggestItem> suggestionsCombination = lookup(
-        termList.get( i - 1 ) + termList.get( i ),
-        Verbosity.TOP,
+      CompoundMemo memo ) throws NotInitializedException {
+    List<SuggestItem> suggestionsCombination = lookupTop(
+        dictionary,
+        previous + term,
         editDistanceMax,
-        false );
+        memo );
     if( !suggestionsCombination.isEmpty() ) {
       SuggestItem best1 = suggestionParts.get( suggestionParts.size() - 1 );
       SuggestItem best2;
@@ -629,7 +1961,6 @@ public class SymSpell {
         best2 = suggestions.get( 0 );
       }
       else {
-        String term = termList.get( i );
         long estimatedWordOccurrenceProbability =
             (long) ((double) 10 / Math.pow( 10,
                                             term.length() )); // P=10 / (N *
@@ -649,14 +1980,12 @@ public class SymSpell {
           > best1.getFrequencyOfSuggestionInDict()
           / N
           * best2.getFrequencyOfSuggestionInDict()) ) {
-        suggestionsCombination.set(
-            0,
+        suggestionParts.set(
+            suggestionParts.size() - 1,
             new SuggestItem(
                 firstSuggestion.getSuggestion(),
                 firstSuggestion.getEditDistance(),
                 firstSuggestion.getFrequencyOfSuggestionInDict() ) );
-        suggestionParts.set( suggestionParts.size() - 1,
-                             suggestionsCombination.get( 0 ) );
         return true;
       }
     }
@@ -664,6 +1993,13 @@ public class SymSpell {
   }
 
   Map<String, Long> getWords() {
-    return lexiconWords;
+    return compact( dictionary ).words().toMap();
+  }
+
+  /**
+   * Returns the dictionary that lookups read at the moment of the call.
+   */
+  DictionarySnapshot getDictionary() {
+    return dictionary;
   }
 }
@@ -3,9 +3,14 @@ package io.gitlab.rxp90.jsymspell;
 import io.gitlab.rxp90.jsymspell.api.DefaultStringHasher;
 import io.gitlab.rxp90.jsymspell.api.StringHasher;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 public class SymSpellBuilder {
@@ -15,8 +20,15 @@ public class SymSpellBuilder {
   private int countThreshold = 1;
   private StringHasher stringHasher = new DefaultStringHasher();
   private final Map<Long, String[]> deletes = new HashMap<>();
-  private final Collection<String> lexiconWords = new HashSet<>();
-  private final Collection<String> lexiconBigrams = new HashSet<>();
+  private final Collection<String> lexiconWords = new ArrayList<>();
+  private final List<LexiconReader.Source> lexiconSources = new ArrayList<>();
+  private final Collection<String> lexiconBigrams = new ArrayList<>();
+  private final List<LexiconReader.Source> bigramSources = new ArrayList<>();
+  private Path indexFile;
+  private int parallelism = 1;
+  private int lookupCacheSize;
+  private double deleteFilterRate;
+  private SymSpellListener listener;
 
   public SymSpellBuilder setDeletesMap( final Map<Long, String[]> map ) {
     assert map != null;
@@ -24,16 +36,117 @@ public class SymSpellBuilder {
     return this;
   }
 
+  /**
+   * Adds lexicon lines, each a word and its count separated by
+   * {@link SymSpell#LEXICON_DELIMITER}. The counts of lines for the same
+   * word are summed, including those of identical lines. Blank lines are
+   * skipped, and the build fails with a {@code LexiconFormatException} at a
+   * line without a count, as it does for a lexicon file.
+   *
+   * @param lexicon The lines to add.
+   * @return this
+   */
   public SymSpellBuilder setLexiconWords( final Collection<String> lexicon ) {
     this.lexiconWords.addAll( lexicon );
     return this;
   }
 
+  /**
+   * Adds the lines of a UTF-8 lexicon file, which may be gzip-compressed.
+   * The file is read when {@link #build()} is called, parsed straight from
+   * its bytes into the dictionary without holding its lines in memory.
+   * Counts are summed with those of every other lexicon added. The build
+   * fails with an {@link UncheckedIOException} when the file cannot be read
+   * and with a {@code LexiconFormatException} at a line without a count.
+   *
+   * @param lexicon The file of lines, each a word and count separated by a
+   *                tab.
+   * @return this
+   */
+  public SymSpellBuilder setLexiconWords( final Path lexicon ) {
+    this.lexiconSources.add( LexiconReader.of( lexicon ) );
+    return this;
+  }
+
+  /**
+   * Adds the lines of a UTF-8 lexicon stream, which may be
+   * gzip-compressed, like {@link #setLexiconWords(Path)}. The stream is
+   * read to its end when {@link #build()} is called, and is not closed.
+   *
+   * @param lexicon The stream of lines, each a word and count separated by
+   *                a tab.
+   * @return this
+   */
+  public SymSpellBuilder setLexiconWords( final InputStream lexicon ) {
+    this.lexiconSources.add( LexiconReader.of( lexicon ) );
+    return this;
+  }
+
+  /**
+   * Adds bigram lines, each two words separated by a space, then
+   * {@link SymSpell#LEXICON_DELIMITER} and their count. The counts of lines
+   * for the same pair of words are summed. Lines are checked like those of
+   * {@link #setLexiconWords(Collection)}.
+   *
+   * @param lexicon The lines to add.
+   * @return this
+   */
   public SymSpellBuilder setLexiconBigrams( final Collection<String> lexicon ) {
     this.lexiconBigrams.addAll( lexicon );
     return this;
   }
 
+  /**
+   * Adds the lines of a UTF-8 bigram file, which may be gzip-compressed,
+   * reading it like {@link #setLexiconWords(Path)} does.
+   *
+   * @param lexicon The file of lines, each two words separated by a space,
+   *                then a tab and their count.
+   * @return this
+   */
+  public SymSpellBuilder setLexiconBigrams( final Path lexicon ) {
+    this.bigramSources.add( LexiconReader.of( lexicon ) );
+    return this;
+  }
+
+  /**
+   * Adds the lines of a UTF-8 bigram stream, which may be gzip-compressed,
+   * reading it like {@link #setLexiconWords(InputStream)} does.
+   *
+   * @param lexicon The stream of lines, each two words separated by a
+   *                space, then a tab and their count.
+   * @return this
+   */
+  public SymSpellBuilder setLexiconBigrams( final InputStream lexicon ) {
+    this.bigramSources.add( LexiconReader.of( lexicon ) );
+    return this;
+  }
+
+  /**
+   * Loads a spell checker from a file written by
+   * {@link SymSpell#writeIndex(Path)} instead of building one. The file
+   * supplies the lexicon, deletes, bigrams and settings; only the string
+   * hasher, which must match the one used to build the file, is taken from
+   * this builder.
+   *
+   * @param indexFile The index file to map.
+   * @return this
+   */
+  public SymSpellBuilder setIndexFile( final Path indexFile ) {
+    this.indexFile = indexFile;
+    return this;
+  }
+
+  /**
+   * Sets the hasher that addresses the buckets of the deletes index. The
+   * default widens {@link String#hashCode()}, so a few unrelated deletes
+   * share a bucket; a 64-bit hasher such as
+   * {@link io.gitlab.rxp90.jsymspell.api.WyStringHasher} keeps them apart.
+   *
+   * @param stringHasher The hasher, which must also be used to map any
+   *                     index file written with it.
+   * @return this
+   */
   public SymSpellBuilder setStringHasher( final StringHasher stringHasher ) {
     this.stringHasher = stringHasher;
     return this;
@@ -55,7 +168,93 @@ public class SymSpellBuilder {
     return this;
   }
 
+  /**
+   * Sets the number of threads used to count the lexicon, generate its
+   * deletes and commit them to the index. The result is the same for any
+   * number of threads. When greater than one, the string hasher must be
+   * safe to call from several threads at once.
+   *
+   * @param parallelism The number of build threads, at least one.
+   * @return this
+   */
+  public SymSpellBuilder setParallelism( final int parallelism ) {
+    if( parallelism < 1 ) {
+      throw new IllegalArgumentException( "parallelism < 1" );
+    }
+
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Caches the results of up to the given number of distinct lookups, keyed
+   * on the input, verbosity and maximum edit distance. Inputs requested
+   * repeatedly are kept in preference to those requested once. Caching is
+   * disabled by default.
+   *
+   * @param lookupCacheSize The maximum number of results, zero to disable.
+   * @return this
+   * @see SymSpell#getLookupCacheStats()
+   */
+  public SymSpellBuilder setLookupCacheSize( final int lookupCacheSize ) {
+    if( lookupCacheSize < 0 ) {
+      throw new IllegalArgumentException( "lookupCacheSize < 0" );
+    }
+
+    this.lookupCacheSize = lookupCacheSize;
+    return this;
+  }
+
+  /**
+   * Puts a blocked Bloom filter of the delete hashes in front of the deletes
+   * index, so that most candidate deletes of a lookup that no lexicon word
+   * produces are rejected by reading one cache line instead of probing the
+   * index. Lower rates reject more at the cost of more memory: about 11 bits
+   * per delete at one percent. The filter is built whenever the deletes are
+   * committed, and is disabled by default. An index file keeps the filter
+   * it was written with, which is mapped when the rates match and rebuilt
+   * otherwise.
+   *
+   * @param falsePositiveRate The chance of an absent delete passing the
+   *                          filter, below one, or zero to disable it.
+   * @return this
+   * @see SymSpell#getDeleteFilterBytes()
+   */
+  public SymSpellBuilder setDeleteFilterFalsePositiveRate(
+      final double falsePositiveRate ) {
+    if( !(falsePositiveRate >= 0 && falsePositiveRate < 1) ) {
+      throw new IllegalArgumentException(
+          "falsePositiveRate not in [0, 1)" );
+    }
+
+    this.deleteFilterRate = falsePositiveRate;
+    return this;
+  }
+
+  /**
+   * Reports the work done by every lookup and the time taken by each phase
+   * of the build to a listener. Lookups are not observed by default.
+   *
+   * @param listener The thread-safe listener, {@code null} for none.
+   * @return this
+   * @see JfrListener
+   */
+  public SymSpellBuilder setListener( final SymSpellListener listener ) {
+    this.listener = listener;
+    return this;
+  }
+
   public SymSpell build() {
+    if( indexFile != null ) {
+      try {
+        return SymSpell.mapIndex(
+            indexFile, stringHasher, lookupCacheSize, deleteFilterRate,
+            listener );
+      } catch( final IOException e ) {
+        throw new UncheckedIOException( e );
+      }
+    }
+
     return new SymSpell(
         maxDictionaryEditDistance,
         prefixLength,
@@ -63,6 +262,12 @@ public class SymSpellBuilder {
         stringHasher,
         deletes,
         lexiconWords,
-        lexiconBigrams );
+        lexiconSources,
+        lexiconBigrams,
+        bigramSources,
+        parallelism,
+        lookupCacheSize,
+        deleteFilterRate,
+        listener );
   }
 }
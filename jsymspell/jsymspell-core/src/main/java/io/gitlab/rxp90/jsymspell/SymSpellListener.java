@@ -0,0 +1,59 @@
+package io.gitlab.rxp90.jsymspell;
+
+/**
+ * Observes the work done by a {@link SymSpell} to explain where lookups and
+ * builds spend their time. Set one with
+ * {@link SymSpellBuilder#setListener(SymSpellListener)}; without one, lookups
+ * neither read the clock nor call out.
+ * <p>
+ * Lookups call the listener on the looking-up thread, concurrently when
+ * lookups are concurrent, so implementations must be thread-safe and should
+ * return quickly. {@link JfrListener} records the reports as Flight
+ * Recorder events.
+ * </p>
+ */
+public interface SymSpellListener {
+
+  /**
+   * The parts of building a dictionary that are timed separately.
+   */
+  enum BuildPhase {
+    /**
+     * Reading and counting the words and bigrams of the lexicon.
+     */
+    PARSE,
+    /**
+     * Enumerating the deletes of every word into stages, including the
+     * prebuilt deletes given to the builder.
+     */
+    GENERATE_DELETES,
+    /**
+     * Merging the stages into the deletes index.
+     */
+    COMMIT,
+    /**
+     * Mapping an index file instead of all of the above.
+     */
+    MAP_INDEX
+  }
+
+  /**
+   * Reports a lookup, including each lookup made by
+   * {@link SymSpell#lookupAll(java.util.List, SymSpell.Verbosity)},
+   * {@link SymSpell#lookupCompound(String, int)} and
+   * {@link SymSpell#wordSegmentation(CharSequence)}.
+   *
+   * @param metrics The work done, valid only until this method returns.
+   */
+  default void lookupCompleted( final LookupMetrics metrics ) {
+  }
+
+  /**
+   * Reports the end of a build phase.
+   *
+   * @param phase The phase that ended.
+   * @param nanos The wall time of the phase in nanoseconds.
+   */
+  default void buildPhaseCompleted( final BuildPhase phase, final long nanos ) {
+  }
+}
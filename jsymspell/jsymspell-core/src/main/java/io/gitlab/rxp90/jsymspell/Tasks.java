@@ -0,0 +1,72 @@
+package io.gitlab.rxp90.jsymspell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a fixed number of numbered tasks and waits for all of them.
+ */
+final class Tasks {
+
+  private Tasks() {
+  }
+
+  /**
+   * Runs tasks {@code 0} to {@code count - 1}, in parallel on the executor
+   * when one is given, otherwise one after another on the calling thread.
+   *
+   * @param executor Runs the tasks, may be {@code null}.
+   * @param count    The number of tasks.
+   * @param task     Receives the number of the task to run.
+   */
+  static void run(
+      final ExecutorService executor, final int count, final IntConsumer task ) {
+    if( executor == null || count <= 1 ) {
+      for( int i = 0; i < count; i++ ) {
+        task.accept( i );
+      }
+      return;
+    }
+
+    final List<Future<?>> futures = new ArrayList<>( count );
+
+    for( int i = 0; i < count; i++ ) {
+      final int number = i;
+      futures.add( executor.submit( () -> task.accept( number ) ) );
+    }
+
+    try {
+      for( final Future<?> future : futures ) {
+        future.get();
+      }
+    } catch( final InterruptedException e ) {
+      futures.forEach( future -> future.cancel( true ) );
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException( e );
+    } catch( final ExecutionException e ) {
+      futures.forEach( future -> future.cancel( true ) );
+      final Throwable cause = e.getCause();
+
+      if( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      }
+      if( cause instanceof Error ) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException( cause );
+    }
+  }
+
+  /**
+   * Returns the first index of the given task's share of {@code n} items
+   * split evenly across {@code count} tasks; the share ends where the next
+   * task's begins.
+   */
+  static int start( final int task, final int count, final int n ) {
+    return (int) ((long) n * task / count);
+  }
+}
@@ -0,0 +1,427 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interned lexicon words, each identified by a dense int id assigned in
+ * order of addition. The characters of all words share one byte pool,
+ * addressed through an offset per id, and the counts are kept in a parallel
+ * {@code long[]}. An open-addressed table of ids maps words back to ids;
+ * each slot also holds the hash of its word, so that probing compares
+ * characters only with words of the same hash.
+ * <p>
+ * A word whose characters are all Latin-1 takes one byte per character,
+ * which is most words of most lexicons; any other word is stored as UTF-16
+ * and marked as wide in the lowest bit of its offset. Latin-1 words of a
+ * table on the heap can be read in place through {@link #latin1Array(int)}.
+ * </p>
+ * <p>
+ * A table read from an {@link IndexFile} is backed by the mapped file and
+ * cannot be modified.
+ * </p>
+ */
+final class WordTable {
+
+  /**
+   * Marks the offset of a word stored as UTF-16.
+   */
+  private static final int WIDE = 1;
+
+  private ByteBuffer pool;
+  private int poolSize;
+
+  /**
+   * The byte offset of each word shifted left by one, with {@link #WIDE}
+   * set for a wide word, followed by the end of the pool.
+   */
+  private IntBuffer offsets;
+  private LongBuffer counts;
+  private int size;
+
+  /**
+   * Open-addressed table of word ids plus one in the low half of each slot
+   * and the hash of the word in the high half; zero marks an empty slot.
+   */
+  private LongBuffer slots;
+
+  /**
+   * The base-10 logarithm of each count, computed on first use.
+   */
+  private volatile double[] log10Counts;
+
+  WordTable( final int initialCapacity ) {
+    final int capacity = Math.max( initialCapacity, 16 );
+
+    this.pool = wrap( new byte[ capacity * 8 ] );
+    this.offsets = IntBuffer.wrap( new int[ capacity + 1 ] );
+    this.counts = LongBuffer.wrap( new long[ capacity ] );
+    this.slots = LongBuffer.wrap(
+        new long[ DeletesIndex.tableSizeFor( capacity ) ] );
+  }
+
+  private WordTable(
+      final ByteBuffer pool,
+      final IntBuffer offsets,
+      final LongBuffer counts,
+      final LongBuffer slots,
+      final int size ) {
+    this.pool = pool;
+    this.poolSize = offsets.get( size ) >>> 1;
+    this.offsets = offsets;
+    this.counts = counts;
+    this.slots = slots;
+    this.size = size;
+  }
+
+  /**
+   * Maps a table previously written by {@link #writeTo(IndexFile.Writer)}.
+   */
+  static WordTable readFrom( final IndexFile.Reader reader )
+      throws IOException {
+    final int size = reader.readLength();
+    final int poolSize = reader.readLength();
+    final int slotCount = reader.readCapacity();
+
+    if( size >= slotCount ) {
+      throw new IndexFormatException(
+          "Index file has " + size + " words in " + slotCount + " slots" );
+    }
+
+    return new WordTable( reader.mapBytes( poolSize ),
+                          reader.mapInts( size + 1 ),
+                          reader.mapLongs( size ),
+                          reader.mapLongs( slotCount ),
+                          size );
+  }
+
+  void writeTo( final IndexFile.Writer writer ) throws IOException {
+    writer.writeInt( size );
+    writer.writeInt( poolSize );
+    writer.writeInt( slots.capacity() );
+    writer.writeBytes( pool, poolSize );
+    writer.writeInts( offsets, size + 1 );
+    writer.writeLongs( counts, size );
+    writer.writeLongs( slots, slots.capacity() );
+  }
+
+  /**
+   * Returns the number of words in the table.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the id of the given word.
+   *
+   * @param word The word to find.
+   * @return The word's id, or -1 if the word is not in the table.
+   */
+  int find( final CharSequence word ) {
+    final int hash = hash( word );
+    final int mask = slots.capacity() - 1;
+    int slot = spread( hash ) & mask;
+    long entry;
+
+    while( (entry = slots.get( slot )) != 0 ) {
+      final int wordId = (int) entry - 1;
+
+      if( (int) (entry >>> 32) == hash && equals( wordId, word ) ) {
+        return wordId;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Appends a word that is not yet in the table.
+   *
+   * @param word  The word to intern.
+   * @param count The word's frequency.
+   * @return The id assigned to the word.
+   */
+  int add( final CharSequence word, final long count ) {
+    assert find( word ) < 0;
+
+    final int length = word.length();
+    boolean latin1 = true;
+
+    for( int i = 0; i < length && latin1; i++ ) {
+      latin1 = word.charAt( i ) <= 0xFF;
+    }
+
+    final int bytes = latin1 ? length : length * 2;
+
+    if( size == counts.capacity() ) {
+      offsets = IntBuffer.wrap(
+          Arrays.copyOf( offsets.array(), size * 2 + 1 ) );
+      counts = LongBuffer.wrap( Arrays.copyOf( counts.array(), size * 2 ) );
+    }
+
+    if( poolSize + bytes > pool.capacity() ) {
+      pool = wrap( Arrays.copyOf(
+          pool.array(), Math.max( pool.capacity() * 2, poolSize + bytes ) ) );
+    }
+
+    for( int i = 0; i < length; i++ ) {
+      if( latin1 ) {
+        pool.put( poolSize + i, (byte) word.charAt( i ) );
+      }
+      else {
+        pool.putChar( poolSize + i * 2, word.charAt( i ) );
+      }
+    }
+
+    final int wordId = size++;
+    poolSize += bytes;
+    offsets.put( wordId, offsets.get( wordId ) | (latin1 ? 0 : WIDE) );
+    offsets.put( size, poolSize << 1 );
+    counts.put( wordId, count );
+
+    if( size * 2 > slots.capacity() ) {
+      rehash( slots.capacity() * 2 );
+    }
+
+    insert( slots, wordId, hash( word ) );
+
+    return wordId;
+  }
+
+  long count( final int wordId ) {
+    return counts.get( wordId );
+  }
+
+  void setCount( final int wordId, final long count ) {
+    counts.put( wordId, count );
+    log10Counts = null;
+  }
+
+  /**
+   * Returns the base-10 logarithm of a word's count. The logarithms of all
+   * counts are computed together the first time one is asked for; threads
+   * racing to do so compute equal tables, and any of them may be kept.
+   */
+  double log10Count( final int wordId ) {
+    double[] table = log10Counts;
+
+    if( table == null || table.length < size ) {
+      table = new double[ size ];
+
+      for( int i = 0; i < size; i++ ) {
+        table[ i ] = Math.log10( counts.get( i ) );
+      }
+
+      log10Counts = table;
+    }
+
+    return table[ wordId ];
+  }
+
+  int length( final int wordId ) {
+    final int offset = offsets.get( wordId );
+    final int bytes = (offsets.get( wordId + 1 ) >>> 1) - (offset >>> 1);
+    return (offset & WIDE) == 0 ? bytes : bytes >> 1;
+  }
+
+  char charAt( final int wordId, final int index ) {
+    final int offset = offsets.get( wordId );
+    return charAt( offset >>> 1, offset & WIDE, index );
+  }
+
+  /**
+   * Returns the array holding the Latin-1 bytes of a word, or {@code null}
+   * when the word is wide or the table is mapped from a file.
+   *
+   * @see #arrayOffset(int)
+   */
+  byte[] latin1Array( final int wordId ) {
+    return pool.hasArray() && (offsets.get( wordId ) & WIDE) == 0
+        ? pool.array()
+        : null;
+  }
+
+  /**
+   * Returns the position of a word's first byte in {@link #latin1Array(int)}.
+   */
+  int arrayOffset( final int wordId ) {
+    return pool.arrayOffset() + (offsets.get( wordId ) >>> 1);
+  }
+
+  /**
+   * Copies the characters of a word to the start of {@code target}, which
+   * must be at least {@link #length(int)} long.
+   *
+   * @return The number of characters copied.
+   */
+  int getChars( final int wordId, final char[] target ) {
+    final int offset = offsets.get( wordId );
+    final int start = offset >>> 1;
+    final int wide = offset & WIDE;
+    final int length = length( wordId );
+
+    for( int i = 0; i < length; i++ ) {
+      target[ i ] = charAt( start, wide, i );
+    }
+
+    return length;
+  }
+
+  /**
+   * Creates a new string holding the characters of the given word.
+   */
+  String word( final int wordId ) {
+    final byte[] latin1 = latin1Array( wordId );
+
+    if( latin1 != null ) {
+      return new String( latin1, arrayOffset( wordId ), length( wordId ),
+                         StandardCharsets.ISO_8859_1 );
+    }
+
+    final char[] chars = new char[ length( wordId ) ];
+    getChars( wordId, chars );
+    return new String( chars );
+  }
+
+  /**
+   * Answers whether the word with the given id has the same characters as
+   * the given sequence.
+   */
+  boolean equals( final int wordId, final CharSequence s ) {
+    final int length = s.length();
+
+    if( length( wordId ) != length ) {
+      return false;
+    }
+
+    final byte[] latin1 = latin1Array( wordId );
+
+    if( latin1 == null ) {
+      return regionMatches( wordId, 0, s, 0, length );
+    }
+
+    final int start = arrayOffset( wordId );
+
+    for( int i = 0; i < length; i++ ) {
+      if( (char) (latin1[ start + i ] & 0xFF) != s.charAt( i ) ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Answers whether {@code length} characters of the word with the given id,
+   * starting at {@code offset}, equal those of {@code s} starting at
+   * {@code sOffset}.
+   */
+  boolean regionMatches(
+      final int wordId,
+      final int offset,
+      final CharSequence s,
+      final int sOffset,
+      final int length ) {
+    final int wordOffset = offsets.get( wordId );
+    final int start = wordOffset >>> 1;
+    final int wide = wordOffset & WIDE;
+
+    for( int i = 0; i < length; i++ ) {
+      if( charAt( start, wide, offset + i ) != s.charAt( sOffset + i ) ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Copies the table into a map of words to counts.
+   */
+  Map<String, Long> toMap() {
+    final Map<String, Long> map = new HashMap<>( size * 2 );
+
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      map.put( word( wordId ), counts.get( wordId ) );
+    }
+
+    return map;
+  }
+
+  private void rehash( final int capacity ) {
+    final LongBuffer newSlots = LongBuffer.wrap( new long[ capacity ] );
+
+    for( int slot = 0; slot < slots.capacity(); slot++ ) {
+      final long entry = slots.get( slot );
+
+      if( entry != 0 ) {
+        insert( newSlots, (int) entry - 1, (int) (entry >>> 32) );
+      }
+    }
+
+    slots = newSlots;
+  }
+
+  private static void insert(
+      final LongBuffer slots, final int wordId, final int hash ) {
+    final int mask = slots.capacity() - 1;
+    int slot = spread( hash ) & mask;
+
+    while( slots.get( slot ) != 0 ) {
+      slot = (slot + 1) & mask;
+    }
+
+    slots.put( slot, (long) hash << 32 | (wordId + 1) );
+  }
+
+  /**
+   * Reads a character of the word starting at the given byte of the pool.
+   */
+  private char charAt( final int start, final int wide, final int index ) {
+    return wide == 0
+        ? (char) (pool.get( start + index ) & 0xFF)
+        : pool.getChar( start + index * 2 );
+  }
+
+  /**
+   * Wraps a pool array in the byte order of {@link IndexFile}, so that wide
+   * words read the same once written to a file and mapped.
+   */
+  private static ByteBuffer wrap( final byte[] pool ) {
+    return ByteBuffer.wrap( pool ).order( ByteOrder.LITTLE_ENDIAN );
+  }
+
+  /**
+   * Computes the same hash as {@link String#hashCode()}, which strings
+   * cache, for any character sequence.
+   */
+  static int hash( final CharSequence s ) {
+    if( s instanceof String ) {
+      return s.hashCode();
+    }
+
+    int h = 0;
+
+    for( int i = 0, length = s.length(); i < length; i++ ) {
+      h = 31 * h + s.charAt( i );
+    }
+
+    return h;
+  }
+
+  static int spread( final int hash ) {
+    final int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
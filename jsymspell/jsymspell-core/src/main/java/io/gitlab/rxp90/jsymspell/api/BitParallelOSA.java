@@ -0,0 +1,341 @@
+package io.gitlab.rxp90.jsymspell.api;
+
+import java.util.Arrays;
+
+/**
+ * Optimal string alignment distance computed with the bit-vector algorithm of Hyyro (2003),
+ * which advances a whole column of the distance matrix with a few word operations per character
+ * of the second string. Strings of up to 64 characters fit one {@code long}; longer ones are
+ * processed in blocks of 64.
+ *
+ * <p>Results are identical to those of {@link DamerauLevenshteinOSA}, including the cases in
+ * which it answers without honouring {@code maxDistance}.
+ */
+public class BitParallelOSA implements EditDistance {
+
+  @Override
+  public int distance(String baseString, String string2, int maxDistance) {
+    if (baseString == null) return string2 == null ? 0 : string2.length();
+    if (string2 == null || string2.isEmpty()) return baseString.length();
+    if (maxDistance == 0) return baseString.equals(string2) ? 0 : -1;
+    return new Pattern().distance(baseString, string2, maxDistance);
+  }
+
+  /**
+   * The match masks of one string, built once and reused to compare it with any number of
+   * others. A pattern is mutable and must not be shared between threads.
+   */
+  public static final class Pattern {
+
+    /** Characters below this have their masks in a directly indexed table. */
+    private static final int DIRECT = 256;
+
+    private char[] chars = new char[0];
+    private int length;
+    private int blocks = 1;
+
+    /** Masks of the characters below {@link #DIRECT}, {@link #blocks} per character. */
+    private long[] directMasks = new long[DIRECT];
+
+    /** Open-addressed table of the other characters, zero marking a free slot. */
+    private char[] keys = new char[0];
+
+    private long[] keyMasks = new long[0];
+    private boolean hasKeys;
+
+    /** Per-block state of the last column, used for patterns longer than 64. */
+    private long[] vp = new long[0];
+
+    private long[] vn = new long[0];
+    private long[] d0 = new long[0];
+    private long[] pmPrev = new long[0];
+
+    /**
+     * Characters of a Latin-1 string compared with a pattern longer than 64, or of a second
+     * {@code String}.
+     */
+    private char[] decoded = new char[0];
+
+    /**
+     * Makes the leading characters of an array the pattern, replacing the previous one.
+     *
+     * @param source Characters of the pattern, copied.
+     * @param length Number of characters of the pattern.
+     */
+    public void set(char[] source, int length) {
+      clear();
+      if (chars.length < length) chars = new char[length * 2];
+      System.arraycopy(source, 0, chars, 0, length);
+      setMasks(length);
+    }
+
+    /**
+     * Computes the same distance as {@link BitParallelOSA#distance(String, String, int)},
+     * copying both strings into this pattern's buffers rather than new ones. The first string
+     * replaces the pattern.
+     */
+    public int distance(String baseString, String string2, int maxDistance) {
+      if (baseString == null) return string2 == null ? 0 : string2.length();
+      if (string2 == null || string2.isEmpty()) return baseString.length();
+      if (maxDistance == 0) return baseString.equals(string2) ? 0 : -1;
+
+      clear();
+      int length = baseString.length();
+      if (chars.length < length) chars = new char[length * 2];
+      baseString.getChars(0, length, chars, 0);
+      setMasks(length);
+
+      int length2 = string2.length();
+      if (decoded.length < length2) decoded = new char[length2 * 2];
+      string2.getChars(0, length2, decoded, 0);
+      return distance(decoded, length2, maxDistance);
+    }
+
+    /** Builds the masks of the leading characters of {@link #chars}. */
+    private void setMasks(int length) {
+      this.length = length;
+      blocks = Math.max(1, (length + 63) >>> 6);
+      if (directMasks.length < DIRECT * blocks) directMasks = new long[DIRECT * blocks];
+      if (vp.length < blocks) {
+        vp = new long[blocks];
+        vn = new long[blocks];
+        d0 = new long[blocks];
+        pmPrev = new long[blocks];
+      }
+
+      for (int i = 0; i < length; i++) {
+        char c = chars[i];
+        int index = c < DIRECT ? c * blocks : slotOf(c) * blocks;
+        long[] masks = c < DIRECT ? directMasks : keyMasks;
+        masks[index + (i >>> 6)] |= 1L << i;
+      }
+    }
+
+    /**
+     * Computes the same distance as {@link DamerauLevenshteinOSA#distance(char[], int, char[],
+     * int, int, int[], int[])} between this pattern and the leading characters of an array.
+     *
+     * @param chars2 Characters of the second string.
+     * @param length2 Number of characters of the second string.
+     * @param maxDistance The distance beyond which to give up, negative for no limit.
+     * @return The distance, or -1 when it exceeds {@code maxDistance}.
+     */
+    public int distance(char[] chars2, int length2, int maxDistance) {
+      if (length2 == 0) return length;
+      if (maxDistance == 0) return Arrays.equals(chars, 0, length, chars2, 0, length2) ? 0 : -1;
+
+      // The reference implementation strips the common suffix and prefix and answers some
+      // cases from what remains; stripping them does not change the distance itself.
+      int shorter = Math.min(length, length2);
+      int suffix = 0;
+      while (suffix < shorter && chars[length - 1 - suffix] == chars2[length2 - 1 - suffix]) {
+        suffix++;
+      }
+      int prefix = 0;
+      while (prefix < shorter - suffix && chars[prefix] == chars2[prefix]) prefix++;
+      int rest1 = length - suffix - prefix;
+      int rest2 = length2 - suffix - prefix;
+      if (rest1 == 0 || rest2 == 0) return Math.max(rest1, rest2);
+      if (maxDistance >= 0 && Math.abs(length - length2) > maxDistance) return -1;
+
+      return blocks == 1
+          ? distanceInWord(chars2, length2, maxDistance)
+          : distanceInBlocks(chars2, length2, maxDistance);
+    }
+
+    /**
+     * Computes the same distance as {@link #distance(char[], int, int)} to a string of Latin-1
+     * characters stored one per byte, reading them in place.
+     *
+     * @param latin1 Array holding the second string.
+     * @param offset Position of the first character of the second string.
+     * @param length2 Number of characters of the second string.
+     * @param maxDistance The distance beyond which to give up, negative for no limit.
+     * @return The distance, or -1 when it exceeds {@code maxDistance}.
+     */
+    public int distance(byte[] latin1, int offset, int length2, int maxDistance) {
+      if (length2 == 0) return length;
+      if (maxDistance == 0) {
+        if (length != length2) return -1;
+        for (int i = 0; i < length; i++) {
+          if (chars[i] != (latin1[offset + i] & 0xFF)) return -1;
+        }
+        return 0;
+      }
+
+      int shorter = Math.min(length, length2);
+      int suffix = 0;
+      while (suffix < shorter
+          && chars[length - 1 - suffix] == (latin1[offset + length2 - 1 - suffix] & 0xFF)) {
+        suffix++;
+      }
+      int prefix = 0;
+      while (prefix < shorter - suffix && chars[prefix] == (latin1[offset + prefix] & 0xFF)) {
+        prefix++;
+      }
+      int rest1 = length - suffix - prefix;
+      int rest2 = length2 - suffix - prefix;
+      if (rest1 == 0 || rest2 == 0) return Math.max(rest1, rest2);
+      if (maxDistance >= 0 && Math.abs(length - length2) > maxDistance) return -1;
+
+      if (blocks == 1) return distanceInWord(latin1, offset, length2, maxDistance);
+      if (decoded.length < length2) decoded = new char[length2 * 2];
+      for (int i = 0; i < length2; i++) decoded[i] = (char) (latin1[offset + i] & 0xFF);
+      return distanceInBlocks(decoded, length2, maxDistance);
+    }
+
+    private int distanceInWord(char[] chars2, int length2, int maxDistance) {
+      final long last = 1L << (length - 1);
+      long vp = ~0L;
+      long vn = 0;
+      long d0 = 0;
+      long pmPrev = 0;
+      int score = length;
+
+      for (int j = 0; j < length2; j++) {
+        final long pm = mask(chars2[j], 0);
+        final long tr = (((~d0) & pm) << 1) & pmPrev;
+        d0 = (((pm & vp) + vp) ^ vp) | pm | vn | tr;
+        long hp = vn | ~(d0 | vp);
+        final long hn = d0 & vp;
+        if ((hp & last) != 0) {
+          score++;
+        } else if ((hn & last) != 0) {
+          score--;
+        }
+        hp = (hp << 1) | 1;
+        vp = (hn << 1) | ~(d0 | hp);
+        vn = hp & d0;
+        pmPrev = pm;
+
+        // Each remaining character lowers the score by at most one.
+        if (maxDistance >= 0 && score - (length2 - 1 - j) > maxDistance) return -1;
+      }
+      return maxDistance < 0 || score <= maxDistance ? score : -1;
+    }
+
+    /** The loop of {@link #distanceInWord(char[], int, int)} over Latin-1 bytes. */
+    private int distanceInWord(byte[] latin1, int offset, int length2, int maxDistance) {
+      final long last = 1L << (length - 1);
+      long vp = ~0L;
+      long vn = 0;
+      long d0 = 0;
+      long pmPrev = 0;
+      int score = length;
+
+      for (int j = 0; j < length2; j++) {
+        final long pm = directMasks[latin1[offset + j] & 0xFF];
+        final long tr = (((~d0) & pm) << 1) & pmPrev;
+        d0 = (((pm & vp) + vp) ^ vp) | pm | vn | tr;
+        long hp = vn | ~(d0 | vp);
+        final long hn = d0 & vp;
+        if ((hp & last) != 0) {
+          score++;
+        } else if ((hn & last) != 0) {
+          score--;
+        }
+        hp = (hp << 1) | 1;
+        vp = (hn << 1) | ~(d0 | hp);
+        vn = hp & d0;
+        pmPrev = pm;
+
+        if (maxDistance >= 0 && score - (length2 - 1 - j) > maxDistance) return -1;
+      }
+      return maxDistance < 0 || score <= maxDistance ? score : -1;
+    }
+
+    private int distanceInBlocks(char[] chars2, int length2, int maxDistance) {
+      final int lastBlock = blocks - 1;
+      final long last = 1L << ((length - 1) & 63);
+      Arrays.fill(vp, 0, blocks, ~0L);
+      Arrays.fill(vn, 0, blocks, 0);
+      Arrays.fill(d0, 0, blocks, 0);
+      Arrays.fill(pmPrev, 0, blocks, 0);
+      int score = length;
+
+      for (int j = 0; j < length2; j++) {
+        final char c = chars2[j];
+        long hpCarry = 1;
+        long hnCarry = 0;
+        long d0Below = 0;
+        long pmBelow = 0;
+
+        for (int b = 0; b < blocks; b++) {
+          final long pm = mask(c, b);
+          final long d0Old = d0[b];
+          final long tr =
+              ((((~d0Old) & pm) << 1) | (((~d0Below) & pmBelow) >>> 63)) & pmPrev[b];
+          final long x = pm | hnCarry;
+          final long d = (((x & vp[b]) + vp[b]) ^ vp[b]) | x | vn[b] | tr;
+          long hp = vn[b] | ~(d | vp[b]);
+          long hn = d & vp[b];
+          if (b == lastBlock) {
+            if ((hp & last) != 0) {
+              score++;
+            } else if ((hn & last) != 0) {
+              score--;
+            }
+          }
+          final long hpOut = hp >>> 63;
+          final long hnOut = hn >>> 63;
+          hp = (hp << 1) | hpCarry;
+          hn = (hn << 1) | hnCarry;
+          hpCarry = hpOut;
+          hnCarry = hnOut;
+          vp[b] = hn | ~(d | hp);
+          vn[b] = hp & d;
+          d0[b] = d;
+          pmPrev[b] = pm;
+          d0Below = d0Old;
+          pmBelow = pm;
+        }
+
+        if (maxDistance >= 0 && score - (length2 - 1 - j) > maxDistance) return -1;
+      }
+      return maxDistance < 0 || score <= maxDistance ? score : -1;
+    }
+
+    private long mask(char c, int block) {
+      if (c < DIRECT) return directMasks[c * blocks + block];
+      if (!hasKeys) return 0;
+      int slot = findSlot(c);
+      return keys[slot] == c ? keyMasks[slot * blocks + block] : 0;
+    }
+
+    /** Returns the slot of a character at or above {@link #DIRECT}, claiming it if free. */
+    private int slotOf(char c) {
+      if (keys.length < length * 2) {
+        int size = Integer.highestOneBit(Math.max(8, length * 2) - 1) << 1;
+        keys = new char[size];
+        keyMasks = new long[size * blocks];
+      } else if (keyMasks.length < keys.length * blocks) {
+        keyMasks = new long[keys.length * blocks];
+      }
+      hasKeys = true;
+      int slot = findSlot(c);
+      keys[slot] = c;
+      return slot;
+    }
+
+    /** Returns the slot holding a character, or the free slot where it would go. */
+    private int findSlot(char c) {
+      int mask = keys.length - 1;
+      int slot = (c * 0x9E3779B9 >>> 16) & mask;
+      while (keys[slot] != 0 && keys[slot] != c) slot = (slot + 1) & mask;
+      return slot;
+    }
+
+    /** Zeroes the masks of the previous pattern's characters only. */
+    private void clear() {
+      for (int i = 0; i < length; i++) {
+        char c = chars[i];
+        if (c < DIRECT) Arrays.fill(directMasks, c * blocks, (c + 1) * blocks, 0);
+      }
+      if (hasKeys) {
+        Arrays.fill(keys, (char) 0);
+        Arrays.fill(keyMasks, 0);
+        hasKeys = false;
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package io.gitlab.rxp90.jsymspell.api;
 
+import java.util.Arrays;
+
 public class DamerauLevenshteinOSA implements EditDistance {
 
   private static final CharComparator CHAR_COMPARATOR = new DefaultCharComparator();
@@ -9,41 +11,70 @@ public class DamerauLevenshteinOSA implements EditDistance {
     if (baseString == null) return string2 == null ? 0 : string2.length();
     if (string2 == null || string2.isEmpty()) return baseString.length();
     if (maxDistance == 0) return baseString.equals(string2) ? 0 : -1;
-    int[] baseChar1Costs = new int[baseString.length()];
-    int[] basePrevChar1Costs = new int[baseString.length()];
+    int length = Math.max(baseString.length(), string2.length());
+    return distance(
+        baseString.toCharArray(), baseString.length(),
+        string2.toCharArray(), string2.length(),
+        maxDistance, new int[length], new int[length]);
+  }
+
+  /**
+   * Computes the same distance as {@link #distance(String, String, int)} over the leading
+   * characters of two arrays, using cost rows supplied by the caller so that repeated calls
+   * need not allocate.
+   *
+   * @param baseChars   Characters of the first string.
+   * @param baseLength  Number of characters of the first string.
+   * @param chars2      Characters of the second string.
+   * @param length2     Number of characters of the second string.
+   * @param maxDistance The distance beyond which to give up, negative for no limit.
+   * @param costs       Scratch row, at least as long as the longer string; overwritten.
+   * @param prevCosts   Scratch row, at least as long as the longer string; overwritten.
+   * @return The distance, or -1 when it exceeds {@code maxDistance}.
+   */
+  public int distance(
+      char[] baseChars, int baseLength, char[] chars2, int length2, int maxDistance,
+      int[] costs, int[] prevCosts) {
+    if (length2 == 0) return baseLength;
+    if (maxDistance == 0) {
+      return Arrays.equals(baseChars, 0, baseLength, chars2, 0, length2) ? 0 : -1;
+    }
 
     // If strings have different lengths, ensure shorter string is in string1. This can result in a
     // little faster speed by spending more time spinning just the inner loop during the main processing.
-    String string1;
-    if (baseString.length() > string2.length()) {
-      string1 = string2;
-      string2 = baseString;
+    char[] string1;
+    char[] string2;
+    int str1Len;
+    int str2Len;
+    if (baseLength > length2) {
+      string1 = chars2;
+      str1Len = length2;
+      string2 = baseChars;
+      str2Len = baseLength;
     } else {
-      string1 = baseString;
+      string1 = baseChars;
+      str1Len = baseLength;
+      string2 = chars2;
+      str2Len = length2;
     }
-    int str1Len = string1.length();
-    int str2Len = string2.length();
 
     // Ignore common suffix
-    while ((str1Len > 0) && (string1.charAt(str1Len - 1) == string2.charAt(str2Len - 1))) {
+    while ((str1Len > 0) && (string1[str1Len - 1] == string2[str2Len - 1])) {
       str1Len--;
       str2Len--;
     }
 
     int start = 0;
-    if ((string1.charAt(0) == string2.charAt(0)) || (str1Len == 0)) {
+    if ((str1Len == 0) || (string1[0] == string2[0])) {
       // Ignore common prefix and string1 substring of string2
-      while ((start < str1Len) && (string1.charAt(start) == string2.charAt(start))) start++;
+      while ((start < str1Len) && (string1[start] == string2[start])) start++;
 
       str1Len -= start; // length of the part excluding common prefix and suffix
       str2Len -= start;
 
-
       if (str1Len == 0) { // string1 is a substring in string2, so str2Len == distance between both
         return str2Len;
       }
-
-      string2 = string2.substring(start, start + str2Len); // faster than string2[start+j] in inner loop below
     }
 
     int lenDiff = str2Len - str1Len;
@@ -54,21 +85,12 @@ public class DamerauLevenshteinOSA implements EditDistance {
       return -1;
     }
 
-    if (str2Len > baseChar1Costs.length) {
-      baseChar1Costs = new int[str2Len];
-      basePrevChar1Costs = new int[str2Len];
-    }
-//    } else {
-//      for (int i = 0; i < str2Len; i++) {
-//        basePrevChar1Costs[i] = 0; // Substituting Array.clear(basePrevChar1Costs, 0, str2Len) // FIXME is this needed?
-//      }
-//    }
-
     for (int j = 0; j < str2Len; j++) {
+      prevCosts[j] = 0;
       if (j < maxDistance) {
-        baseChar1Costs[j] = j + 1;
+        costs[j] = j + 1;
       } else {
-        baseChar1Costs[j] = maxDistance + 1;
+        costs[j] = maxDistance + 1;
       }
     }
 
@@ -76,12 +98,12 @@ public class DamerauLevenshteinOSA implements EditDistance {
     boolean haveMax = maxDistance < str2Len;
     int jStart = 0;
     int jEnd = maxDistance;
-    char str1Char = string1.charAt(0);
+    char str1Char = string1[0];
     int current = 0;
     for (int i = 0; i < str1Len; i++) {
       char prevStr1Char = str1Char;
-      str1Char = string1.charAt(start + i);
-      char str2Char = string2.charAt(0);
+      str1Char = string1[start + i];
+      char str2Char = string2[start];
       int left = i;
       current = left + 1;
       int nextTransCost = 0;
@@ -91,11 +113,11 @@ public class DamerauLevenshteinOSA implements EditDistance {
       for (int j = jStart; j < jEnd; j++) {
         int above = current;
         int thisTransCost = nextTransCost;
-        nextTransCost = basePrevChar1Costs[j];
-        basePrevChar1Costs[j] = current = left; // cost of diagonal (substitution)
-        left = baseChar1Costs[j]; // left now equals current cost (which will be diagonal at next iteration)
+        nextTransCost = prevCosts[j];
+        prevCosts[j] = current = left; // cost of diagonal (substitution)
+        left = costs[j]; // left now equals current cost (which will be diagonal at next iteration)
         char prevStr2Char = str2Char;
-        str2Char = string2.charAt(j);
+        str2Char = string2[start + j];
 
         if (CHAR_COMPARATOR.areDistinct(str1Char, str2Char)) {
           if (left < current) current = left; // insertion
@@ -109,9 +131,9 @@ public class DamerauLevenshteinOSA implements EditDistance {
             if (thisTransCost < current) current = thisTransCost; // transposition
           }
         }
-        baseChar1Costs[j] = current;
+        costs[j] = current;
       }
-      if (haveMax && (baseChar1Costs[i + lenDiff] > maxDistance)) return -1;
+      if (haveMax && (costs[i + lenDiff] > maxDistance)) return -1;
     }
     return (current <= maxDistance) ? current : -1;
   }
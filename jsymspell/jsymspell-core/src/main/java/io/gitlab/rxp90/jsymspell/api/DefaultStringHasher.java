@@ -1,3 +1,31 @@
 package io.gitlab.rxp90.jsymspell.api;
 
-public class DefaultStringHasher implements StringHasher {}
+public class DefaultStringHasher implements StringHasher {
+
+  /**
+   * Computes {@link String#hashCode()} over the characters without copying
+   * them into a string.
+   */
+  @Override
+  public long hash(CharSequence input) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    return hash(input, 0, input.length());
+  }
+
+  /**
+   * Computes {@link String#hashCode()} over a range of the characters.
+   */
+  @Override
+  public long hash(CharSequence input, int start, int end) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + input.charAt(i);
+    }
+    return h;
+  }
+}
@@ -9,4 +9,31 @@ public interface StringHasher {
     return input.hashCode();
   }
 
+  /**
+   * Hashes a sequence of characters, such as a delete that was never
+   * materialized as a string. Must return the same value as
+   * {@link #hash(String)} for the same characters. The default copies the
+   * characters into a string; implementations can hash them in place.
+   */
+  default long hash(CharSequence input) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    return hash(input.toString());
+  }
+
+  /**
+   * Hashes the characters of a sequence from {@code start}, inclusive, to
+   * {@code end}, exclusive, such as one entry of a shared buffer. Must
+   * return the same value as {@link #hash(CharSequence)} for the same
+   * characters. The default hashes a subsequence; implementations can hash
+   * the range in place.
+   */
+  default long hash(CharSequence input, int start, int end) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    return hash(input.subSequence(start, end));
+  }
+
 }
@@ -0,0 +1,65 @@
+package io.gitlab.rxp90.jsymspell.api;
+
+/**
+ * A 64-bit hasher in the style of wyhash. Characters are packed four to a
+ * long and folded eight at a time by multiplying 64-bit words into a
+ * 128-bit product and combining its halves, so the whole width of the hash
+ * depends on every character.
+ *
+ * <p>Unlike {@link DefaultStringHasher}, which widens a 32-bit {@link
+ * String#hashCode()}, unrelated deletes practically never share a bucket of
+ * the deletes index. Indexes written with one hasher must be read with the
+ * same hasher.
+ */
+public class WyStringHasher implements StringHasher {
+
+  private static final long P0 = 0xA0761D6478BD642FL;
+  private static final long P1 = 0xE7037ED1A0B428DBL;
+  private static final long P2 = 0x8EBC6AF09C88C6E3L;
+
+  @Override
+  public long hash(String input) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    return hash(input, 0, input.length());
+  }
+
+  @Override
+  public long hash(CharSequence input) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    return hash(input, 0, input.length());
+  }
+
+  @Override
+  public long hash(CharSequence input, int start, int end) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input must NOT be null");
+    }
+    long seed = P0;
+    int i = start;
+    for (; end - i > 8; i += 8) {
+      seed = mix(pack(input, i, i + 4) ^ P1, pack(input, i + 4, i + 8) ^ seed);
+    }
+    final int middle = Math.min(i + 4, end);
+    final long a = pack(input, i, middle);
+    final long b = pack(input, middle, end);
+    return mix(P1 ^ (end - start), mix(a ^ P1, b ^ seed ^ P2));
+  }
+
+  /** Packs up to four characters into a long, the first in the low bits. */
+  private static long pack(CharSequence input, int start, int end) {
+    long packed = 0;
+    for (int i = end - 1; i >= start; i--) {
+      packed = packed << 16 | input.charAt(i);
+    }
+    return packed;
+  }
+
+  /** Folds the 128-bit product of two words into 64 bits. */
+  private static long mix(long a, long b) {
+    return a * b ^ Math.multiplyHigh(a, b);
+  }
+}
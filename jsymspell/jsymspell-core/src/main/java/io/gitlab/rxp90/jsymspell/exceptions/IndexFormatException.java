@@ -0,0 +1,12 @@
+package io.gitlab.rxp90.jsymspell.exceptions;
+
+/**
+ * Indicates that a persisted index cannot be loaded, either because the file
+ * is not an index, is truncated or corrupt, has an unsupported version, or
+ * was built with a different string hasher.
+ */
+public class IndexFormatException extends SymSpellException {
+  public IndexFormatException( final String message ) {
+    super( message );
+  }
+}
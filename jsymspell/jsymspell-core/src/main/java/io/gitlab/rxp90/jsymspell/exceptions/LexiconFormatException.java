@@ -0,0 +1,11 @@
+package io.gitlab.rxp90.jsymspell.exceptions;
+
+/**
+ * Indicates a lexicon line that is not a word and a count separated by a
+ * tab, or that is not valid UTF-8.
+ */
+public class LexiconFormatException extends SymSpellException {
+  public LexiconFormatException( final String message ) {
+    super( message );
+  }
+}
@@ -0,0 +1,56 @@
+package io.gitlab.rxp90.jsymspell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BigramTableTest {
+
+  @Test
+  void pairsAreCountedByBothWordsInOrder() {
+    final BigramTable bigrams = new BigramTable( 1 );
+    bigrams.add( "the quick", 20 );
+    bigrams.add( "quick the", 3 );
+    bigrams.add( "the", "quick", 5 );
+    bigrams.add( "nospace", 9 );
+
+    assertEquals( 2, bigrams.size() );
+    assertEquals( 25, bigrams.count( "the", "quick" ) );
+    assertEquals( 3, bigrams.count( "quick", "the" ) );
+    assertEquals( BigramTable.ABSENT, bigrams.count( "the", "the" ) );
+    assertEquals( BigramTable.ABSENT, bigrams.count( "the", "fox" ) );
+    assertEquals( BigramTable.ABSENT, bigrams.count( "nospace", "" ) );
+    assertEquals( 3, bigrams.countMin() );
+    assertEquals( Map.of( "the quick", 25L, "quick the", 3L ),
+                  bigrams.toMap() );
+  }
+
+  @Test
+  void growingKeepsEveryPair() {
+    final BigramTable bigrams = new BigramTable( 1 );
+    final Map<String, Long> expected = new HashMap<>();
+    final Random random = new Random( 3 );
+
+    for( int i = 0; i < 20000; i++ ) {
+      final String bigram =
+          "w" + random.nextInt( 300 ) + " w" + random.nextInt( 300 );
+      final long count = 1 + random.nextInt( 1000 );
+
+      bigrams.add( bigram, count );
+      expected.merge( bigram, count, Long::sum );
+    }
+
+    assertEquals( expected, bigrams.toMap() );
+    assertEquals( expected.size(), bigrams.size() );
+    assertEquals( expected.values().stream()
+                          .mapToLong( Long::longValue )
+                          .min()
+                          .getAsLong(),
+                  bigrams.countMin() );
+    assertEquals( Long.MAX_VALUE, new BigramTable( 0 ).countMin() );
+  }
+}
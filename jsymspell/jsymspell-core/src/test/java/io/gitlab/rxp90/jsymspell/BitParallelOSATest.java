@@ -0,0 +1,93 @@
+package io.gitlab.rxp90.jsymspell;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.gitlab.rxp90.jsymspell.api.BitParallelOSA;
+import io.gitlab.rxp90.jsymspell.api.DamerauLevenshteinOSA;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BitParallelOSATest {
+
+  private static final DamerauLevenshteinOSA REFERENCE = new DamerauLevenshteinOSA();
+  private static final BitParallelOSA BIT_PARALLEL = new BitParallelOSA();
+
+  @Test
+  void distance() {
+    assertEquals(3, BIT_PARALLEL.distance("CA", "ABC", 3));
+    assertEquals(1, BIT_PARALLEL.distance("abcdef", "abdcef", 2));
+    assertEquals(-1, BIT_PARALLEL.distance("kitten", "sitting", 2));
+  }
+
+  @Test
+  void matchesReferenceOnRandomStrings() {
+    Random random = new Random(7);
+    BitParallelOSA.Pattern pattern = new BitParallelOSA.Pattern();
+    BitParallelOSA.Pattern reused = new BitParallelOSA.Pattern();
+    // Few distinct letters make transpositions and shared affixes common; the last alphabet
+    // mixes in characters beyond Latin-1.
+    String[] alphabets = {"ab", "abcd", "abcdefghijklmnopqrstuvwxyz", "a\u00e9\u0100\u4e00"};
+
+    for (int n = 0; n < 20000; n++) {
+      String alphabet = alphabets[n % alphabets.length];
+      // Every tenth pair is long enough to need more than one block.
+      int longest = n % 10 == 0 ? 200 : 20;
+      String base = randomString(random, alphabet, random.nextInt(longest) + 1);
+      String other = random.nextBoolean()
+          ? randomString(random, alphabet, random.nextInt(longest))
+          : edit(random, alphabet, base);
+      int maxDistance = random.nextInt(6) - 1;
+
+      pattern.set(base.toCharArray(), base.length());
+      int expected = REFERENCE.distance(base, other, maxDistance);
+      String message = base + " / " + other + " / " + maxDistance;
+      assertEquals(expected, BIT_PARALLEL.distance(base, other, maxDistance), message);
+      assertEquals(expected, reused.distance(base, other, maxDistance), message);
+      if (!other.isEmpty() && maxDistance != 0) {
+        assertEquals(
+            expected, pattern.distance(other.toCharArray(), other.length(), maxDistance), message);
+      }
+      if (other.chars().allMatch(c -> c <= 0xFF)) {
+        // Read in place after a leading byte that is not part of the string.
+        byte[] latin1 = ("\u00ff" + other).getBytes(StandardCharsets.ISO_8859_1);
+        int expectedInPlace = maxDistance == 0 ? (base.equals(other) ? 0 : -1) : expected;
+        assertEquals(
+            other.isEmpty() ? base.length() : expectedInPlace,
+            pattern.distance(latin1, 1, other.length(), maxDistance),
+            message);
+      }
+    }
+  }
+
+  private static String randomString(Random random, String alphabet, int length) {
+    StringBuilder s = new StringBuilder(length);
+    for (int i = 0; i < length; i++) s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    return s.toString();
+  }
+
+  /** Applies a few random insertions, deletions, substitutions and transpositions. */
+  private static String edit(Random random, String alphabet, String word) {
+    StringBuilder s = new StringBuilder(word);
+    for (int edits = random.nextInt(5); edits > 0 && s.length() > 1; edits--) {
+      int i = random.nextInt(s.length() - 1);
+      char c = alphabet.charAt(random.nextInt(alphabet.length()));
+      switch (random.nextInt(4)) {
+        case 0:
+          s.insert(i, c);
+          break;
+        case 1:
+          s.deleteCharAt(i);
+          break;
+        case 2:
+          s.setCharAt(i, c);
+          break;
+        default:
+          char first = s.charAt(i);
+          s.setCharAt(i, s.charAt(i + 1));
+          s.setCharAt(i + 1, first);
+      }
+    }
+    return s.toString();
+  }
+}
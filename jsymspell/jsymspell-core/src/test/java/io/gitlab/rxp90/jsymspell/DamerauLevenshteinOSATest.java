@@ -14,4 +14,23 @@ class DamerauLevenshteinOSATest {
     int distance = DAMERAU_LEVENSHTEIN_OSA.distance("CA", "ABC", 3);
     assertEquals(3, distance);
   }
+
+  @Test
+  void distanceWithReusedRows() {
+    int[] costs = new int[16];
+    int[] prevCosts = new int[16];
+    String[][] pairs = {
+        {"questionnaire", "questionaire"}, {"CA", "ABC"}, {"abcdef", "badcfe"}, {"kitten", "sitting"}
+    };
+    for (String[] pair : pairs) {
+      for (int maxDistance = -1; maxDistance < 4; maxDistance++) {
+        assertEquals(
+            DAMERAU_LEVENSHTEIN_OSA.distance(pair[0], pair[1], maxDistance),
+            DAMERAU_LEVENSHTEIN_OSA.distance(
+                pair[0].toCharArray(), pair[0].length(),
+                pair[1].toCharArray(), pair[1].length(),
+                maxDistance, costs, prevCosts));
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeleteFilterTest {
+
+  @Test
+  void filterKeepsAddedHashesAndRejectsMostOthers() {
+    final int entries = 100_000;
+    final DeleteFilter filter = new DeleteFilter( entries, 0.01 );
+    final Random random = new Random( 1 );
+
+    // Hashes that only populate their low bits, as the default hasher's do.
+    for( int i = 0; i < entries; i++ ) {
+      filter.add( 2 * i );
+    }
+
+    for( int i = 0; i < entries; i++ ) {
+      assertTrue( filter.mightContain( 2 * i ) );
+    }
+
+    int passed = 0;
+
+    for( int i = 0; i < entries; i++ ) {
+      if( filter.mightContain( 2 * random.nextInt( 1 << 30 ) + 1 ) ) {
+        passed++;
+      }
+    }
+
+    assertTrue( passed < entries * 0.015, "false positives: " + passed );
+    assertTrue( filter.bytes() < entries * 2L );
+  }
+
+  @Test
+  void filteredLookupsMatchUnfiltered()
+      throws IOException, URISyntaxException, NotInitializedException {
+    final URL url = Objects.requireNonNull(
+        DeleteFilterTest.class.getClassLoader().getResource( "words.txt" ) );
+    final List<String> lines = Files.readAllLines( Paths.get( url.toURI() ) );
+    final SymSpell filtered = new SymSpellBuilder()
+        .setDeleteFilterFalsePositiveRate( 0.01 )
+        .setLexiconWords( lines )
+        .build();
+    final SymSpell standard = new SymSpellBuilder()
+        .setLexiconWords( lines )
+        .build();
+
+    assertTrue( filtered.getDeleteFilterBytes() > 0 );
+    assertEquals( 0, standard.getDeleteFilterBytes() );
+
+    // Words added later are found outside the filter until compaction.
+    filtered.addWord( "zyzzogeton", 10 );
+    standard.addWord( "zyzzogeton", 10 );
+
+    for( int pass = 0; pass < 2; pass++ ) {
+      for( final String input : List.of(
+          "helo", "wrld", "speling", "korrectud", "zyzzogetn", "xyzzyq" ) ) {
+        for( final Verbosity verbosity : Verbosity.values() ) {
+          assertEquals( standard.lookup( input, verbosity ),
+                        filtered.lookup( input, verbosity ) );
+        }
+      }
+
+      filtered.compact();
+      standard.compact();
+    }
+
+    assertTrue( filtered.getDeleteFilterBytes() > 0 );
+  }
+}
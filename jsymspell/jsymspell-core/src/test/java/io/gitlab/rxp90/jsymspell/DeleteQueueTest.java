@@ -0,0 +1,78 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.api.DefaultStringHasher;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeleteQueueTest {
+
+  @Test
+  void deletesAreQueuedOnceWithStringHashes() {
+    final DeleteQueue queue = new DeleteQueue( new DefaultStringHasher(), 1 );
+    queue.add( "letter", 6 );
+    queue.addDeletes( 0 );
+
+    final Set<String> expected = new HashSet<>();
+
+    for( int i = 0; i < 6; i++ ) {
+      expected.add( new StringBuilder( "letter" ).deleteCharAt( i )
+                                                 .toString() );
+    }
+
+    assertEquals( expected.size() + 1, queue.size() );
+
+    for( int i = 0; i < queue.size(); i++ ) {
+      final String entry = queue.toString( i );
+      assertEquals( entry.hashCode(), queue.deleteHash( i ) );
+      assertTrue( i == 0 ? entry.equals( "letter" )
+                      : expected.remove( entry ) );
+    }
+
+    queue.addDeletes( 1 );
+    queue.addDeletes( 2 );
+
+    for( int i = 0; i < queue.size(); i++ ) {
+      assertEquals( queue.toString( i ).hashCode(), queue.deleteHash( i ) );
+    }
+  }
+
+  @Test
+  void collidingHashesAreKeptApart() {
+    final DeleteQueue queue = new DeleteQueue( new DefaultStringHasher(), 1 );
+    assertEquals( "Aa".hashCode(), "BB".hashCode() );
+
+    queue.add( "xAa", 3 );
+    queue.add( "xBB", 3 );
+    queue.addDeletes( 0 );
+    queue.addDeletes( 1 );
+    queue.add( "BB", 2 );
+
+    final Set<String> entries = new HashSet<>();
+
+    for( int i = 0; i < queue.size(); i++ ) {
+      assertTrue( entries.add( queue.toString( i ) ) );
+    }
+
+    assertTrue( entries.contains( "Aa" ) );
+    assertTrue( entries.contains( "BB" ) );
+    assertEquals( 7, queue.size() );
+  }
+
+  @Test
+  void clearAllowsReuse() {
+    final DeleteQueue queue = new DeleteQueue( new DefaultStringHasher(), 1 );
+
+    for( int i = 0; i < 100; i++ ) {
+      queue.clear();
+      queue.add( "word" + i, 5 );
+      queue.addDeletes( 0 );
+    }
+
+    assertEquals( "word9", queue.toString( 0 ) );
+    assertEquals( 6, queue.size() );
+  }
+}
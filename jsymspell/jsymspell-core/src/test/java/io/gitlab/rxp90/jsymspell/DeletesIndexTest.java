@@ -0,0 +1,162 @@
+package io.gitlab.rxp90.jsymspell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeletesIndexTest {
+
+  @Test
+  void findMissingHashReturnsNoSlot() {
+    final SuggestionStage staging = new SuggestionStage( 4 );
+    staging.add( 42L, 0 );
+
+    final DeletesIndex index = staging.commitTo( DeletesIndex.EMPTY );
+
+    assertEquals( -1, index.find( 43L ) );
+    assertEquals( -1, DeletesIndex.EMPTY.find( 42L ) );
+  }
+
+  @Test
+  void commitGroupsWordIdsByHash() {
+    final SuggestionStage staging = new SuggestionStage( 4 );
+
+    // Enough distinct hashes to force the stage and the index to grow.
+    for( int wordId = 0; wordId < 1000; wordId++ ) {
+      staging.add( wordId % 100, wordId );
+    }
+
+    final DeletesIndex index = staging.commitTo( DeletesIndex.EMPTY );
+
+    assertEquals( 100, index.bucketCount() );
+    assertEquals( 1000, index.entryCount() );
+
+    final int slot = index.find( 7L );
+    assertEquals( 10, index.end( slot ) - index.start( slot ) );
+
+    for( int i = index.start( slot ); i < index.end( slot ); i++ ) {
+      assertEquals( 7, index.wordId( i ) % 100 );
+    }
+  }
+
+  @Test
+  void commitToExistingIndexKeepsPermanentWordIdsFirst() {
+    final SuggestionStage first = new SuggestionStage( 4 );
+    first.add( 1L, 10 );
+    first.add( 2L, 20 );
+    final DeletesIndex permanent = first.commitTo( DeletesIndex.EMPTY );
+
+    final SuggestionStage second = new SuggestionStage( 4 );
+    second.add( 1L, 11 );
+    second.add( 3L, 30 );
+    final DeletesIndex merged = second.commitTo( permanent );
+
+    final int slot = merged.find( 1L );
+    assertEquals( 2, merged.end( slot ) - merged.start( slot ) );
+    assertEquals( 10, merged.wordId( merged.start( slot ) ) );
+    assertEquals( 11, merged.wordId( merged.start( slot ) + 1 ) );
+    assertEquals( 3, merged.bucketCount() );
+  }
+
+  @Test
+  void mergeRenumbersAndDropsWordIds() {
+    final SuggestionStage first = new SuggestionStage( 4 );
+    first.add( 1L, 0 );
+    first.add( 1L, 1 );
+    first.add( 2L, 1 );
+    final DeletesIndex permanent = first.commitTo( DeletesIndex.EMPTY );
+
+    final SuggestionStage second = new SuggestionStage( 4 );
+    second.add( 1L, 1 );
+    final DeletesIndex merged = permanent.merge(
+        new int[]{ 0, -1 }, List.of( second ), null, null, 1 );
+
+    final int slot = merged.find( 1L );
+    assertEquals( 2, merged.end( slot ) - merged.start( slot ) );
+    assertEquals( 0, merged.wordId( merged.start( slot ) ) );
+    assertEquals( 1, merged.wordId( merged.start( slot ) + 1 ) );
+    assertEquals( -1, merged.find( 2L ) );
+    assertEquals( 1, merged.bucketCount() );
+  }
+
+  @Test
+  void mergeWithWordsOrdersBucketsByLengthThenCount() {
+    final WordTable words = new WordTable( 4 );
+    words.add( "ccc", 5 );
+    words.add( "aa", 1 );
+    words.add( "bbb", 9 );
+    words.add( "dd", 7 );
+
+    final SuggestionStage staging = new SuggestionStage( 4 );
+
+    for( int wordId = 0; wordId < words.size(); wordId++ ) {
+      staging.add( 1L, wordId );
+    }
+
+    final DeletesIndex index = DeletesIndex.EMPTY.merge(
+        null, List.of( staging ), words, null, 1 );
+    final int slot = index.find( 1L );
+    final int[] ordered = new int[ index.end( slot ) - index.start( slot ) ];
+
+    for( int i = 0; i < ordered.length; i++ ) {
+      ordered[ i ] = index.wordId( index.start( slot ) + i );
+    }
+
+    assertArrayEquals( new int[]{ 3, 1, 2, 0 }, ordered );
+  }
+
+  @Test
+  void largeBucketsStartAtTheFirstLongEnoughWord() {
+    final int size = DeletesIndex.DIRECTORY_MIN_SIZE;
+    final WordTable words = new WordTable( size + 1 );
+    final SuggestionStage staging = new SuggestionStage( size + 1 );
+
+    // Lengths 2, 4, 6 and 8, each a quarter of the large bucket.
+    for( int wordId = 0; wordId < size; wordId++ ) {
+      words.add( "x".repeat( 2 + 2 * (wordId % 4) ) + wordId, 1 );
+      staging.add( 1L, wordId );
+    }
+
+    words.add( "y", 1 );
+    staging.add( 2L, size );
+
+    final DeletesIndex index = DeletesIndex.EMPTY.merge(
+        null, List.of( staging ), words, null, 1 );
+    final int large = index.find( 1L );
+    final int start = index.start( large );
+
+    for( int minLength = 0; minLength <= 14; minLength++ ) {
+      int expected = start;
+
+      while( expected < index.end( large )
+          && words.length( index.wordId( expected ) ) < minLength ) {
+        expected++;
+      }
+
+      assertEquals( expected, index.start( large, minLength ) );
+    }
+
+    assertEquals( index.end( large ), index.start( large, 100 ) );
+
+    final int small = index.find( 2L );
+    assertEquals( index.start( small ), index.start( small, 100 ) );
+  }
+
+  @Test
+  void toMapResolvesWordIds() {
+    final SuggestionStage staging = new SuggestionStage( 4 );
+    staging.add( -5L, 0 );
+    staging.add( -5L, 1 );
+
+    final Map<Long, String[]> map = staging
+        .commitTo( DeletesIndex.EMPTY )
+        .toMap( wordId -> wordId == 0 ? "zero" : "one" );
+
+    assertEquals( Set.of( -5L ), map.keySet() );
+    assertEquals( Set.of( "zero", "one" ), Set.of( map.get( -5L ) ) );
+  }
+}
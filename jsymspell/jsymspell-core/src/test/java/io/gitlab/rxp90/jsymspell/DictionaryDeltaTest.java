@@ -0,0 +1,83 @@
+package io.gitlab.rxp90.jsymspell;
+
+import org.junit.jupiter.api.Test;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryDeltaTest {
+
+  @Test
+  void snapshotsSeeOnlyEarlierChanges() {
+    final WordTable base = new WordTable( 2 );
+    base.add( "alpha", 5 );
+    base.add( "beta", 7 );
+
+    final DictionarySnapshot before = new DictionarySnapshot(
+        base, DeletesIndex.EMPTY, new BigramTable( 0 ), 5, Long.MAX_VALUE );
+    final DictionaryDelta delta = before.delta().grow( 1 );
+    final int gammaId = delta.addWord( "gamma" );
+    delta.addDelete( 42L, gammaId );
+    delta.setCount( gammaId, 3 );
+    delta.setCount( 0, DictionaryDelta.REMOVED );
+    final DictionarySnapshot after = before.withChanges( delta, 5, false );
+    delta.setCount( gammaId, 9 );
+
+    assertEquals( 2, gammaId );
+    assertEquals( -1, before.find( "gamma" ) );
+    assertEquals( 0, before.find( "alpha" ) );
+    assertEquals( -1, before.firstAdded( 42L ) );
+
+    assertEquals( gammaId, after.find( new StringBuilder( "gamma" ) ) );
+    assertEquals( 3, after.count( gammaId ) );
+    assertEquals( -1, after.find( "alpha" ) );
+    assertEquals( 0, after.findAny( "alpha" ) );
+    assertTrue( after.isRemoved( 0 ) );
+    assertEquals( 7, after.count( 1 ) );
+    assertEquals( "gamma", after.word( gammaId ) );
+
+    final int node = after.firstAdded( 42L );
+    assertEquals( gammaId, after.addedWordId( node ) );
+    assertEquals( -1, after.nextAdded( node ) );
+  }
+
+  @Test
+  void growingLeavesOlderSnapshotsIntact() {
+    final WordTable base = new WordTable( 1 );
+    DictionarySnapshot snapshot = new DictionarySnapshot(
+        base, DeletesIndex.EMPTY, new BigramTable( 0 ), 0, Long.MAX_VALUE );
+    DictionaryDelta delta = snapshot.delta();
+    final DictionarySnapshot[] history = new DictionarySnapshot[ 100 ];
+
+    for( int i = 0; i < history.length; i++ ) {
+      if( !delta.hasRoom( 2 ) ) {
+        delta = delta.grow( 2 );
+      }
+
+      final int wordId = delta.addWord( "word" + i );
+      delta.addDelete( i % 10, wordId );
+      delta.addDelete( 1000 + i, wordId );
+      delta.setCount( wordId, i );
+      snapshot = snapshot.withChanges( delta, 6, false );
+      history[ i ] = snapshot;
+    }
+
+    for( int i = 0; i < history.length; i++ ) {
+      assertEquals( i + 1, history[ i ].size() );
+      assertEquals( i, history[ i ].find( "word" + i ) );
+      assertEquals( -1, history[ i ].find( "word" + (i + 1) ) );
+      assertEquals( i, history[ i ].count( i ) );
+
+      // Newest first, down to the bucket's first word.
+      int expected = i;
+
+      for( int node = history[ i ].firstAdded( i % 10 ); node >= 0;
+           node = history[ i ].nextAdded( node ) ) {
+        assertEquals( expected, history[ i ].addedWordId( node ) );
+        expected -= 10;
+      }
+
+      assertEquals( i % 10 - 10, expected );
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.api.StringHasher;
+import io.gitlab.rxp90.jsymspell.exceptions.IndexFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexFileTest {
+
+  private static final Set<String> LEXICON = Set.of(
+      "question" + LEXICON_DELIMITER + 500,
+      "questionnaire" + LEXICON_DELIMITER + 200,
+      "quest" + LEXICON_DELIMITER + 100,
+      "request" + LEXICON_DELIMITER + 300,
+      "qu\u00eate" + LEXICON_DELIMITER + 40,
+      "\u0444quest" + LEXICON_DELIMITER + 30 );
+
+  private static final Set<String> BIGRAMS = Set.of(
+      "the quest" + LEXICON_DELIMITER + 50 );
+
+  @Test
+  void mappedIndexAnswersLikeBuiltIndex() throws IOException {
+    final SymSpell built = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setLexiconWords( LEXICON )
+        .setLexiconBigrams( BIGRAMS )
+        .build();
+
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      built.writeIndex( file );
+
+      final SymSpell mapped = new SymSpellBuilder()
+          .setIndexFile( file )
+          .build();
+
+      assertEquals( built.getWords(), mapped.getWords() );
+      assertEquals( built.getDictionary().bigrams().toMap(),
+                    mapped.getDictionary().bigrams().toMap() );
+
+      for( final String input : List.of( "questoin", "qest", "requets",
+                                         "qu\u00eates", "\u0444qeust" ) ) {
+        for( final Verbosity verbosity : Verbosity.values() ) {
+          assertEquals( built.lookup( input, verbosity ),
+                        mapped.lookup( input, verbosity ) );
+        }
+      }
+
+      assertEquals( built.lookupCompound( "thequest", 2 ),
+                    mapped.lookupCompound( "thequest", 2 ) );
+    } finally {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  void mappedIndexKeepsItsDeleteFilter() throws IOException {
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      final SymSpell built = new SymSpellBuilder()
+          .setLexiconWords( LEXICON )
+          .setDeleteFilterFalsePositiveRate( 0.01 )
+          .build();
+      built.writeIndex( file );
+
+      final SymSpell same = new SymSpellBuilder()
+          .setIndexFile( file )
+          .setDeleteFilterFalsePositiveRate( 0.01 )
+          .build();
+      final SymSpell other = new SymSpellBuilder()
+          .setIndexFile( file )
+          .setDeleteFilterFalsePositiveRate( 0.001 )
+          .build();
+      final SymSpell none = new SymSpellBuilder()
+          .setIndexFile( file )
+          .build();
+
+      assertEquals( built.getDeleteFilterBytes(), same.getDeleteFilterBytes() );
+      assertTrue( other.getDeleteFilterBytes() >
+                      same.getDeleteFilterBytes() );
+      assertEquals( 0, none.getDeleteFilterBytes() );
+
+      assertEquals( 0.01, same.getDictionary().deletes().filterRate() );
+
+      for( final String input : List.of( "questoin", "qest", "xyzzy" ) ) {
+        for( final SymSpell mapped : List.of( same, other, none ) ) {
+          assertEquals( built.lookup( input, Verbosity.ALL ),
+                        mapped.lookup( input, Verbosity.ALL ) );
+        }
+      }
+    } finally {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  void mappedIndexKeepsCountsBelowThreshold() throws IOException {
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      final SymSpellBuilder builder = new SymSpellBuilder()
+          .setCountThreshold( 10 )
+          .setLexiconWords( List.of( "rare" + LEXICON_DELIMITER + 4,
+                                     "rarer" + LEXICON_DELIMITER + 4 ) );
+      final SymSpell built = builder.build();
+      built.addWord( "rarer", 2 );
+      built.writeIndex( file );
+
+      final SymSpell mapped = new SymSpellBuilder()
+          .setIndexFile( file )
+          .build();
+
+      assertTrue( builder.build().addWord( "rare", 6 ) );
+      assertTrue( mapped.addWord( "rare", 6 ) );
+      assertFalse( mapped.addWord( "rarer", 3 ) );
+      assertTrue( mapped.addWord( "rarer", 1 ) );
+      assertEquals( new SuggestItem( "rare", 0, 10 ),
+                    mapped.lookup( "rare", Verbosity.TOP ).get( 0 ) );
+    } finally {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  void mappingWithDifferentHasherFails() throws IOException {
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      new SymSpellBuilder().setLexiconWords( LEXICON ).build()
+                           .writeIndex( file );
+
+      final SymSpellBuilder builder = new SymSpellBuilder()
+          .setStringHasher( new StringHasher() {} )
+          .setIndexFile( file );
+
+      assertThrows( IndexFormatException.class, builder::build );
+    } finally {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  void mappingCorruptFileFailsWithFormatError() throws IOException {
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      new SymSpellBuilder().setLexiconWords( LEXICON )
+                           .setLexiconBigrams( BIGRAMS )
+                           .build()
+                           .writeIndex( file );
+
+      final byte[] bytes = Files.readAllBytes( file );
+      final SymSpellBuilder builder = new SymSpellBuilder()
+          .setIndexFile( file );
+
+      // The length of the hasher name follows the magic number and version.
+      for( final int length : new int[]{ -1, Integer.MAX_VALUE } ) {
+        final byte[] corrupt = bytes.clone();
+        ByteBuffer.wrap( corrupt ).order( ByteOrder.LITTLE_ENDIAN )
+                  .putInt( 12, length );
+        Files.write( file, corrupt );
+
+        assertThrows( IndexFormatException.class, builder::build );
+      }
+
+      final Random random = new Random( 42 );
+
+      for( int i = 0; i < 2000; i++ ) {
+        final byte[] corrupt = bytes.clone();
+        corrupt[ random.nextInt( corrupt.length ) ] ^=
+            (byte) (1 + random.nextInt( 255 ));
+        Files.write( file, corrupt );
+
+        try {
+          builder.build();
+        } catch( final IndexFormatException expected ) {
+          // Any other exception fails the test.
+        }
+      }
+    } finally {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  void mappingOtherFileFails() throws IOException {
+    final Path file = Files.createTempFile( "jsymspell", ".idx" );
+
+    try {
+      Files.write( file, LEXICON );
+
+      final SymSpellBuilder builder = new SymSpellBuilder()
+          .setIndexFile( file );
+
+      assertThrows( IndexFormatException.class, builder::build );
+    } finally {
+      Files.delete( file );
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.LexiconFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexiconReaderTest {
+
+  @Test
+  void filesAndStreamsBuildLikeLines()
+      throws IOException, URISyntaxException {
+    final URL url = Objects.requireNonNull(
+        LexiconReaderTest.class.getClassLoader().getResource( "words.txt" ) );
+    final Path path = Paths.get( url.toURI() );
+    final List<String> lines = Files.readAllLines( path );
+    final Map<String, Long> expected = new SymSpellBuilder()
+        .setLexiconWords( lines )
+        .build()
+        .getWords();
+
+    assertEquals( expected, new SymSpellBuilder()
+        .setLexiconWords( path )
+        .build()
+        .getWords() );
+
+    final Path gzip = Files.createTempFile( "jsymspell", ".txt.gz" );
+
+    try {
+      try( final OutputStream out =
+               new GZIPOutputStream( Files.newOutputStream( gzip ) ) ) {
+        Files.copy( path, out );
+      }
+
+      assertEquals( expected, new SymSpellBuilder()
+          .setLexiconWords( gzip )
+          .build()
+          .getWords() );
+
+      try( final InputStream in = Files.newInputStream( gzip ) ) {
+        assertEquals( expected, new SymSpellBuilder()
+            .setLexiconWords( in )
+            .build()
+            .getWords() );
+      }
+    } finally {
+      Files.delete( gzip );
+    }
+
+    // Counts from every source are summed.
+    final Map<String, Long> doubled = new SymSpellBuilder()
+        .setLexiconWords( lines )
+        .setLexiconWords( path )
+        .build()
+        .getWords();
+
+    expected.forEach( ( word, count ) ->
+                          assertEquals( 2 * count, doubled.get( word ) ) );
+  }
+
+  @Test
+  void linesAreParsedStraightFromBytes() throws IOException {
+    final String longWord = "x".repeat( 200_000 );
+    final Map<String, Long> entries = read(
+        "\ufeffword\t5\r\n"
+            + "\n"
+            + "word\t5\textra field\n"
+            + "caf\u00e9\t+7\n"
+            + "\u0444\u2019\u4e00\t-3\n"
+            + longWord + "\t1\n"
+            + "last\t" + Long.MAX_VALUE );
+
+    final Map<String, Long> expected = new LinkedHashMap<>();
+    expected.put( "word", 10L );
+    expected.put( "caf\u00e9", 7L );
+    expected.put( "\u0444\u2019\u4e00", -3L );
+    expected.put( longWord, 1L );
+    expected.put( "last", Long.MAX_VALUE );
+
+    assertEquals( expected, entries );
+  }
+
+  @Test
+  void blankLinesAreSkippedInLinesAsInBytes() throws IOException {
+    final Map<String, Long> expected = read( "a\t1\n\r\nb\t2\r\n\n" );
+
+    assertEquals( expected, new SymSpellBuilder()
+        .setLexiconWords( List.of( "a\t1", "\r", "b\t2\r", "" ) )
+        .build()
+        .getWords() );
+  }
+
+  @Test
+  void malformedLinesAreReportedByNumber() {
+    for( final String lexicon : List.of(
+        "a\t1\nb 2\n",
+        "a\t1\nb\t\n",
+        "a\t1\nb\t2x\n",
+        "a\t1\nb\t\u00b9\n",
+        "a\t1\nb\t1\u0663\n",
+        "a\t1\nb\t99999999999999999999\n" ) ) {
+      final LexiconFormatException e = assertThrows(
+          LexiconFormatException.class, () -> read( lexicon ) );
+
+      assertTrue( e.getMessage().startsWith( "Lexicon line 2 " ),
+                  e.getMessage() );
+
+      // Lines given as strings are checked the same way.
+      final List<String> lines = List.of( lexicon.split( "\n" ) );
+      final LexiconFormatException words = assertThrows(
+          LexiconFormatException.class,
+          () -> new SymSpellBuilder().setLexiconWords( lines ).build() );
+      final LexiconFormatException bigrams = assertThrows(
+          LexiconFormatException.class,
+          () -> new SymSpellBuilder().setLexiconWords( List.of( "a\t1" ) )
+                                     .setLexiconBigrams( lines )
+                                     .build() );
+
+      assertEquals( e.getMessage(), words.getMessage() );
+      assertEquals( e.getMessage(), bigrams.getMessage() );
+    }
+
+    assertThrows( LexiconFormatException.class, () -> read(
+        "caf\u00e9\t1\n".getBytes( ISO_8859_1 ) ) );
+  }
+
+  /**
+   * Reads a lexicon, summing the counts of repeated words.
+   */
+  private static Map<String, Long> read( final String lexicon )
+      throws IOException {
+    return read( lexicon.getBytes( UTF_8 ) );
+  }
+
+  private static Map<String, Long> read( final byte[] lexicon )
+      throws IOException {
+    final Map<String, Long> entries = new LinkedHashMap<>();
+    final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+
+    LexiconReader.of( new ByteArrayInputStream( lexicon ) ).read(
+        ( word, count ) -> entries.merge( word.toString(), count, Long::sum ) );
+
+    // Compressed input reads the same.
+    try( final OutputStream out = new GZIPOutputStream( gzip ) ) {
+      out.write( lexicon );
+    }
+
+    final Map<String, Long> decompressed = new LinkedHashMap<>();
+
+    LexiconReader.of( new ByteArrayInputStream( gzip.toByteArray() ) ).read(
+        ( word, count ) ->
+            decompressed.merge( word.toString(), count, Long::sum ) );
+
+    assertEquals( entries, decompressed );
+    return entries;
+  }
+}
@@ -0,0 +1,59 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupCacheTest {
+
+  private static final List<SuggestItem> RESULT =
+      List.of( new SuggestItem( "the", 1, 100 ) );
+
+  @Test
+  void keysIncludeVerbosityAndEditDistance() {
+    final LookupCache cache = new LookupCache( 10 );
+    cache.put( "teh", Verbosity.TOP, 2, RESULT, cache.epoch() );
+
+    assertSame( RESULT, cache.get( "teh", Verbosity.TOP, 2 ) );
+    assertNull( cache.get( "teh", Verbosity.ALL, 2 ) );
+    assertNull( cache.get( "teh", Verbosity.TOP, 1 ) );
+
+    final CacheStats stats = cache.stats();
+    assertEquals( 1, stats.getHitCount() );
+    assertEquals( 2, stats.getMissCount() );
+    assertEquals( 1, stats.getSize() );
+  }
+
+  @Test
+  void repeatedInputsSurviveScansOfOneOffInputs() {
+    final LookupCache cache = new LookupCache( 10 );
+    cache.put( "teh", Verbosity.TOP, 2, RESULT, cache.epoch() );
+    assertNotNull( cache.get( "teh", Verbosity.TOP, 2 ) );
+
+    for( int i = 0; i < 100; i++ ) {
+      cache.put( "once" + i, Verbosity.TOP, 2, RESULT, cache.epoch() );
+    }
+
+    assertNotNull( cache.get( "teh", Verbosity.TOP, 2 ) );
+    assertNull( cache.get( "once0", Verbosity.TOP, 2 ) );
+    assertEquals( 10, cache.stats().getSize() );
+    assertEquals( 91, cache.stats().getEvictionCount() );
+  }
+
+  @Test
+  void resultsComputedBeforeInvalidationAreDiscarded() {
+    final LookupCache cache = new LookupCache( 10 );
+    cache.put( "teh", Verbosity.TOP, 2, RESULT, cache.epoch() );
+
+    final long epoch = cache.epoch();
+    cache.invalidateAll();
+    cache.put( "recieve", Verbosity.TOP, 2, RESULT, epoch );
+
+    assertNull( cache.get( "teh", Verbosity.TOP, 2 ) );
+    assertNull( cache.get( "recieve", Verbosity.TOP, 2 ) );
+    assertEquals( 0, cache.stats().getSize() );
+  }
+}
@@ -0,0 +1,161 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamCorrectorTest {
+
+  private static SymSpell symSpell;
+
+  @BeforeAll
+  static void setUp() throws IOException, URISyntaxException {
+    final URL path = Objects.requireNonNull(
+        StreamCorrectorTest.class.getClassLoader()
+                                 .getResource( "words.txt" ) );
+    symSpell = new SymSpellBuilder()
+        .setLexiconWords( Files.lines( Paths.get( path.toURI() ) )
+                               .collect( Collectors.toSet() ) )
+        .build();
+  }
+
+  @Test
+  void linesAreCorrectedLikeLookupCompound()
+      throws IOException, NotInitializedException {
+    final List<String> words = List.copyOf( symSpell.getWords().keySet() );
+    final Random random = new Random( 7 );
+    final List<String> lines = new ArrayList<>();
+
+    while( lines.size() < 300 ) {
+      final StringBuilder line = new StringBuilder();
+
+      for( int i = 0; i < 6; i++ ) {
+        final String word = words.get( random.nextInt( words.size() ) );
+        final int at = random.nextInt( word.length() );
+
+        if( i > 0 && random.nextInt( 4 ) > 0 ) {
+          line.append( ' ' );
+        }
+
+        // Misspell, split or keep the word.
+        switch( random.nextInt( 4 ) ) {
+          case 0:
+            line.append( word, 0, at ).append( word.substring( at + 1 ) );
+            break;
+          case 1:
+            line.append( word, 0, at ).append( ' ' )
+                .append( word.substring( at ) );
+            break;
+          default:
+            line.append( word );
+        }
+      }
+
+      lines.add( line.toString().trim().replaceAll( " +", " " ) );
+    }
+
+    final StringWriter corrected = new StringWriter();
+    new StreamCorrector( symSpell, 2 ).correct(
+        new TrickleReader( new StringReader( String.join( "\n", lines ) ) ),
+        CorrectionSink.writingTo( corrected ) );
+
+    final String[] correctedLines = corrected.toString().split( "\n", -1 );
+    assertEquals( lines.size(), correctedLines.length );
+
+    for( int i = 0; i < lines.size(); i++ ) {
+      assertEquals(
+          symSpell.lookupCompound( lines.get( i ), 2 ).get( 0 )
+                  .getSuggestion(),
+          correctedLines[ i ], lines.get( i ) );
+    }
+  }
+
+  @Test
+  void correctionsKeepOffsetsCaseAndUntouchedText()
+      throws IOException, NotInitializedException {
+    final String input =
+        "The Quikc brwon fox, 42 times; its HOUSSE is\t\tgr een.\n"
+            + "Don't stop \u2014 3rd attempt \u00bf "
+            + "x".repeat( StreamCorrector.MAX_WORD_LENGTH + 1 ) + ".";
+    final List<Correction> corrections = new ArrayList<>();
+    final StringBuilder output = new StringBuilder();
+
+    new StreamCorrector( symSpell, 2 ).correct(
+        Channels.newChannel( new ByteArrayInputStream(
+            input.getBytes( UTF_8 ) ) ), UTF_8,
+        new CorrectionSink() {
+          @Override
+          public void unchanged(
+              final char[] chars, final int offset, final int length ) {
+            output.append( chars, offset, length );
+          }
+
+          @Override
+          public void corrected( final Correction correction ) {
+            corrections.add( correction );
+            output.append( correction.getReplacement() );
+          }
+        } );
+
+    for( final Correction correction : corrections ) {
+      assertEquals( correction.getOriginal(), input.substring(
+          (int) correction.getOffset(), (int) correction.getEnd() ) );
+    }
+
+    assertEquals(
+        List.of( "Quikc", "brwon", "HOUSSE", "gr een" ),
+        corrections.stream()
+                   .map( Correction::getOriginal )
+                   .collect( Collectors.toList() ) );
+    assertEquals(
+        List.of( "Quick", "brown", "HOUSE", "green" ),
+        corrections.stream()
+                   .map( Correction::getReplacement )
+                   .collect( Collectors.toList() ) );
+    assertEquals( 1, corrections.get( 3 ).getEditDistance() );
+    assertEquals(
+        input.replace( "Quikc brwon", "Quick brown" )
+             .replace( "HOUSSE", "HOUSE" )
+             .replace( "gr een", "green" ),
+        output.toString() );
+  }
+
+  /**
+   * Returns at most a few characters per read, so that words and spaces
+   * straddle reads.
+   */
+  private static final class TrickleReader extends FilterReader {
+    private final Random random = new Random( 11 );
+
+    private TrickleReader( final Reader in ) {
+      super( in );
+    }
+
+    @Override
+    public int read( final char[] chars, final int offset, final int length )
+        throws IOException {
+      return super.read(
+          chars, offset, Math.min( length, 1 + random.nextInt( 7 ) ) );
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.api.DefaultStringHasher;
+import io.gitlab.rxp90.jsymspell.api.StringHasher;
+import io.gitlab.rxp90.jsymspell.api.WyStringHasher;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringHasherTest {
+
+  @Test
+  void rangesHashLikeTheirCharacters() {
+    for( final StringHasher hasher : List.of(
+        new DefaultStringHasher(), new WyStringHasher(), new StringHasher() {
+        } ) ) {
+      final String text = "the quick brown fox jumps over the lazy dog";
+
+      for( int start = 0; start < text.length(); start++ ) {
+        for( int end = start; end <= text.length(); end++ ) {
+          final String word = text.substring( start, end );
+          final long hash = hasher.hash( word );
+
+          assertEquals( hash, hasher.hash( new StringBuilder( word ) ) );
+          assertEquals( hash, hasher.hash( text, start, end ) );
+        }
+      }
+    }
+  }
+
+  @Test
+  void deletesOfTheLexiconHaveDistinct64BitHashes()
+      throws IOException, URISyntaxException, NotInitializedException {
+    final URL url = Objects.requireNonNull(
+        StringHasherTest.class.getClassLoader().getResource( "words.txt" ) );
+    final List<String> lines = Files.readAllLines( Paths.get( url.toURI() ) );
+    final StringHasher hasher = new WyStringHasher();
+    final DeleteQueue queue = new DeleteQueue( hasher, 64 );
+    final Set<String> deletes = new HashSet<>();
+    final Set<Long> hashes = new HashSet<>();
+
+    for( final String line : lines ) {
+      final String word = line.substring( 0, line.indexOf( '\t' ) );
+
+      queue.clear();
+      queue.add( word, Math.min( word.length(), 7 ) );
+      queue.expandTo( Integer.MAX_VALUE, 2 );
+
+      for( int i = 0; i < queue.size(); i++ ) {
+        if( deletes.add( queue.toString( i ) ) ) {
+          hashes.add( queue.deleteHash( i ) );
+        }
+      }
+    }
+
+    assertEquals( deletes.size(), hashes.size() );
+
+    // Lookups do not depend on the hasher.
+    final SymSpell wy = new SymSpellBuilder()
+        .setStringHasher( hasher )
+        .setLexiconWords( lines )
+        .build();
+    final SymSpell standard = new SymSpellBuilder()
+        .setLexiconWords( lines )
+        .build();
+
+    for( final String input : List.of(
+        "helo", "wrld", "speling", "korrectud", "acess", "xyzzyq" ) ) {
+      final List<SuggestItem> expected =
+          standard.lookup( input, Verbosity.ALL );
+
+      assertEquals( expected, wy.lookup( input, Verbosity.ALL ) );
+    }
+  }
+}
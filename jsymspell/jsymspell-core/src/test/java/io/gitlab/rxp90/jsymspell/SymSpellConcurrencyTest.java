@@ -0,0 +1,329 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Queries one instance from many threads at once and checks every answer
+ * against the answer computed on a single thread.
+ */
+class SymSpellConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 3;
+
+  private static Set<String> lexicon;
+  private static List<String> inputs;
+  private static Map<Verbosity, List<List<SuggestItem>>> expected;
+
+  @BeforeAll
+  static void setUp()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final URL path = Objects.requireNonNull(
+        SymSpellConcurrencyTest.class.getClassLoader()
+                                     .getResource( "words.txt" ) );
+    lexicon = Files.lines( Paths.get( path.toURI() ) )
+                   .collect( Collectors.toSet() );
+    inputs = misspell( lexicon, 400 );
+
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .build();
+    expected = new EnumMap<>( Verbosity.class );
+
+    for( final Verbosity verbosity : Verbosity.values() ) {
+      final List<List<SuggestItem>> results = new ArrayList<>();
+
+      for( final String input : inputs ) {
+        results.add( symSpell.lookup( input, verbosity ) );
+      }
+
+      expected.put( verbosity, results );
+    }
+  }
+
+  @Test
+  void concurrentLookupsMatchSingleThreadedLookups() throws Exception {
+    final SymSpell uncached = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .build();
+    final SymSpell cached = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .setLookupCacheSize( 64 )
+        .build();
+
+    for( final SymSpell symSpell : List.of( uncached, cached ) ) {
+      runConcurrently( thread -> {
+        final Random random = new Random( thread );
+        final LookupContext context = new LookupContext();
+
+        for( int round = 0; round < ROUNDS; round++ ) {
+          for( int n = 0; n < inputs.size(); n++ ) {
+            final int i = random.nextInt( inputs.size() );
+            final Verbosity verbosity =
+                Verbosity.values()[ random.nextInt( 3 ) ];
+            final List<SuggestItem> suggestions = (n & 1) == 0
+                ? symSpell.lookup( inputs.get( i ), verbosity )
+                : symSpell.lookup( inputs.get( i ), verbosity, context );
+
+            assertEquals( expected.get( verbosity ).get( i ), suggestions,
+                          inputs.get( i ) );
+          }
+        }
+      } );
+    }
+
+    assertTrue( cached.getLookupCacheStats().getHitCount() > 0 );
+  }
+
+  @Test
+  void concurrentBatchesAndCompoundsMatchSingleThreadedResults()
+      throws Exception {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .setLookupCacheSize( 256 )
+        .build();
+    final String phrase = "whereis th elove";
+    final List<SuggestItem> compound = symSpell.lookupCompound( phrase, 2 );
+    // Terms long enough for their split points to be evaluated in parallel.
+    final String longPhrase = "thequickbrown foxjumpedover thelazydog";
+    final List<SuggestItem> longCompound =
+        symSpell.lookupCompound( longPhrase, 2 );
+
+    runConcurrently( thread -> {
+      for( int round = 0; round < ROUNDS; round++ ) {
+        final Verbosity verbosity = Verbosity.values()[ (thread + round) % 3 ];
+
+        assertEquals( expected.get( verbosity ),
+                      symSpell.lookupAll( inputs, verbosity ) );
+        assertEquals( expected.get( verbosity ),
+                      symSpell.lookupAll( inputs, verbosity,
+                                          ForkJoinPool.commonPool() ) );
+        assertEquals( compound, symSpell.lookupCompound( phrase, 2 ) );
+        assertEquals( longCompound, symSpell.lookupCompound(
+            longPhrase, 2, ForkJoinPool.commonPool() ) );
+      }
+    } );
+  }
+
+  @Test
+  void lookupsSeeEachChangeCompletelyOrNotAtAll() throws Exception {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .setLookupCacheSize( 256 )
+        .build();
+
+    // Enough changes to start a background compaction while they are made.
+    final int words = 6000;
+    final AtomicInteger added = new AtomicInteger();
+    final AtomicInteger removed = new AtomicInteger();
+
+    runConcurrently( thread -> {
+      if( thread == 0 ) {
+        for( int i = 0; i < words; i++ ) {
+          assertTrue( symSpell.addWord( inventedWord( i ), 1000 + i ) );
+          added.set( i + 1 );
+        }
+
+        for( int i = 0; i < words; i++ ) {
+          assertTrue( symSpell.removeWord( inventedWord( i ) ) );
+          removed.set( i + 1 );
+        }
+
+        return;
+      }
+
+      final Random random = new Random( thread );
+
+      while( removed.get() < words ) {
+        final int removedBefore = removed.get();
+        final int addedBefore = added.get();
+
+        if( addedBefore > 0 ) {
+          final int i = random.nextInt( addedBefore );
+          final List<SuggestItem> suggestions =
+              symSpell.lookup( inventedWord( i ), Verbosity.TOP );
+          final int removedAfter = removed.get();
+
+          // Invented words are one edit apart, so a removed word may still
+          // have suggestions, but never itself.
+          final boolean present = !suggestions.isEmpty() &&
+              suggestions.get( 0 ).getEditDistance() == 0;
+
+          if( present ) {
+            assertEquals( new SuggestItem( inventedWord( i ), 0, 1000 + i ),
+                          suggestions.get( 0 ) );
+          }
+
+          if( i < removedBefore ) {
+            assertFalse( present );
+          }
+          else if( i > removedAfter ) {
+            assertTrue( present );
+          }
+        }
+
+        final int j = random.nextInt( inputs.size() );
+        assertEquals( expected.get( Verbosity.CLOSEST ).get( j ),
+                      symSpell.lookup( inputs.get( j ), Verbosity.CLOSEST ) );
+      }
+    } );
+
+    symSpell.compact();
+
+    for( int i = 0; i < words; i += 97 ) {
+      assertEquals( List.of(),
+                    symSpell.lookup( inventedWord( i ), Verbosity.ALL ) );
+    }
+
+    assertEquals( expected.get( Verbosity.ALL ),
+                  symSpell.lookupAll( inputs, Verbosity.ALL ) );
+  }
+
+  @Test
+  void wordsAddedWhileCompactingMatchAFreshBuild() throws Exception {
+    // A small base keeps the compaction threshold at its minimum, so that
+    // background compactions start again and again while words are added.
+    final List<String> lines = lexicon.stream()
+                                      .sorted()
+                                      .limit( 2000 )
+                                      .collect( Collectors.toList() );
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( lines )
+        .build();
+    final List<String> allLines = new ArrayList<>( lines );
+
+    for( int i = 0; i < 20000; i++ ) {
+      assertTrue( symSpell.addWord( inventedWord( i ), 1000 + i ) );
+      allLines.add( inventedWord( i ) + "\t" + (1000 + i) );
+    }
+
+    symSpell.compact();
+
+    final SymSpell fresh = new SymSpellBuilder()
+        .setLexiconWords( allLines )
+        .build();
+
+    assertEquals( fresh.getWords(), symSpell.getWords() );
+    assertEquals( bucketSets( fresh.getDeletes() ),
+                  bucketSets( symSpell.getDeletes() ) );
+    assertEquals( fresh.lookupAll( inputs, Verbosity.ALL ),
+                  symSpell.lookupAll( inputs, Verbosity.ALL ) );
+  }
+
+  /**
+   * Returns the words of each delete bucket, ignoring their order.
+   */
+  private static Map<Long, Set<String>> bucketSets(
+      final Map<Long, String[]> deletes ) {
+    final Map<Long, Set<String>> sets = new HashMap<>();
+    deletes.forEach( ( hash, words ) -> sets.put(
+        hash, new HashSet<>( Arrays.asList( words ) ) ) );
+    return sets;
+  }
+
+  /**
+   * Returns a word far from every lexicon word and every input.
+   */
+  private static String inventedWord( final int i ) {
+    final StringBuilder word = new StringBuilder( "qzxjw" );
+
+    for( int n = i, digits = 0; digits < 5; digits++, n /= 26 ) {
+      word.append( (char) ('a' + n % 26) );
+    }
+
+    return word.toString();
+  }
+
+  /**
+   * Runs the task on {@link #THREADS} threads released together and
+   * rethrows the first failure.
+   */
+  private static void runConcurrently( final StressTask task )
+      throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+    final CountDownLatch start = new CountDownLatch( 1 );
+    final List<Future<?>> futures = new ArrayList<>();
+
+    try {
+      for( int thread = 0; thread < THREADS; thread++ ) {
+        final int id = thread;
+        futures.add( executor.submit( () -> {
+          start.await();
+          task.run( id );
+          return null;
+        } ) );
+      }
+
+      start.countDown();
+
+      for( final Future<?> future : futures ) {
+        try {
+          future.get( 5, TimeUnit.MINUTES );
+        } catch( final ExecutionException e ) {
+          if( e.getCause() instanceof Error ) {
+            throw (Error) e.getCause();
+          }
+          throw e;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Picks words from the lexicon and applies up to two random edits to
+   * most of them, keeping some correct and some out of vocabulary.
+   */
+  private static List<String> misspell(
+      final Set<String> lexicon, final int count ) {
+    final List<String> words = lexicon.stream()
+                                      .map( line -> line.split( "\t" )[ 0 ] )
+                                      .sorted()
+                                      .collect( Collectors.toList() );
+    final Random random = new Random( 42 );
+    final List<String> misspelled = new ArrayList<>( count );
+
+    for( int i = 0; i < count; i++ ) {
+      final StringBuilder word = new StringBuilder(
+          words.get( random.nextInt( words.size() ) ) );
+
+      for( int edits = random.nextInt( 3 ); edits > 0 && word.length() > 1;
+           edits-- ) {
+        final int position = random.nextInt( word.length() );
+
+        if( random.nextBoolean() ) {
+          word.deleteCharAt( position );
+        }
+        else {
+          word.insert( position, (char) ('a' + random.nextInt( 26 )) );
+        }
+      }
+
+      misspelled.add( word.toString() );
+    }
+
+    misspelled.add( "qxzvjkwpqxzvjkwp" );
+    return misspelled;
+  }
+
+  @FunctionalInterface
+  private interface StressTask {
+    void run( int thread ) throws Exception;
+  }
+}
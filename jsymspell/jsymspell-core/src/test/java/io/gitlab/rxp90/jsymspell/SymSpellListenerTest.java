@@ -0,0 +1,139 @@
+package io.gitlab.rxp90.jsymspell;
+
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.SymSpellListener.BuildPhase;
+import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellListenerTest {
+
+  private static final Set<String> LEXICON = Set.of(
+      "question" + LEXICON_DELIMITER + 500,
+      "questionnaire" + LEXICON_DELIMITER + 200,
+      "quest" + LEXICON_DELIMITER + 100,
+      "request" + LEXICON_DELIMITER + 300,
+      "guest" + LEXICON_DELIMITER + 80 );
+
+  @Test
+  void lookupsAndBuildPhasesAreReported() throws NotInitializedException {
+    final List<String> reports = new ArrayList<>();
+    final List<BuildPhase> phases = new ArrayList<>();
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( LEXICON )
+        .setLookupCacheSize( 16 )
+        .setListener( new SymSpellListener() {
+          @Override
+          public void lookupCompleted( final LookupMetrics metrics ) {
+            reports.add( metrics.toString() );
+
+            assertEquals( "qest", metrics.getInput() );
+            assertEquals( Verbosity.ALL, metrics.getVerbosity() );
+            assertEquals( 2, metrics.getMaxEditDistance() );
+            assertEquals( 2, metrics.getSuggestions() );
+            assertTrue( metrics.getNanos() > 0 );
+
+            if( metrics.isCached() ) {
+              assertEquals( 0, metrics.getCandidates() );
+              return;
+            }
+
+            assertTrue( metrics.getCandidates() > 1 );
+            assertTrue(
+                metrics.getBucketsProbed() <= metrics.getCandidates() );
+            assertTrue(
+                metrics.getBucketsFound() <= metrics.getBucketsProbed() );
+            assertTrue(
+                metrics.getLargestBucket() <= metrics.getBucketEntries() );
+            assertTrue(
+                metrics.getDistanceExits() <= metrics.getDistanceCalls() );
+
+            // Every word found in a bucket is rejected, skipped or compared.
+            assertTrue( metrics.getBucketEntries() >=
+                            metrics.getLengthRejections()
+                                + metrics.getPrefixRejections()
+                                + metrics.getSuffixRejections()
+                                + metrics.getDeleteOrderRejections()
+                                + metrics.getDuplicates()
+                                + metrics.getOrderSkips()
+                                + metrics.getDistanceCalls() );
+            assertTrue( metrics.getDuplicates() > 0 );
+          }
+
+          @Override
+          public void buildPhaseCompleted(
+              final BuildPhase phase, final long nanos ) {
+            assertTrue( nanos >= 0 );
+            phases.add( phase );
+          }
+        } )
+        .build();
+
+    assertEquals( List.of( BuildPhase.PARSE,
+                           BuildPhase.GENERATE_DELETES,
+                           BuildPhase.COMMIT ), phases );
+
+    final List<SuggestItem> suggestions =
+        symSpell.lookup( "qest", Verbosity.ALL );
+
+    assertEquals( suggestions, symSpell.lookup( "qest", Verbosity.ALL ) );
+    assertEquals( 2, reports.size() );
+    assertTrue( reports.get( 1 ).contains( "cached=true" ) );
+  }
+
+  @Test
+  void jfrListenerRecordsEvents() throws IOException, NotInitializedException {
+    final Path file = Files.createTempFile( "jsymspell", ".jfr" );
+
+    try {
+      try( final Recording recording = new Recording() ) {
+        recording.enable( "jsymspell.Lookup" );
+        recording.enable( "jsymspell.BuildPhase" );
+        recording.start();
+
+        new SymSpellBuilder()
+            .setLexiconWords( LEXICON )
+            .setListener( new JfrListener() )
+            .build()
+            .lookup( "qest", Verbosity.CLOSEST );
+
+        recording.stop();
+        recording.dump( file );
+      }
+
+      final List<String> phases = new ArrayList<>();
+      RecordedEvent lookup = null;
+
+      for( final RecordedEvent event : RecordingFile.readAllEvents( file ) ) {
+        final String name = event.getEventType().getName();
+
+        if( name.equals( "jsymspell.BuildPhase" ) ) {
+          phases.add( event.getString( "phase" ) );
+        }
+        else if( name.equals( "jsymspell.Lookup" ) ) {
+          lookup = event;
+        }
+      }
+
+      assertEquals( List.of( "PARSE", "GENERATE_DELETES", "COMMIT" ), phases );
+      assertNotNull( lookup );
+      assertEquals( "qest", lookup.getString( "input" ) );
+      assertEquals( "CLOSEST", lookup.getString( "verbosity" ) );
+      assertTrue( lookup.getInt( "candidates" ) > 1 );
+    } finally {
+      Files.delete( file );
+    }
+  }
+}
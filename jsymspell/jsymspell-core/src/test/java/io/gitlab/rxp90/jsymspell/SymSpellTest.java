@@ -1,6 +1,7 @@
 package io.gitlab.rxp90.jsymspell;
 
 import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.api.DamerauLevenshteinOSA;
 import io.gitlab.rxp90.jsymspell.api.DefaultStringHasher;
 import io.gitlab.rxp90.jsymspell.exceptions.NotInitializedException;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,8 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
@@ -43,6 +46,21 @@ class SymSpellTest {
     );
   }
 
+  @Test
+  void test_DeletesMap_Imported_SuggestsReturned() {
+    final DefaultStringHasher stringHasher = new DefaultStringHasher();
+    final long deleteHash = stringHasher.hash( "xyz" );
+
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setStringHasher( stringHasher )
+        .setDeletesMap( Map.of( deleteHash, new String[]{"abcde", "unknown"} ) )
+        .setLexiconWords( Set.of( entry( "abcde", 100 ) ) )
+        .build();
+
+    assertArrayEquals(
+        new String[]{"abcde"}, symSpell.getDeletes().get( deleteHash ) );
+  }
+
   @Test
   void loadDictionaryIfWordIsRepeatedFrequenciesAreTotaledUp() {
     final Set<String> lexicon = Set.of(
@@ -56,6 +74,17 @@ class SymSpellTest {
     assertEquals( 190, symSpell.getWords().get( "I_am_repeated" ) );
   }
 
+  @Test
+  void loadDictionaryIfLineIsRepeatedFrequenciesAreTotaledUp() {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( List.of(
+            entry( "I_am_repeated", 100 ),
+            entry( "I_am_repeated", 100 ) ) )
+        .build();
+
+    assertEquals( 200, symSpell.getWords().get( "I_am_repeated" ) );
+  }
+
   @Test
   void loadDictionaryFrequenciesBelowThresholdAreIgnored() {
     final Set<String> lexicon = Set.of(
@@ -71,6 +100,51 @@ class SymSpellTest {
     assertTrue( symSpell.getWords().containsKey( "above_threshold" ) );
   }
 
+  @Test
+  void loadDictionaryFrequenciesTotaledUpToThresholdAreKept() {
+    final Set<String> lexicon = Set.of(
+        entry( "rare", 60 ),
+        entry( "rarer", 10 ),
+        entry( "rare", 50 ) );
+
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setCountThreshold( 100 )
+        .setLexiconWords( lexicon )
+        .build();
+
+    assertEquals( Map.of( "rare", 110L ), symSpell.getWords() );
+  }
+
+  @Test
+  void parallelBuildMatchesSequentialBuild()
+      throws IOException, URISyntaxException {
+    final List<String> lexicon = new ArrayList<>(
+        readLexiconLines( FILE_LEXICON_WORDS ) );
+    lexicon.add( entry( "the", 7 ) );
+    lexicon.add( entry( "zzyzx", 3 ) );
+
+    final SymSpell sequential = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 1 )
+        .setCountThreshold( 5 )
+        .setLexiconWords( lexicon )
+        .build();
+    final SymSpell parallel = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 1 )
+        .setCountThreshold( 5 )
+        .setLexiconWords( lexicon )
+        .setParallelism( 4 )
+        .build();
+
+    assertEquals( sequential.getWords(), parallel.getWords() );
+
+    final Map<Long, String[]> expected = sequential.getDeletes();
+    final Map<Long, String[]> actual = parallel.getDeletes();
+    assertEquals( expected.keySet(), actual.keySet() );
+    expected.forEach(
+        ( deleteHash, words ) -> assertArrayEquals(
+            words, actual.get( deleteHash ) ) );
+  }
+
   @Test
   void lookupCompound()
       throws IOException, NotInitializedException, URISyntaxException {
@@ -107,6 +181,223 @@ class SymSpellTest {
     assertEquals( 0, suggestions.get( 0 ).getEditDistance() );
   }
 
+  @Test
+  void knownWordsAndFrequenciesFollowChanges() {
+    final String latin1 = "caf\u00e9";
+    final String wide = "\u043a\u043e\u0442";
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setCountThreshold( 100 )
+        .setLexiconWords( Set.of( entry( latin1, 300 ),
+                                  entry( wide, 200 ),
+                                  entry( "rare", 50 ) ) )
+        .build();
+
+    assertTrue( symSpell.isKnown( latin1 ) );
+    assertTrue( symSpell.isKnown( new StringBuilder( wide ) ) );
+    assertEquals( 300, symSpell.frequency( new StringBuilder( latin1 ) ) );
+    assertFalse( symSpell.isKnown( "cafe" ) );
+    assertFalse( symSpell.isKnown( "rare" ) );
+    assertEquals( 0, symSpell.frequency( "rare" ) );
+
+    symSpell.addWord( "rare", 60 );
+    symSpell.removeWord( latin1 );
+    symSpell.updateCount( wide, 250 );
+
+    assertEquals( 110, symSpell.frequency( "rare" ) );
+    assertFalse( symSpell.isKnown( latin1 ) );
+    assertEquals( 250, symSpell.frequency( wide ) );
+
+    symSpell.compact();
+
+    assertTrue( symSpell.isKnown( "rare" ) );
+    assertEquals( 0, symSpell.frequency( latin1 ) );
+    assertEquals( 250, symSpell.frequency( wide ) );
+  }
+
+  @Test
+  void wordSegmentationInsertsMissingSpaces()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( readLexiconLines( FILE_LEXICON_WORDS ) )
+        .build();
+
+    final Composition composition = symSpell.wordSegmentation(
+        "itwasabrightcolddayinapril", 0, 20 );
+
+    assertEquals( "it was a bright cold day in april",
+                  composition.getSegmentedString() );
+    assertEquals( composition.getSegmentedString(),
+                  composition.getCorrectedString() );
+    // One edit per inserted space.
+    assertEquals( 7, composition.getDistanceSum() );
+
+    final Composition corrected = symSpell.wordSegmentation(
+        "thequickbrownfoxjumpsoverthelazzydog", 1, 20 );
+
+    assertEquals( "the quick brown fox jumps over the lazy dog",
+                  corrected.getCorrectedString() );
+    assertEquals( 9, corrected.getDistanceSum() );
+  }
+
+  @Test
+  void lookupClosestReturnsEveryWordAtTheSmallestDistance()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setLexiconWords( readLexiconLines( FILE_LEXICON_WORDS ) )
+        .build();
+
+    final List<SuggestItem> top = symSpell.lookup( "choce", Verbosity.TOP );
+    assertEquals( 1, top.size() );
+    assertEquals( "choice", top.get( 0 ).getSuggestion() );
+
+    final Set<String> closest = new HashSet<>();
+    for( final SuggestItem item : symSpell.lookup(
+        "lubby", Verbosity.CLOSEST ) ) {
+      assertEquals( 1, item.getEditDistance() );
+      closest.add( item.getSuggestion() );
+    }
+    assertTrue( closest.containsAll( Set.of( "lobby", "hubby", "clubby" ) ) );
+
+    assertFalse( symSpell.lookup( "oe", Verbosity.CLOSEST ).isEmpty() );
+  }
+
+  @Test
+  void lookupMatchesAFullScanOfTheLexicon()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final Set<String> lines = readLexiconLines( FILE_LEXICON_WORDS );
+    final Map<String, Long> counts = new HashMap<>();
+
+    for( final String line : lines ) {
+      final String[] fields = line.split( LEXICON_DELIMITER );
+      counts.merge( fields[ 0 ], Long.parseLong( fields[ 1 ] ), Long::sum );
+    }
+
+    final List<String> words = new ArrayList<>( counts.keySet() );
+    Collections.sort( words );
+
+    final DamerauLevenshteinOSA osa = new DamerauLevenshteinOSA();
+    final Random random = new Random( 42 );
+
+    for( int maxEditDistance = 1; maxEditDistance <= 3; maxEditDistance++ ) {
+      final SymSpell symSpell = new SymSpellBuilder()
+          .setMaxDictionaryEditDistance( maxEditDistance )
+          .setLexiconWords( lines )
+          .build();
+
+      for( int n = 0; n < 100; n++ ) {
+        final String input = misspell(
+            random, words.get( random.nextInt( words.size() ) ),
+            1 + random.nextInt( maxEditDistance ) );
+        final Map<String, Integer> within = new HashMap<>();
+        int closest = Integer.MAX_VALUE;
+
+        for( final String word : words ) {
+          final int distance = osa.distance( input, word, maxEditDistance );
+
+          // The reference may answer beyond the maximum for short words.
+          if( distance >= 0 && distance <= maxEditDistance ) {
+            within.put( word, distance );
+            closest = Math.min( closest, distance );
+          }
+        }
+
+        final Map<String, Integer> all = new HashMap<>();
+        final Set<String> nearest = new HashSet<>();
+        long topCount = 0;
+
+        for( final SuggestItem item : symSpell.lookup( input, Verbosity.ALL ) ) {
+          all.put( item.getSuggestion(), item.getEditDistance() );
+        }
+
+        for( final Map.Entry<String, Integer> entry : within.entrySet() ) {
+          if( entry.getValue() == closest ) {
+            nearest.add( entry.getKey() );
+            topCount = Math.max( topCount, counts.get( entry.getKey() ) );
+          }
+        }
+
+        final Set<String> closestWords = new HashSet<>();
+
+        for( final SuggestItem item :
+            symSpell.lookup( input, Verbosity.CLOSEST ) ) {
+          assertEquals( closest, item.getEditDistance(), input );
+          closestWords.add( item.getSuggestion() );
+        }
+
+        final List<SuggestItem> top = symSpell.lookup( input, Verbosity.TOP );
+
+        assertEquals( within, all, input );
+        assertEquals( nearest, closestWords, input );
+        assertEquals( within.isEmpty() ? 0 : 1, top.size(), input );
+
+        if( !top.isEmpty() ) {
+          assertEquals( closest, top.get( 0 ).getEditDistance(), input );
+          assertEquals( topCount,
+                        top.get( 0 ).getFrequencyOfSuggestionInDict(), input );
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the given number of random insertions, deletions,
+   * substitutions and transpositions to a word.
+   */
+  private static String misspell(
+      final Random random, final String word, final int edits ) {
+    final StringBuilder misspelled = new StringBuilder( word );
+
+    for( int edit = 0; edit < edits; edit++ ) {
+      final int length = misspelled.length();
+      final int i = random.nextInt( length );
+      final char c = (char) ('a' + random.nextInt( 26 ));
+
+      switch( length < 2 ? 0 : random.nextInt( 4 ) ) {
+        case 0:
+          misspelled.insert( i, c );
+          break;
+        case 1:
+          misspelled.deleteCharAt( i );
+          break;
+        case 2:
+          misspelled.setCharAt( i, c );
+          break;
+        default:
+          final int j = i == length - 1 ? i - 1 : i;
+          final char swapped = misspelled.charAt( j );
+          misspelled.setCharAt( j, misspelled.charAt( j + 1 ) );
+          misspelled.setCharAt( j + 1, swapped );
+          break;
+      }
+    }
+
+    return misspelled.toString();
+  }
+
+  @Test
+  void lookupTopFindsRaisedCountsInOrderedBuckets()
+      throws NotInitializedException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setLexiconWords( Set.of( entry( "abcx", 100 ),
+                                  entry( "abcy", 10 ),
+                                  entry( "abcdef", 1000 ) ) )
+        .build();
+
+    assertEquals( List.of( new SuggestItem( "abcx", 1, 100 ) ),
+                  symSpell.lookup( "abc", Verbosity.TOP ) );
+
+    // Buckets are ordered by the counts the words were built with.
+    symSpell.updateCount( "abcy", 1000 );
+
+    for( int compacted = 0; compacted < 2; compacted++ ) {
+      assertEquals( List.of( new SuggestItem( "abcy", 1, 1000 ) ),
+                    symSpell.lookup( "abc", Verbosity.TOP ) );
+      symSpell.compact();
+    }
+  }
+
   @Test()
   void lookupWithoutLoadingDictThrowsException()
       throws NotInitializedException {
@@ -130,6 +421,157 @@ class SymSpellTest {
     assertEquals( 1, suggestions.get( 0 ).getEditDistance() );
   }
 
+  @Test
+  void lookupWithReusedContextMatchesThreadContext()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setLexiconWords( readLexiconLines( FILE_LEXICON_WORDS ) )
+        .build();
+    final SymSpell small = new SymSpellBuilder()
+        .setLexiconWords( Set.of( entry( "summary", 5 ) ) )
+        .build();
+    final LookupContext context = new LookupContext();
+
+    for( final String input : List.of(
+        "sumarized", "questionnaire", "a", "xyzzyplugh", "sumary" ) ) {
+      for( final Verbosity verbosity : Verbosity.values() ) {
+        assertEquals( symSpell.lookup( input, verbosity ),
+                      symSpell.lookup( input, verbosity, context ) );
+        assertEquals( small.lookup( input, verbosity ),
+                      small.lookup( input, verbosity, context ) );
+      }
+    }
+  }
+
+  @Test
+  void lookupAllMatchesLookupInInputOrder()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setLexiconWords( readLexiconLines( FILE_LEXICON_WORDS ) )
+        .build();
+    final List<String> inputs = List.of(
+        "sumarized", "questionaire", "questionnair", "sumarized", "a",
+        "xyzzyplugh", "summarise", "summarizes" );
+    final ExecutorService executor = Executors.newFixedThreadPool( 3 );
+
+    try {
+      for( final Verbosity verbosity : Verbosity.values() ) {
+        final List<List<SuggestItem>> sequential =
+            symSpell.lookupAll( inputs, verbosity );
+        final List<List<SuggestItem>> parallel =
+            symSpell.lookupAll( inputs, verbosity, executor );
+
+        assertEquals( inputs.size(), sequential.size() );
+        assertSame( sequential.get( 0 ), sequential.get( 3 ) );
+
+        for( int i = 0; i < inputs.size(); i++ ) {
+          final List<SuggestItem> expected =
+              symSpell.lookup( inputs.get( i ), verbosity );
+          assertEquals( expected, sequential.get( i ) );
+          assertEquals( expected, parallel.get( i ) );
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void cachedLookupsMatchUncachedLookups()
+      throws IOException, NotInitializedException, URISyntaxException {
+    final Set<String> lexicon = readLexiconLines( FILE_LEXICON_WORDS );
+    final SymSpell uncached = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .build();
+    final SymSpell cached = new SymSpellBuilder()
+        .setLexiconWords( lexicon )
+        .setLookupCacheSize( 100 )
+        .build();
+
+    for( int i = 0; i < 2; i++ ) {
+      for( final Verbosity verbosity : Verbosity.values() ) {
+        final List<SuggestItem> suggestions =
+            cached.lookup( "sumarized", verbosity );
+        assertEquals( uncached.lookup( "sumarized", verbosity ), suggestions );
+        suggestions.clear();
+      }
+    }
+
+    final CacheStats stats = cached.getLookupCacheStats();
+    assertEquals( 3, stats.getHitCount() );
+    assertEquals( 3, stats.getMissCount() );
+    assertEquals( 0, uncached.getLookupCacheStats().getMissCount() );
+  }
+
+  @Test
+  void changedWordsAreSuggestedLikeRebuiltOnes()
+      throws NotInitializedException {
+    final SymSpell changed = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setCountThreshold( 10 )
+        .setLexiconWords( Set.of( entry( "summary", 500 ),
+                                  entry( "summarize", 400 ),
+                                  entry( "summon", 300 ),
+                                  entry( "sumo", 200 ) ) )
+        .build();
+
+    assertTrue( changed.addWord( "summarized", 350 ) );
+    assertFalse( changed.addWord( "summarizer", 5 ) );
+    assertTrue( changed.addWord( "summarizer", 5 ) );
+    assertFalse( changed.addWord( "summon", 10 ) );
+    assertTrue( changed.removeWord( "sumo" ) );
+    assertFalse( changed.removeWord( "sumo" ) );
+    assertTrue( changed.updateCount( "summary", 150 ) );
+    assertFalse( changed.updateCount( "summit", 150 ) );
+
+    final SymSpell rebuilt = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( 2 )
+        .setCountThreshold( 10 )
+        .setLexiconWords( Set.of( entry( "summary", 150 ),
+                                  entry( "summarize", 400 ),
+                                  entry( "summon", 310 ),
+                                  entry( "summarized", 350 ),
+                                  entry( "summarizer", 10 ) ) )
+        .build();
+    final List<String> inputs = List.of(
+        "summarized", "sumarized", "summarizr", "sumo", "summ", "sumary" );
+
+    for( int compacted = 0; compacted < 2; compacted++ ) {
+      assertEquals( rebuilt.getWords(), changed.getWords() );
+
+      for( final String input : inputs ) {
+        for( final Verbosity verbosity : Verbosity.values() ) {
+          assertEquals( rebuilt.lookup( input, verbosity ),
+                        changed.lookup( input, verbosity ), input );
+        }
+      }
+
+      changed.compact();
+    }
+  }
+
+  @Test
+  void snapshotIgnoresLaterChanges() throws NotInitializedException {
+    final SymSpell symSpell = new SymSpellBuilder()
+        .setLexiconWords( Set.of( entry( "apple", 100 ) ) )
+        .setLookupCacheSize( 16 )
+        .build();
+    final SymSpell snapshot = symSpell.snapshot();
+
+    assertEquals( 1, symSpell.lookup( "aple", Verbosity.ALL ).size() );
+    symSpell.addWord( "ample", 50 );
+    symSpell.removeWord( "apple" );
+
+    assertEquals( List.of( new SuggestItem( "ample", 1, 50 ) ),
+                  symSpell.lookup( "aple", Verbosity.ALL ) );
+    assertEquals( List.of( new SuggestItem( "apple", 1, 100 ) ),
+                  snapshot.lookup( "aple", Verbosity.ALL ) );
+    assertThrows( UnsupportedOperationException.class,
+                  () -> snapshot.addWord( "ample", 1 ) );
+  }
+
   @Test
   void editsDistance0() {
     final SymSpell symSpell = new SymSpellBuilder()
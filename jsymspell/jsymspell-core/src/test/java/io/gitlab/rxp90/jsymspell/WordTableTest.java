@@ -0,0 +1,80 @@
+package io.gitlab.rxp90.jsymspell;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordTableTest {
+
+  @Test
+  void addAssignsDenseIdsInOrder() {
+    final WordTable table = new WordTable( 1 );
+
+    assertEquals( 0, table.add( "alpha", 5 ) );
+    assertEquals( 1, table.add( "beta", 7 ) );
+    assertEquals( 2, table.size() );
+    assertEquals( 1, table.find( new StringBuilder( "beta" ) ) );
+    assertEquals( -1, table.find( "gamma" ) );
+  }
+
+  @Test
+  void wordsSurviveGrowth() {
+    final WordTable table = new WordTable( 1 );
+
+    for( int i = 0; i < 5000; i++ ) {
+      table.add( "word" + i, i );
+    }
+
+    for( int i = 0; i < 5000; i++ ) {
+      final int wordId = table.find( "word" + i );
+      assertEquals( i, wordId );
+      assertEquals( "word" + i, table.word( wordId ) );
+      assertEquals( i, table.count( wordId ) );
+    }
+  }
+
+  @Test
+  void charactersAreReadFromPool() {
+    final WordTable table = new WordTable( 4 );
+    table.add( "", 1 );
+    final int wordId = table.add( "example", 3 );
+
+    assertEquals( 0, table.length( 0 ) );
+    assertEquals( 7, table.length( wordId ) );
+    assertEquals( 'x', table.charAt( wordId, 1 ) );
+    assertTrue( table.equals( wordId, "example" ) );
+    assertFalse( table.equals( wordId, "examples" ) );
+    assertTrue( table.regionMatches( wordId, 4, "sample", 3, 3 ) );
+    assertFalse( table.regionMatches( wordId, 3, "sample", 3, 3 ) );
+
+    table.setCount( wordId, 11 );
+    assertEquals( 11, table.count( wordId ) );
+  }
+
+  @Test
+  void latin1AndWideWordsShareThePool() {
+    final WordTable table = new WordTable( 1 );
+    final String[] words = {"caf\u00e9", "\u65e5\u672c", "na\u00efve", "\u0100b", "x"};
+
+    for( final String word : words ) {
+      table.add( word, word.length() );
+    }
+
+    for( int wordId = 0; wordId < words.length; wordId++ ) {
+      final String word = words[ wordId ];
+      final char[] chars = new char[ word.length() ];
+
+      assertEquals( wordId, table.find( word ) );
+      assertEquals( word, table.word( wordId ) );
+      assertEquals( word.length(), table.length( wordId ) );
+      assertEquals( word.charAt( word.length() - 1 ),
+                    table.charAt( wordId, word.length() - 1 ) );
+      assertEquals( word.length(), table.getChars( wordId, chars ) );
+      assertEquals( word, new String( chars ) );
+    }
+
+    final byte[] latin1 = table.latin1Array( 2 );
+    assertNull( table.latin1Array( 1 ) );
+    assertEquals( (byte) 0xEF, latin1[ table.arrayOffset( 2 ) + 2 ] );
+  }
+}
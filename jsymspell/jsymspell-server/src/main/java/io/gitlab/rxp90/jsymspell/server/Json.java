@@ -0,0 +1,79 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+
+import java.util.List;
+
+/**
+ * Writes the JSON responses of a {@link SpellServer}. Each suggestion is an
+ * object with its {@code term}, edit {@code distance} and {@code count}.
+ */
+final class Json {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * Counts beyond this are not whole numbers in a double.
+   */
+  private static final double MAX_WHOLE = 1L << 53;
+
+  private Json() {
+  }
+
+  static void suggestions(
+      final StringBuilder out, final List<SuggestItem> suggestions ) {
+    out.append( '[' );
+
+    for( int i = 0; i < suggestions.size(); i++ ) {
+      final SuggestItem item = suggestions.get( i );
+
+      if( i > 0 ) {
+        out.append( ',' );
+      }
+
+      out.append( "{\"term\":" );
+      string( out, item.getSuggestion() );
+      out.append( ",\"distance\":" ).append( item.getEditDistance() );
+      out.append( ",\"count\":" );
+      number( out, item.getFrequencyOfSuggestionInDict() );
+      out.append( '}' );
+    }
+
+    out.append( ']' );
+  }
+
+  static void string( final StringBuilder out, final String s ) {
+    out.append( '"' );
+
+    for( int i = 0, length = s.length(); i < length; i++ ) {
+      final char c = s.charAt( i );
+
+      if( c == '"' || c == '\\' ) {
+        out.append( '\\' ).append( c );
+      }
+      else if( c < 0x20 ) {
+        out.append( "\\u00" ).append( HEX[ c >> 4 ] ).append( HEX[ c & 0xF ] );
+      }
+      else {
+        out.append( c );
+      }
+    }
+
+    out.append( '"' );
+  }
+
+  /**
+   * Writes whole numbers, which word counts are, without a fraction.
+   */
+  private static void number( final StringBuilder out, final double value ) {
+    if( value == Math.rint( value ) && Math.abs( value ) < MAX_WHOLE ) {
+      out.append( (long) value );
+    }
+    else if( Double.isFinite( value ) ) {
+      out.append( value );
+    }
+    else {
+      out.append( "null" );
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends concurrent {@code /lookup} requests to a server on localhost and
+ * reports the throughput and latency percentiles:
+ * <pre>
+ * java -cp jsymspell-server.jar \
+ *   io.gitlab.rxp90.jsymspell.server.LoadGenerator --lexicon words.txt \
+ *   [--port 8080] [--clients 32] [--seconds 10] [--vocabulary 2000] \
+ *   [--verbosity CLOSEST]
+ * </pre>
+ * Without {@code --port}, a server over the lexicon is started in this
+ * process on a free port, taking the options of {@link ServerMain}. Inputs
+ * are the first {@code vocabulary} words of the lexicon, half of them with
+ * one letter replaced, drawn with fixed seeds so that runs are comparable.
+ * A smaller vocabulary makes concurrent requests repeat, and so coalesce,
+ * more often.
+ */
+public final class LoadGenerator {
+
+  private LoadGenerator() {
+  }
+
+  public static void main( final String[] args )
+      throws IOException, InterruptedException {
+    final Map<String, String> options = ServerMain.options( args );
+    final String[] inputs = inputs(
+        options.get( "lexicon" ),
+        Integer.parseInt( options.getOrDefault( "vocabulary", "2000" ) ) );
+    final int clients =
+        Integer.parseInt( options.getOrDefault( "clients", "32" ) );
+    final long seconds =
+        Long.parseLong( options.getOrDefault( "seconds", "10" ) );
+    final String verbosity = options.getOrDefault( "verbosity", "CLOSEST" );
+
+    SpellServer server = null;
+    final int port;
+
+    if( options.containsKey( "port" ) ) {
+      port = Integer.parseInt( options.get( "port" ) );
+    }
+    else {
+      ServerMain.setNoDelay();
+      server = ServerMain.configure(
+          new SpellServerBuilder( ServerMain.load( options ) ), options )
+                         .setAddress( new InetSocketAddress(
+                             InetAddress.getLoopbackAddress(), 0 ) )
+                         .start();
+      port = server.getAddress().getPort();
+    }
+
+    try {
+      run( port, inputs, clients, seconds, verbosity );
+    } finally {
+      if( server != null ) {
+        server.close();
+      }
+    }
+  }
+
+  private static void run(
+      final int port, final String[] inputs, final int clients,
+      final long seconds, final String verbosity )
+      throws IOException, InterruptedException {
+    final String base = "http://127.0.0.1:" + port;
+    final HttpClient client = HttpClient
+        .newBuilder()
+        .version( HttpClient.Version.HTTP_1_1 )
+        .build();
+    final long[][] latencies = new long[ clients ][];
+    final int[] counts = new int[ clients ];
+    final AtomicLong errors = new AtomicLong();
+    final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    final List<Thread> threads = new ArrayList<>();
+
+    for( int c = 0; c < clients; c++ ) {
+      final int id = c;
+      final Thread thread = new Thread( () -> {
+        final Random random = new Random( id );
+        long[] own = new long[ 1024 ];
+        int count = 0;
+
+        while( System.nanoTime() < deadline ) {
+          final String term = inputs[ random.nextInt( inputs.length ) ];
+          final HttpRequest request = HttpRequest
+              .newBuilder( URI.create(
+                  base + "/lookup?verbosity=" + verbosity + "&term=" +
+                      URLEncoder.encode( term, UTF_8 ) ) )
+              .build();
+          final long start = System.nanoTime();
+
+          try {
+            final HttpResponse<String> response =
+                client.send( request, HttpResponse.BodyHandlers.ofString() );
+
+            if( response.statusCode() != 200 ) {
+              errors.incrementAndGet();
+              continue;
+            }
+          } catch( final IOException e ) {
+            errors.incrementAndGet();
+            continue;
+          } catch( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+
+          if( count == own.length ) {
+            own = Arrays.copyOf( own, count * 2 );
+          }
+
+          own[ count++ ] = System.nanoTime() - start;
+        }
+
+        latencies[ id ] = own;
+        counts[ id ] = count;
+      }, "load-" + id );
+
+      threads.add( thread );
+      thread.start();
+    }
+
+    for( final Thread thread : threads ) {
+      thread.join();
+    }
+
+    int total = 0;
+
+    for( final int count : counts ) {
+      total += count;
+    }
+
+    final long[] all = new long[ total ];
+    int next = 0;
+
+    for( int c = 0; c < clients; c++ ) {
+      System.arraycopy( latencies[ c ], 0, all, next, counts[ c ] );
+      next += counts[ c ];
+    }
+
+    Arrays.sort( all );
+
+    System.out.printf(
+        "%d clients, %d s: %,d requests (%,.0f/s), %,d errors%n",
+        clients, seconds, total, total / (double) seconds, errors.get() );
+
+    if( total > 0 ) {
+      System.out.printf(
+          "latency us: p50 %,d  p90 %,d  p99 %,d  max %,d%n",
+          percentile( all, 0.50 ), percentile( all, 0.90 ),
+          percentile( all, 0.99 ), all[ total - 1 ] / 1000 );
+    }
+
+    System.out.println( client.send(
+        HttpRequest.newBuilder( URI.create( base + "/stats" ) ).build(),
+        HttpResponse.BodyHandlers.ofString() ).body() );
+  }
+
+  private static long percentile( final long[] sorted, final double p ) {
+    return sorted[ (int) Math.min( sorted.length - 1,
+                                   (long) (p * sorted.length) ) ] / 1000;
+  }
+
+  /**
+   * Returns the first words of a lexicon, every other one misspelled.
+   */
+  private static String[] inputs( final String lexicon, final int vocabulary )
+      throws IOException {
+    if( lexicon == null ) {
+      throw new IllegalArgumentException( "--lexicon is required" );
+    }
+
+    final Random random = new Random( 42 );
+    final List<String> inputs = new ArrayList<>( vocabulary );
+
+    for( final String line : Files.readAllLines( Paths.get( lexicon ) ) ) {
+      if( inputs.size() == vocabulary ) {
+        break;
+      }
+
+      final int end = line.indexOf( LEXICON_DELIMITER );
+      final String word = end < 0 ? line : line.substring( 0, end );
+
+      if( word.isEmpty() ) {
+        continue;
+      }
+
+      if( inputs.size() % 2 == 0 ) {
+        inputs.add( word );
+      }
+      else {
+        final char[] chars = word.toCharArray();
+        chars[ random.nextInt( chars.length ) ] =
+            (char) ('a' + random.nextInt( 26 ));
+        inputs.add( new String( chars ) );
+      }
+    }
+
+    return inputs.toArray( new String[ 0 ] );
+  }
+}
@@ -0,0 +1,400 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gathers the lookups of concurrent requests into batches for a bounded
+ * pool of lookup threads. Each batch is answered with one
+ * {@link SymSpell#lookupAll(List, Verbosity)} per verbosity, which shares
+ * the expansion of common prefixes between its terms.
+ * <p>
+ * A request for a lookup that is already queued or running joins it
+ * instead of queuing another, so a burst of identical requests costs one
+ * lookup. Nothing is cached once a lookup completes.
+ * </p>
+ * <p>
+ * A single collector thread takes the queued lookups. While a lookup thread
+ * is idle, it hands over whatever is queued at once, so a lone request is
+ * not delayed. While all are busy, it keeps collecting for up to the
+ * batch delay, or until the batch is full, since the batch could not start
+ * sooner anyway. It then waits for a lookup thread to become free, so that
+ * lookups wait in the bounded queue rather than in the pool, and a request
+ * that finds the queue full is rejected.
+ * </p>
+ */
+final class LookupBatcher implements AutoCloseable {
+
+  private final SymSpell symSpell;
+  private final Executor lookups;
+  private final int lookupThreads;
+  private final int maxBatchSize;
+  private final long maxBatchDelayNanos;
+  private final BlockingQueue<Pending> queue;
+  private final ConcurrentMap<Key, Pending> inFlight =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger running = new AtomicInteger();
+  private final Thread collector;
+  private volatile boolean closed;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedLookups = new LongAdder();
+
+  /**
+   * @param symSpell           Answers the lookups.
+   * @param lookups            Runs the batches.
+   * @param lookupThreads      The number of batches {@code lookups} runs at
+   *                           once.
+   * @param maxBatchSize       The most lookups in one batch.
+   * @param maxBatchDelayNanos How long to wait for a batch to fill while no
+   *                           lookup thread is idle.
+   * @param queueCapacity      The most lookups waiting for a batch; further
+   *                           lookups are rejected.
+   */
+  LookupBatcher(
+      final SymSpell symSpell,
+      final Executor lookups,
+      final int lookupThreads,
+      final int maxBatchSize,
+      final long maxBatchDelayNanos,
+      final int queueCapacity ) {
+    this.symSpell = symSpell;
+    this.lookups = lookups;
+    this.lookupThreads = lookupThreads;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelayNanos = maxBatchDelayNanos;
+    this.queue = new ArrayBlockingQueue<>( queueCapacity );
+    this.collector = new Thread( this::collect, "jsymspell-batcher" );
+    this.collector.setDaemon( true );
+    this.collector.start();
+  }
+
+  /**
+   * Looks up a term with the dictionary's maximum edit distance.
+   *
+   * @return The suggestions, an unmodifiable list that may be shared with
+   * other requests; fails with {@link RejectedExecutionException} when the
+   * queue is full.
+   */
+  CompletableFuture<List<SuggestItem>> lookup(
+      final String term, final Verbosity verbosity ) {
+    return submit( new Key( term, verbosity, -1 ) );
+  }
+
+  /**
+   * Corrects a line of terms.
+   *
+   * @see SymSpell#lookupCompound(String, int)
+   */
+  CompletableFuture<List<SuggestItem>> lookupCompound(
+      final String text, final int maxEditDistance ) {
+    return submit( new Key( text, null, maxEditDistance ) );
+  }
+
+  /**
+   * Looks up many terms as one unit of work, bypassing the batching and
+   * coalescing that the terms of a large request would overwhelm. The
+   * work occupies a lookup thread like a batch does.
+   *
+   * @return The suggestions for each term; fails with
+   * {@link RejectedExecutionException} when the lookup pool is full.
+   */
+  CompletableFuture<List<List<SuggestItem>>> lookupAll(
+      final List<String> terms, final Verbosity verbosity ) {
+    requests.increment();
+
+    final CompletableFuture<List<List<SuggestItem>>> future =
+        new CompletableFuture<>();
+
+    if( closed ) {
+      future.completeExceptionally(
+          new RejectedExecutionException( "Server is closing" ) );
+      return future;
+    }
+
+    try {
+      execute( () -> {
+        try {
+          future.complete( symSpell.lookupAll( terms, verbosity ) );
+        } catch( final Exception e ) {
+          future.completeExceptionally( e );
+        }
+      } );
+    } catch( final RejectedExecutionException e ) {
+      future.completeExceptionally( e );
+    }
+
+    return future;
+  }
+
+  private CompletableFuture<List<SuggestItem>> submit( final Key key ) {
+    requests.increment();
+
+    final Pending created = new Pending( key );
+    final Pending pending = inFlight.putIfAbsent( key, created );
+
+    if( pending != null ) {
+      coalesced.increment();
+      return pending.future;
+    }
+
+    if( closed ) {
+      fail( List.of( created ),
+            new RejectedExecutionException( "Server is closing" ) );
+    }
+    else if( !queue.offer( created ) ) {
+      fail( List.of( created ),
+            new RejectedExecutionException( "Lookup queue is full" ) );
+    }
+    else if( closed && queue.remove( created ) ) {
+      // Offered after the collector drained the queue for the last time.
+      fail( List.of( created ),
+            new RejectedExecutionException( "Server is closing" ) );
+    }
+
+    return created.future;
+  }
+
+  /**
+   * Takes queued lookups into batches until closed.
+   */
+  private void collect() {
+    List<Pending> batch = new ArrayList<>();
+
+    try {
+      while( !closed ) {
+        batch.add( queue.take() );
+
+        while( batch.size() < maxBatchSize ) {
+          queue.drainTo( batch, maxBatchSize - batch.size() );
+
+          if( batch.size() >= maxBatchSize
+              || running.get() < lookupThreads ) {
+            break;
+          }
+
+          final Pending next =
+              queue.poll( maxBatchDelayNanos, TimeUnit.NANOSECONDS );
+
+          if( next == null ) {
+            break;
+          }
+
+          batch.add( next );
+        }
+
+        awaitIdleThread();
+        queue.drainTo( batch, maxBatchSize - batch.size() );
+        dispatch( batch );
+        batch = new ArrayList<>();
+      }
+    } catch( final InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+
+    // A batch interrupted while filling fails with the lookups still queued.
+    queue.drainTo( batch );
+    fail( batch, new RejectedExecutionException( "Server is closing" ) );
+  }
+
+  /**
+   * Parks the collector while every lookup thread is busy.
+   */
+  private void awaitIdleThread() throws InterruptedException {
+    while( running.get() >= lookupThreads ) {
+      LockSupport.park( this );
+
+      if( Thread.interrupted() ) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  private void dispatch( final List<Pending> batch ) {
+    batches.increment();
+    batchedLookups.add( batch.size() );
+
+    try {
+      execute( () -> run( batch ) );
+    } catch( final RejectedExecutionException e ) {
+      fail( batch, e );
+    }
+  }
+
+  /**
+   * Runs a task on a lookup thread, counting it as running until it ends.
+   */
+  private void execute( final Runnable task ) {
+    running.incrementAndGet();
+
+    try {
+      lookups.execute( () -> {
+        try {
+          task.run();
+        } finally {
+          finished();
+        }
+      } );
+    } catch( final RejectedExecutionException e ) {
+      finished();
+      throw e;
+    }
+  }
+
+  /**
+   * Frees a lookup thread and wakes the collector in case it waits for one.
+   */
+  private void finished() {
+    running.decrementAndGet();
+    LockSupport.unpark( collector );
+  }
+
+  /**
+   * Answers a batch, grouping single-term lookups by verbosity.
+   */
+  private void run( final List<Pending> batch ) {
+    final Map<Verbosity, List<Pending>> groups =
+        new EnumMap<>( Verbosity.class );
+
+    for( final Pending pending : batch ) {
+      final Key key = pending.key;
+
+      if( key.verbosity == null ) {
+        try {
+          complete( pending, symSpell.lookupCompound(
+              key.text, key.maxEditDistance ) );
+        } catch( final Exception e ) {
+          fail( List.of( pending ), e );
+        }
+      }
+      else {
+        groups.computeIfAbsent( key.verbosity, v -> new ArrayList<>() )
+              .add( pending );
+      }
+    }
+
+    for( final Map.Entry<Verbosity, List<Pending>> group :
+        groups.entrySet() ) {
+      final List<Pending> pendings = group.getValue();
+      final List<String> terms = new ArrayList<>( pendings.size() );
+
+      for( final Pending pending : pendings ) {
+        terms.add( pending.key.text );
+      }
+
+      try {
+        final List<List<SuggestItem>> results =
+            symSpell.lookupAll( terms, group.getKey() );
+
+        for( int i = 0; i < pendings.size(); i++ ) {
+          complete( pendings.get( i ), results.get( i ) );
+        }
+      } catch( final Exception e ) {
+        fail( pendings, e );
+      }
+    }
+  }
+
+  private void complete(
+      final Pending pending, final List<SuggestItem> suggestions ) {
+    inFlight.remove( pending.key, pending );
+    pending.future.complete( List.copyOf( suggestions ) );
+  }
+
+  private void fail( final List<Pending> pendings, final Throwable cause ) {
+    for( final Pending pending : pendings ) {
+      inFlight.remove( pending.key, pending );
+      pending.future.completeExceptionally( cause );
+    }
+  }
+
+  /**
+   * Writes the counts of requests, coalesced requests, batches and lookups
+   * in batches as a JSON object.
+   */
+  void writeStats( final StringBuilder out ) {
+    out.append( "{\"requests\":" ).append( requests.sum() )
+       .append( ",\"coalesced\":" ).append( coalesced.sum() )
+       .append( ",\"batches\":" ).append( batches.sum() )
+       .append( ",\"batchedLookups\":" ).append( batchedLookups.sum() )
+       .append( ",\"queued\":" ).append( queue.size() )
+       .append( '}' );
+  }
+
+  long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Stops taking lookups; those still queued fail.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    collector.interrupt();
+  }
+
+  /**
+   * Identifies equal lookups: a term and verbosity, or a line and maximum
+   * edit distance for a compound lookup.
+   */
+  private static final class Key {
+    private final String text;
+    private final Verbosity verbosity;
+    private final int maxEditDistance;
+
+    Key( final String text, final Verbosity verbosity,
+         final int maxEditDistance ) {
+      this.text = text;
+      this.verbosity = verbosity;
+      this.maxEditDistance = maxEditDistance;
+    }
+
+    @Override
+    public boolean equals( final Object o ) {
+      if( !(o instanceof Key) ) {
+        return false;
+      }
+
+      final Key key = (Key) o;
+      return maxEditDistance == key.maxEditDistance
+          && verbosity == key.verbosity
+          && text.equals( key.text );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( text, verbosity, maxEditDistance );
+    }
+  }
+
+  private static final class Pending {
+    private final Key key;
+    private final CompletableFuture<List<SuggestItem>> future =
+        new CompletableFuture<>();
+
+    Pending( final Key key ) {
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpellBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads a dictionary and serves it until the process is stopped:
+ * <pre>
+ * java -jar jsymspell-server.jar --lexicon words.txt [--bigrams bigrams.txt]
+ *   [--index words.idx] [--max-edit-distance 2] [--bind 127.0.0.1]
+ *   [--port 8080] [--lookup-threads N] [--request-threads 64]
+ *   [--batch-size 64] [--batch-delay-micros 200] [--queue-capacity 4096]
+ *   [--batch-terms 4096] [--batch-bytes 1048576]
+ * </pre>
+ * With {@code --index}, an index file written by
+ * {@link SymSpell#writeIndex(Path)} is mapped instead of building from the
+ * lexicon.
+ */
+public final class ServerMain {
+
+  private ServerMain() {
+  }
+
+  public static void main( final String[] args ) throws IOException {
+    setNoDelay();
+
+    final Map<String, String> options = options( args );
+    final SymSpell symSpell = load( options );
+    final SpellServer server = configure(
+        new SpellServerBuilder( symSpell ), options ).start();
+
+    Runtime.getRuntime().addShutdownHook( new Thread( server::close ) );
+    System.out.println( "Serving on " + server.getAddress() );
+  }
+
+  /**
+   * Sends small responses at once rather than after a delayed ACK, unless
+   * the command line says otherwise. The JDK reads the property once,
+   * before the first server starts.
+   */
+  static void setNoDelay() {
+    if( System.getProperty( "sun.net.httpserver.nodelay" ) == null ) {
+      System.setProperty( "sun.net.httpserver.nodelay", "true" );
+    }
+  }
+
+  /**
+   * Builds the dictionary named by the options.
+   */
+  static SymSpell load( final Map<String, String> options ) {
+    final int maxEditDistance = Integer.parseInt(
+        options.getOrDefault( "max-edit-distance", "2" ) );
+    final SymSpellBuilder builder = new SymSpellBuilder()
+        .setMaxDictionaryEditDistance( maxEditDistance );
+    final String index = options.get( "index" );
+    final String lexicon = options.get( "lexicon" );
+    final String bigrams = options.get( "bigrams" );
+
+    if( index != null ) {
+      builder.setIndexFile( Paths.get( index ) );
+    }
+    else if( lexicon != null ) {
+      builder.setLexiconWords( Paths.get( lexicon ) );
+    }
+    else {
+      throw new IllegalArgumentException( "--lexicon or --index is required" );
+    }
+
+    if( bigrams != null ) {
+      builder.setLexiconBigrams( Paths.get( bigrams ) );
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Applies the server options to a builder.
+   */
+  static SpellServerBuilder configure(
+      final SpellServerBuilder builder, final Map<String, String> options ) {
+    builder.setAddress( new InetSocketAddress(
+        options.getOrDefault( "bind", "127.0.0.1" ),
+        Integer.parseInt( options.getOrDefault( "port", "8080" ) ) ) );
+
+    if( options.containsKey( "lookup-threads" ) ) {
+      builder.setLookupThreads(
+          Integer.parseInt( options.get( "lookup-threads" ) ) );
+    }
+
+    if( options.containsKey( "request-threads" ) ) {
+      builder.setRequestThreads(
+          Integer.parseInt( options.get( "request-threads" ) ) );
+    }
+
+    if( options.containsKey( "batch-size" ) ) {
+      builder.setMaxBatchSize(
+          Integer.parseInt( options.get( "batch-size" ) ) );
+    }
+
+    if( options.containsKey( "batch-delay-micros" ) ) {
+      builder.setMaxBatchDelay( Duration.ofNanos(
+          1000 * Long.parseLong( options.get( "batch-delay-micros" ) ) ) );
+    }
+
+    if( options.containsKey( "queue-capacity" ) ) {
+      builder.setQueueCapacity(
+          Integer.parseInt( options.get( "queue-capacity" ) ) );
+    }
+
+    if( options.containsKey( "batch-terms" ) ) {
+      builder.setMaxBatchTerms(
+          Integer.parseInt( options.get( "batch-terms" ) ) );
+    }
+
+    if( options.containsKey( "batch-bytes" ) ) {
+      builder.setMaxBatchBytes(
+          Integer.parseInt( options.get( "batch-bytes" ) ) );
+    }
+
+    return builder;
+  }
+
+  /**
+   * Parses {@code --name value} pairs.
+   */
+  static Map<String, String> options( final String[] args ) {
+    final Map<String, String> options = new HashMap<>();
+
+    for( int i = 0; i < args.length; i += 2 ) {
+      if( !args[ i ].startsWith( "--" ) || i + 1 == args.length ) {
+        throw new IllegalArgumentException( "Expected --name value: " +
+                                                args[ i ] );
+      }
+
+      options.put( args[ i ].substring( 2 ), args[ i + 1 ] );
+    }
+
+    return options;
+  }
+}
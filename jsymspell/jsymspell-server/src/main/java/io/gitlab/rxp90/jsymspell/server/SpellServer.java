@@ -0,0 +1,350 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Serves lookups of a loaded {@link SymSpell} over HTTP, using only the
+ * JDK's {@code com.sun.net.httpserver}. Responses are JSON:
+ * <dl>
+ *   <dt>{@code GET /lookup?term=T&verbosity=V}</dt>
+ *   <dd>The suggestions for a term, {@code verbosity} being {@code TOP},
+ *   {@code CLOSEST} (the default) or {@code ALL}.</dd>
+ *   <dt>{@code GET /lookupCompound?text=T&maxEditDistance=D}</dt>
+ *   <dd>The correction of a line of terms, {@code maxEditDistance}
+ *   defaulting to 2.</dd>
+ *   <dt>{@code POST /batch?verbosity=V}</dt>
+ *   <dd>The suggestions for each line of the UTF-8 body, as an array of
+ *   arrays in the order of the lines. A body with too many bytes or lines
+ *   is answered with status 413.</dd>
+ *   <dt>{@code GET /stats}</dt>
+ *   <dd>Counts of requests, coalesced requests and batches.</dd>
+ * </dl>
+ * <p>
+ * Requests are parsed on virtual threads when the JDK has them, or on a
+ * fixed pool of platform threads otherwise. Their lookups are batched,
+ * and identical ones coalesced, by a {@link LookupBatcher} that runs on a
+ * fixed pool of lookup threads. A request that finds the lookup queue full,
+ * or a batch that finds every lookup thread busy and another batch
+ * waiting for each, is answered with status 503.
+ * </p>
+ * <p>
+ * Without the system property {@code sun.net.httpserver.nodelay} set to
+ * {@code true}, small responses can wait some 40 ms for a delayed ACK. The
+ * property applies to every {@code HttpServer} in the JVM, so it is left to
+ * the application; {@link ServerMain} sets it.
+ * </p>
+ *
+ * @see SpellServerBuilder
+ */
+public final class SpellServer implements AutoCloseable {
+
+  private static final int DEFAULT_COMPOUND_EDIT_DISTANCE = 2;
+
+  private final HttpServer server;
+  private final ExecutorService requests;
+  private final ExecutorService lookups;
+  private final LookupBatcher batcher;
+  private final int maxBatchTerms;
+  private final int maxBatchBytes;
+
+  SpellServer(
+      final SymSpell symSpell,
+      final InetSocketAddress address,
+      final int requestThreads,
+      final int lookupThreads,
+      final int maxBatchSize,
+      final long maxBatchDelayNanos,
+      final int queueCapacity,
+      final int maxBatchTerms,
+      final int maxBatchBytes ) throws IOException {
+    this.maxBatchTerms = maxBatchTerms;
+    this.maxBatchBytes = maxBatchBytes;
+    this.requests = Workers.requestExecutor( requestThreads );
+    this.lookups = Workers.lookupExecutor( lookupThreads );
+    this.batcher = new LookupBatcher(
+        symSpell, lookups, lookupThreads, maxBatchSize, maxBatchDelayNanos,
+        queueCapacity );
+
+    try {
+      this.server = HttpServer.create( address, 0 );
+    } catch( final IOException e ) {
+      close( batcher, requests, lookups );
+      throw e;
+    }
+
+    server.setExecutor( requests );
+    server.createContext( "/lookup", this::lookup );
+    server.createContext( "/lookupCompound", this::lookupCompound );
+    server.createContext( "/batch", this::batch );
+    server.createContext( "/stats", this::stats );
+    server.start();
+  }
+
+  /**
+   * Returns the address the server listens on, whose port is the one
+   * chosen when the builder asked for port 0.
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /**
+   * Stops accepting connections and fails lookups still queued.
+   */
+  @Override
+  public void close() {
+    server.stop( 0 );
+    close( batcher, requests, lookups );
+  }
+
+  private static void close(
+      final LookupBatcher batcher,
+      final ExecutorService requests,
+      final ExecutorService lookups ) {
+    batcher.close();
+    requests.shutdown();
+    lookups.shutdown();
+  }
+
+  private void lookup( final HttpExchange exchange ) throws IOException {
+    if( requireMethod( exchange, "GET" ) ) {
+      final Map<String, String> query = query( exchange );
+      final String term = query.get( "term" );
+
+      if( term == null ) {
+        respond( exchange, 400, "Missing term" );
+        return;
+      }
+
+      final Verbosity verbosity = verbosity( exchange, query );
+
+      if( verbosity != null ) {
+        respond( exchange, batcher.lookup( term, verbosity ) );
+      }
+    }
+  }
+
+  private void lookupCompound( final HttpExchange exchange )
+      throws IOException {
+    if( requireMethod( exchange, "GET" ) ) {
+      final Map<String, String> query = query( exchange );
+      final String text = query.get( "text" );
+      final String distance = query.get( "maxEditDistance" );
+
+      if( text == null ) {
+        respond( exchange, 400, "Missing text" );
+        return;
+      }
+
+      final int maxEditDistance;
+
+      try {
+        maxEditDistance = distance == null
+            ? DEFAULT_COMPOUND_EDIT_DISTANCE
+            : Integer.parseInt( distance );
+      } catch( final NumberFormatException e ) {
+        respond( exchange, 400, "Invalid maxEditDistance" );
+        return;
+      }
+
+      respond( exchange, batcher.lookupCompound( text, maxEditDistance ) );
+    }
+  }
+
+  private void batch( final HttpExchange exchange ) throws IOException {
+    if( requireMethod( exchange, "POST" ) ) {
+      final Verbosity verbosity = verbosity( exchange, query( exchange ) );
+
+      if( verbosity == null ) {
+        return;
+      }
+
+      final byte[] bytes;
+
+      try( final InputStream body = exchange.getRequestBody() ) {
+        bytes = body.readNBytes( maxBatchBytes + 1 );
+      }
+
+      if( bytes.length > maxBatchBytes ) {
+        respond( exchange, 413, "Batch exceeds " + maxBatchBytes + " bytes" );
+        return;
+      }
+
+      final List<String> terms = new ArrayList<>();
+
+      for( final String line :
+          new String( bytes, UTF_8 ).split( "\r?\n" ) ) {
+        if( !line.isEmpty() ) {
+          terms.add( line );
+        }
+      }
+
+      if( terms.size() > maxBatchTerms ) {
+        respond( exchange, 413, "Batch exceeds " + maxBatchTerms + " terms" );
+        return;
+      }
+
+      final List<List<SuggestItem>> results;
+
+      try {
+        results = batcher.lookupAll( terms, verbosity ).get();
+      } catch( final ExecutionException e ) {
+        failed( exchange, e.getCause() );
+        return;
+      } catch( final InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        respond( exchange, 503, "Interrupted" );
+        return;
+      }
+
+      final StringBuilder out = new StringBuilder( 64 * terms.size() + 2 );
+      out.append( '[' );
+
+      for( int i = 0; i < results.size(); i++ ) {
+        if( i > 0 ) {
+          out.append( ',' );
+        }
+
+        Json.suggestions( out, results.get( i ) );
+      }
+
+      out.append( ']' );
+      respond( exchange, 200, out );
+    }
+  }
+
+  private void stats( final HttpExchange exchange ) throws IOException {
+    if( requireMethod( exchange, "GET" ) ) {
+      final StringBuilder out = new StringBuilder();
+      batcher.writeStats( out );
+      respond( exchange, 200, out );
+    }
+  }
+
+  /**
+   * Waits for suggestions and sends them.
+   */
+  private void respond(
+      final HttpExchange exchange,
+      final CompletableFuture<List<SuggestItem>> suggestions )
+      throws IOException {
+    try {
+      final StringBuilder out = new StringBuilder( 128 );
+      Json.suggestions( out, suggestions.get() );
+      respond( exchange, 200, out );
+    } catch( final ExecutionException e ) {
+      failed( exchange, e.getCause() );
+    } catch( final InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      respond( exchange, 503, "Interrupted" );
+    }
+  }
+
+  private static void failed(
+      final HttpExchange exchange, final Throwable cause ) throws IOException {
+    if( cause instanceof RejectedExecutionException ) {
+      respond( exchange, 503, cause.getMessage() );
+    }
+    else if( cause instanceof IllegalArgumentException ) {
+      respond( exchange, 400, cause.getMessage() );
+    }
+    else {
+      respond( exchange, 500, String.valueOf( cause ) );
+    }
+  }
+
+  /**
+   * Answers with status 405 unless the request uses the given method.
+   */
+  private static boolean requireMethod(
+      final HttpExchange exchange, final String method ) throws IOException {
+    if( exchange.getRequestMethod().equals( method ) ) {
+      return true;
+    }
+
+    exchange.getResponseHeaders().set( "Allow", method );
+    respond( exchange, 405, "Use " + method );
+    return false;
+  }
+
+  /**
+   * Returns the verbosity parameter, or answers with status 400 and returns
+   * {@code null} when it is invalid.
+   */
+  private static Verbosity verbosity(
+      final HttpExchange exchange, final Map<String, String> query )
+      throws IOException {
+    final String verbosity = query.get( "verbosity" );
+
+    try {
+      return verbosity == null
+          ? Verbosity.CLOSEST
+          : Verbosity.valueOf( verbosity.toUpperCase( Locale.ROOT ) );
+    } catch( final IllegalArgumentException e ) {
+      respond( exchange, 400, "Invalid verbosity" );
+      return null;
+    }
+  }
+
+  private static Map<String, String> query( final HttpExchange exchange ) {
+    final Map<String, String> parameters = new HashMap<>();
+    final String query = exchange.getRequestURI().getRawQuery();
+
+    if( query != null ) {
+      for( final String parameter : query.split( "&" ) ) {
+        final int equals = parameter.indexOf( '=' );
+
+        if( equals > 0 ) {
+          parameters.put(
+              URLDecoder.decode( parameter.substring( 0, equals ), UTF_8 ),
+              URLDecoder.decode( parameter.substring( equals + 1 ), UTF_8 ) );
+        }
+      }
+    }
+
+    return parameters;
+  }
+
+  private static void respond(
+      final HttpExchange exchange, final int status, final String message )
+      throws IOException {
+    final StringBuilder out = new StringBuilder( "{\"error\":" );
+    Json.string( out, message == null ? "" : message );
+    respond( exchange, status, out.append( '}' ) );
+  }
+
+  private static void respond(
+      final HttpExchange exchange, final int status, final CharSequence json )
+      throws IOException {
+    final byte[] body = json.toString().getBytes( UTF_8 );
+
+    exchange.getResponseHeaders()
+            .set( "Content-Type", "application/json; charset=utf-8" );
+    exchange.sendResponseHeaders( status, body.length );
+
+    try( final OutputStream out = exchange.getResponseBody() ) {
+      out.write( body );
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import io.gitlab.rxp90.jsymspell.SymSpell;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Configures and starts a {@link SpellServer}. By default the server
+ * listens on port 8080 of the loopback address.
+ */
+public final class SpellServerBuilder {
+  private final SymSpell symSpell;
+  private InetSocketAddress address =
+      new InetSocketAddress( InetAddress.getLoopbackAddress(), 8080 );
+  private int requestThreads = 64;
+  private int lookupThreads = Runtime.getRuntime().availableProcessors();
+  private int maxBatchSize = 64;
+  private Duration maxBatchDelay = Duration.ofNanos( 200_000 );
+  private int queueCapacity = 4096;
+  private int maxBatchTerms = 4096;
+  private int maxBatchBytes = 1 << 20;
+
+  /**
+   * @param symSpell The loaded spell checker to serve, which may still be
+   *                 changed while it is served.
+   */
+  public SpellServerBuilder( final SymSpell symSpell ) {
+    this.symSpell = Objects.requireNonNull( symSpell );
+  }
+
+  /**
+   * Sets the address to listen on. Port 0 picks a free port, which
+   * {@link SpellServer#getAddress()} then reports.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setAddress( final InetSocketAddress address ) {
+    this.address = Objects.requireNonNull( address );
+    return this;
+  }
+
+  /**
+   * Sets the number of platform threads that parse requests and wait for
+   * their lookups, which is only used on JDKs without virtual threads.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setRequestThreads( final int requestThreads ) {
+    this.requestThreads = positive( requestThreads, "requestThreads" );
+    return this;
+  }
+
+  /**
+   * Sets the number of threads that run lookups, by default the number of
+   * processors.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setLookupThreads( final int lookupThreads ) {
+    this.lookupThreads = positive( lookupThreads, "lookupThreads" );
+    return this;
+  }
+
+  /**
+   * Sets the most lookups of concurrent requests answered together.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setMaxBatchSize( final int maxBatchSize ) {
+    this.maxBatchSize = positive( maxBatchSize, "maxBatchSize" );
+    return this;
+  }
+
+  /**
+   * Sets how long lookups may wait for their batch to fill while every
+   * lookup thread is busy. Lookups never wait while a thread is idle.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setMaxBatchDelay( final Duration maxBatchDelay ) {
+    if( maxBatchDelay.isNegative() ) {
+      throw new IllegalArgumentException( "maxBatchDelay < 0" );
+    }
+
+    this.maxBatchDelay = maxBatchDelay;
+    return this;
+  }
+
+  /**
+   * Sets the most lookups that may wait for a batch; requests beyond it are
+   * answered with status 503.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setQueueCapacity( final int queueCapacity ) {
+    this.queueCapacity = positive( queueCapacity, "queueCapacity" );
+    return this;
+  }
+
+  /**
+   * Sets the most lines of a {@code /batch} request; larger requests are
+   * answered with status 413.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setMaxBatchTerms( final int maxBatchTerms ) {
+    this.maxBatchTerms = positive( maxBatchTerms, "maxBatchTerms" );
+    return this;
+  }
+
+  /**
+   * Sets the most bytes of a {@code /batch} request body, by default one
+   * MiB; larger requests are answered with status 413.
+   *
+   * @return this
+   */
+  public SpellServerBuilder setMaxBatchBytes( final int maxBatchBytes ) {
+    this.maxBatchBytes = positive( maxBatchBytes, "maxBatchBytes" );
+    return this;
+  }
+
+  /**
+   * Starts a server with this configuration.
+   *
+   * @throws IOException Could not listen on the address.
+   */
+  public SpellServer start() throws IOException {
+    return new SpellServer(
+        symSpell,
+        address,
+        requestThreads,
+        lookupThreads,
+        maxBatchSize,
+        maxBatchDelay.toNanos(),
+        queueCapacity,
+        maxBatchTerms,
+        maxBatchBytes );
+  }
+
+  private static int positive( final int value, final String name ) {
+    if( value < 1 ) {
+      throw new IllegalArgumentException( name + " < 1" );
+    }
+
+    return value;
+  }
+}
@@ -0,0 +1,71 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools of a {@link SpellServer}. The module targets
+ * Java 11, so virtual threads are reached through reflection when the
+ * running JDK has them.
+ */
+final class Workers {
+
+  private Workers() {
+  }
+
+  /**
+   * Returns an executor for the threads that parse requests and wait for
+   * their lookups. On Java 21 or later each request gets a virtual thread,
+   * so waiting costs no platform thread; earlier JDKs get a fixed pool.
+   *
+   * @param threads The size of the fixed pool when there are no virtual
+   *                threads.
+   */
+  static ExecutorService requestExecutor( final int threads ) {
+    if( Runtime.version().feature() >= 21 ) {
+      try {
+        return (ExecutorService) Executors.class
+            .getMethod( "newVirtualThreadPerTaskExecutor" )
+            .invoke( null );
+      } catch( final ReflectiveOperationException e ) {
+        // Fall back to platform threads.
+      }
+    }
+
+    return Executors.newFixedThreadPool(
+        threads, named( "jsymspell-request-" ) );
+  }
+
+  /**
+   * Returns a fixed pool of platform threads for the lookups themselves,
+   * which are bound by the processor rather than by waiting. At most one
+   * task per thread waits for a thread to become free; further tasks are
+   * rejected.
+   */
+  static ExecutorService lookupExecutor( final int threads ) {
+    return new ThreadPoolExecutor(
+        threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>( threads ),
+        named( "jsymspell-lookup-" ),
+        ( task, executor ) -> {
+          throw new RejectedExecutionException( "Lookup pool is full" );
+        } );
+  }
+
+  private static ThreadFactory named( final String prefix ) {
+    final AtomicInteger count = new AtomicInteger();
+
+    return runnable -> {
+      final Thread thread =
+          new Thread( runnable, prefix + count.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,231 @@
+package io.gitlab.rxp90.jsymspell.server;
+
+import io.gitlab.rxp90.jsymspell.SuggestItem;
+import io.gitlab.rxp90.jsymspell.SymSpell;
+import io.gitlab.rxp90.jsymspell.SymSpell.Verbosity;
+import io.gitlab.rxp90.jsymspell.SymSpellBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.gitlab.rxp90.jsymspell.SymSpell.LEXICON_DELIMITER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpellServerTest {
+
+  private static final SymSpell SYM_SPELL = new SymSpellBuilder()
+      .setLexiconWords( Set.of(
+          "hello" + LEXICON_DELIMITER + 500,
+          "help" + LEXICON_DELIMITER + 300,
+          "world" + LEXICON_DELIMITER + 400,
+          "say" + LEXICON_DELIMITER + 200 ) )
+      .build();
+
+  @Test
+  void endpointsAnswerInJson() throws IOException, InterruptedException {
+    try( final SpellServer server = new SpellServerBuilder( SYM_SPELL )
+        .setAddress( new InetSocketAddress(
+            InetAddress.getLoopbackAddress(), 0 ) )
+        .start() ) {
+      final String base =
+          "http://127.0.0.1:" + server.getAddress().getPort();
+      final HttpClient client = HttpClient.newHttpClient();
+
+      assertEquals(
+          "[{\"term\":\"hello\",\"distance\":1,\"count\":500}]",
+          get( client, base + "/lookup?term=helo&verbosity=top" ) );
+      assertEquals(
+          "[]", get( client, base + "/lookup?term=xyzzyq" ) );
+      assertTrue( get( client, base + "/lookupCompound?text=say+helo+wrld" )
+                      .startsWith( "[{\"term\":\"say hello world\"" ) );
+
+      final HttpResponse<String> batch = client.send(
+          HttpRequest.newBuilder( URI.create( base + "/batch?verbosity=TOP" ) )
+                     .POST( HttpRequest.BodyPublishers.ofString(
+                         "helo\nwrld\n" ) )
+                     .build(),
+          HttpResponse.BodyHandlers.ofString() );
+
+      assertEquals( 200, batch.statusCode() );
+      assertEquals(
+          "[[{\"term\":\"hello\",\"distance\":1,\"count\":500}]," +
+              "[{\"term\":\"world\",\"distance\":1,\"count\":400}]]",
+          batch.body() );
+
+      assertEquals( 400, status( client, base + "/lookup" ) );
+      assertEquals(
+          400, status( client, base + "/lookup?term=a&verbosity=x" ) );
+      assertEquals( 400, status(
+          client, base + "/lookupCompound?text=a&maxEditDistance=9" ) );
+      assertTrue( get( client, base + "/stats" ).contains( "\"requests\":" ) );
+    }
+  }
+
+  @Test
+  void identicalLookupsInFlightAreCoalesced() throws Exception {
+    final List<Runnable> batches = new CopyOnWriteArrayList<>();
+
+    // Batches wait until the test runs them, so lookups stay in flight.
+    // Two lookup threads let the collector hand over both batches.
+    try( final LookupBatcher batcher = new LookupBatcher(
+        SYM_SPELL, batches::add, 2, 64, 0, 16 ) ) {
+      final CompletableFuture<List<SuggestItem>> first =
+          batcher.lookup( "helo", Verbosity.CLOSEST );
+
+      while( batches.isEmpty() ) {
+        Thread.sleep( 1 );
+      }
+
+      final CompletableFuture<List<SuggestItem>> second =
+          batcher.lookup( "helo", Verbosity.CLOSEST );
+      final CompletableFuture<List<SuggestItem>> other =
+          batcher.lookup( "helo", Verbosity.ALL );
+
+      assertSame( first, second );
+      assertNotSame( first, other );
+      assertEquals( 1, batcher.coalescedCount() );
+
+      while( batches.size() < 2 ) {
+        Thread.sleep( 1 );
+      }
+
+      batches.forEach( Runnable::run );
+
+      assertEquals(
+          SYM_SPELL.lookup( "helo", Verbosity.CLOSEST ), first.get() );
+      assertEquals( SYM_SPELL.lookup( "helo", Verbosity.ALL ), other.get() );
+
+      // Completed lookups are not cached.
+      assertNotSame( first, batcher.lookup( "helo", Verbosity.CLOSEST ) );
+    }
+  }
+
+  @Test
+  void closingFailsLookupsOfABatchStillFilling() throws Exception {
+    final List<Runnable> batches = new CopyOnWriteArrayList<>();
+    final CompletableFuture<List<SuggestItem>> waiting;
+
+    // The only lookup thread stays busy, so the collector waits a minute
+    // for the second batch to fill.
+    try( final LookupBatcher batcher = new LookupBatcher(
+        SYM_SPELL, batches::add, 1, 64, TimeUnit.MINUTES.toNanos( 1 ),
+        16 ) ) {
+      batcher.lookup( "helo", Verbosity.TOP );
+
+      while( batches.isEmpty() ) {
+        Thread.sleep( 1 );
+      }
+
+      waiting = batcher.lookup( "wrld", Verbosity.TOP );
+      Thread.sleep( 50 );
+    }
+
+    final ExecutionException e = assertThrows(
+        ExecutionException.class, () -> waiting.get( 10, TimeUnit.SECONDS ) );
+    assertTrue( e.getCause() instanceof RejectedExecutionException );
+    assertEquals( 1, batches.size() );
+  }
+
+  @Test
+  void batchesWaitForALookupThreadFreedByBatchRequests() throws Exception {
+    final List<Runnable> batches = new CopyOnWriteArrayList<>();
+
+    try( final LookupBatcher batcher = new LookupBatcher(
+        SYM_SPELL, batches::add, 1, 64, 0, 16 ) ) {
+      final CompletableFuture<List<List<SuggestItem>>> all =
+          batcher.lookupAll( List.of( "helo", "wrld" ), Verbosity.TOP );
+      final CompletableFuture<List<SuggestItem>> single =
+          batcher.lookup( "helo", Verbosity.TOP );
+
+      // The only lookup thread is taken by the batch request.
+      Thread.sleep( 50 );
+      assertEquals( 1, batches.size() );
+
+      batches.get( 0 ).run();
+
+      while( batches.size() < 2 ) {
+        Thread.sleep( 1 );
+      }
+
+      batches.get( 1 ).run();
+
+      assertEquals( SYM_SPELL.lookupAll(
+          List.of( "helo", "wrld" ), Verbosity.TOP ), all.get() );
+      assertEquals( SYM_SPELL.lookup( "helo", Verbosity.TOP ), single.get() );
+    }
+  }
+
+  @Test
+  void lookupsAfterClosingAreRejected() {
+    final LookupBatcher batcher = new LookupBatcher(
+        SYM_SPELL, Runnable::run, 1, 64, 0, 16 );
+    batcher.close();
+
+    for( final CompletableFuture<?> future : List.of(
+        batcher.lookup( "helo", Verbosity.TOP ),
+        batcher.lookupAll( List.of( "helo" ), Verbosity.TOP ) ) ) {
+      final ExecutionException e =
+          assertThrows( ExecutionException.class, future::get );
+      assertTrue( e.getCause() instanceof RejectedExecutionException );
+      assertEquals( "Server is closing", e.getCause().getMessage() );
+    }
+  }
+
+  @Test
+  void oversizedBatchesAreRefused() throws IOException, InterruptedException {
+    try( final SpellServer server = new SpellServerBuilder( SYM_SPELL )
+        .setAddress( new InetSocketAddress(
+            InetAddress.getLoopbackAddress(), 0 ) )
+        .setMaxBatchTerms( 2 )
+        .setMaxBatchBytes( 16 )
+        .start() ) {
+      final String uri =
+          "http://127.0.0.1:" + server.getAddress().getPort() + "/batch";
+      final HttpClient client = HttpClient.newHttpClient();
+
+      assertEquals( 200, post( client, uri, "helo\nwrld\n" ) );
+      assertEquals( 413, post( client, uri, "helo\nwrld\nsay\n" ) );
+      assertEquals( 413, post( client, uri, "hellooooooooooooooo" ) );
+    }
+  }
+
+  private static int post(
+      final HttpClient client, final String uri, final String body )
+      throws IOException, InterruptedException {
+    return client.send(
+        HttpRequest.newBuilder( URI.create( uri ) )
+                   .POST( HttpRequest.BodyPublishers.ofString( body ) )
+                   .build(),
+        HttpResponse.BodyHandlers.discarding() ).statusCode();
+  }
+
+  private static String get( final HttpClient client, final String uri )
+      throws IOException, InterruptedException {
+    final HttpResponse<String> response = client.send(
+        HttpRequest.newBuilder( URI.create( uri ) ).build(),
+        HttpResponse.BodyHandlers.ofString() );
+
+    assertEquals( 200, response.statusCode(), response.body() );
+    return response.body();
+  }
+
+  private static int status( final HttpClient client, final String uri )
+      throws IOException, InterruptedException {
+    return client.send(
+        HttpRequest.newBuilder( URI.create( uri ) ).build(),
+        HttpResponse.BodyHandlers.discarding() ).statusCode();
+  }
+}